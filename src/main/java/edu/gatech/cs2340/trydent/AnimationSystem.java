@@ -0,0 +1,242 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+import edu.gatech.cs2340.trydent.animation.Animation;
+
+/**
+ * Plays the animations of all GameObjects in one event in the
+ * {@link UpdatePhase#ANIMATION} phase.
+ * <p>
+ * Only objects with a running animation are tracked, in a dense array. Every
+ * object remembers its slot in the array, so objects are added and removed
+ * in O(1) by moving the last object into the freed slot. Paused objects are
+ * removed as well, and catch up on their start time when they are unpaused.
+ * <p>
+ * Each frame runs in three passes: the loop and end bookkeeping of every
+ * object is worked out first, then the animations are sampled, and finally
+ * the samples are applied and listeners are told about loops and ends. When
+ * many thread-safe animations are playing, they are sampled in parallel;
+ * applying samples and notifying listeners always happens on the engine
+ * thread. Listeners may start and stop animations while samples are applied.
+ */
+final class AnimationSystem extends ContinuousEvent {
+
+    // Fewer samples than this aren't worth splitting across threads.
+    private static final int PARALLEL_THRESHOLD = 2048;
+    private static final int MIN_GRAIN = 512;
+
+    private static final byte PLAYING = 0;
+    private static final byte LOOPED = 1;
+    private static final byte ENDED = 2;
+
+    private static AnimationSystem instance;
+
+    private GameObject[] objects = new GameObject[16];
+    private int count;
+
+    // Snapshot of the objects for the current frame, so that listeners can
+    // change the objects array while samples are applied.
+    private GameObject[] batch = new GameObject[16];
+    private Animation[] batchAnimations = new Animation[16];
+    private int[] batchPlays = new int[16];
+    private double[] batchTimes = new double[16];
+    private byte[] batchStates = new byte[16];
+    // Whether each animation is sampled on the pool. Asked once per frame,
+    // since the answer can change while sampling, e.g. when a mixer drops a
+    // faded clip.
+    private boolean[] batchParallel = new boolean[16];
+
+    private AnimationSystem() {
+        super(UpdatePhase.ANIMATION);
+    }
+
+    /**
+     * Returns the animation system of the running engine, creating it if
+     * needed.
+     */
+    static AnimationSystem get() {
+        if (instance == null)
+            instance = new AnimationSystem();
+        return instance;
+    }
+
+    /**
+     * Starts playing the object's animation. Does nothing if it is already
+     * playing, or if the object has been destroyed.
+     */
+    static void add(GameObject object) {
+        if (object.animationSlot < 0 && !object.isDestroyed())
+            get().insert(object);
+    }
+
+    /**
+     * Stops playing the object's animation. Does nothing if it isn't playing.
+     */
+    static void remove(GameObject object) {
+        // Objects only have a slot while the system exists.
+        if (object.animationSlot >= 0)
+            instance.delete(object);
+    }
+
+    private void insert(GameObject object) {
+        if (count == objects.length)
+            objects = Arrays.copyOf(objects, count * 2);
+        object.animationSlot = count;
+        objects[count++] = object;
+    }
+
+    private void delete(GameObject object) {
+        int slot = object.animationSlot;
+        GameObject last = objects[--count];
+        objects[slot] = last;
+        last.animationSlot = slot;
+        objects[count] = null;
+        object.animationSlot = -1;
+    }
+
+    @Override
+    public void onUpdate() {
+        int size = count;
+        if (size == 0)
+            return;
+        ensureBatchCapacity(size);
+
+        // Read the clock once so that all values come from the same frame.
+        FrameTime frame = Time.getFrame();
+        double now = frame.getTime();
+        double timePassed = frame.getTimePassed();
+
+        int parallel = 0;
+        for (int i = 0; i < size; i++) {
+            GameObject object = objects[i];
+            Animation animation = object.animation;
+            double duration = animation.getDuration();
+            double time = now - object.animationStartTime;
+            byte state = PLAYING;
+            if (object.animationLoopCounter >= 0 && time > object.animationLoopCounter * duration) {
+                state = ENDED;
+            } else {
+                int lastLoopIndex = (int) (Math.max(0, time - timePassed) / duration);
+                int currLoopIndex = (int) (Math.max(0, time) / duration);
+                if (currLoopIndex > lastLoopIndex)
+                    state = LOOPED;
+            }
+            batch[i] = object;
+            batchAnimations[i] = animation;
+            batchPlays[i] = object.animationPlays;
+            batchTimes[i] = time;
+            batchStates[i] = state;
+            boolean safe = state != ENDED && animation.isThreadSafe();
+            batchParallel[i] = safe;
+            if (safe)
+                parallel++;
+        }
+
+        if (parallel >= PARALLEL_THRESHOLD) {
+            // Animations that aren't thread-safe are sampled here first, and
+            // the pool skips them.
+            for (int i = 0; i < size; i++) {
+                if (batchStates[i] != ENDED && !batchParallel[i])
+                    sample(i);
+            }
+            int grain = Math.max(MIN_GRAIN, size / (TrydentEngine.getWorkerPool().getParallelism() * 4));
+            TrydentEngine.getWorkerPool().invoke(new SampleTask(0, size, grain));
+        } else {
+            for (int i = 0; i < size; i++) {
+                if (batchStates[i] != ENDED)
+                    sample(i);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            GameObject object = batch[i];
+            // Skip objects whose animation a listener has stopped, paused or
+            // replaced earlier in this pass.
+            if (!isCurrent(object, i))
+                continue;
+            byte state = batchStates[i];
+            if (state == ENDED) {
+                object.endAnimation();
+                continue;
+            }
+            if (state == LOOPED) {
+                object.fireAnimationLooped();
+                if (!isCurrent(object, i))
+                    continue;
+            }
+            object.setLocalPose(object.animationPose);
+        }
+
+        Arrays.fill(batch, 0, size, null);
+        Arrays.fill(batchAnimations, 0, size, null);
+    }
+
+    /**
+     * Forgets all playing animations once the engine has stopped, so that the
+     * next run starts with a new system.
+     */
+    static void shutdown() {
+        AnimationSystem system = instance;
+        if (system == null)
+            return;
+        for (int i = 0; i < system.count; i++) {
+            system.objects[i].animationSlot = -1;
+            system.objects[i] = null;
+        }
+        system.count = 0;
+        instance = null;
+    }
+
+    private boolean isCurrent(GameObject object, int i) {
+        return object.animationPlays == batchPlays[i] && object.animationSlot >= 0;
+    }
+
+    private void sample(int i) {
+        batchAnimations[i].sample(batchTimes[i], batch[i].animationPose);
+    }
+
+    private void ensureBatchCapacity(int size) {
+        if (batch.length >= size)
+            return;
+        int capacity = Math.max(size, batch.length * 2);
+        batch = new GameObject[capacity];
+        batchAnimations = new Animation[capacity];
+        batchPlays = new int[capacity];
+        batchTimes = new double[capacity];
+        batchStates = new byte[capacity];
+        batchParallel = new boolean[capacity];
+    }
+
+    /**
+     * Samples the thread-safe animations in a range of the batch, splitting it
+     * across the pool.
+     */
+    private final class SampleTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int start, end, grain;
+
+        SampleTask(int start, int end, int grain) {
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                for (int i = start; i < end; i++) {
+                    if (batchParallel[i])
+                        sample(i);
+                }
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new SampleTask(start, mid, grain), new SampleTask(mid, end, grain));
+        }
+    }
+
+}
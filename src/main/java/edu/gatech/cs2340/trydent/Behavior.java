@@ -13,6 +13,37 @@ public abstract class Behavior extends ContinuousEvent {
         this.object = object;
     }
 
+    /**
+     * Creates a behavior for the given object that runs in the given phase of
+     * each frame.
+     *
+     * @param object
+     *            the object this behavior belongs to
+     * @param phase
+     *            the phase this behavior runs in
+     */
+    public Behavior(GameObject object, UpdatePhase phase) {
+        super(phase);
+        this.object = object;
+    }
+
+    /**
+     * Creates a behavior for the given object that runs in the given phase of
+     * each frame.
+     *
+     * @param object
+     *            the object this behavior belongs to
+     * @param phase
+     *            the phase this behavior runs in
+     * @param priority
+     *            order within the phase; behaviors with lower priorities run
+     *            first
+     */
+    public Behavior(GameObject object, UpdatePhase phase, int priority) {
+        super(phase, priority);
+        this.object = object;
+    }
+
     public GameObject getGameObject() {
         return object;
     }
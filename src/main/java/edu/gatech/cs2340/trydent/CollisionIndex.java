@@ -0,0 +1,208 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import edu.gatech.cs2340.trydent.math.geom.Rectangle;
+import edu.gatech.cs2340.trydent.math.geom.SpatialGrid;
+
+/**
+ * Keeps a {@link SpatialGrid} of all GameObjects with a {@link Rectangle}
+ * feature, for fast collision queries.
+ * <p>
+ * The Rectangle feature of an object is in the object's local coordinates,
+ * so it moves, rotates and scales with the object, and should not be moved
+ * along with it by hand; the index stores the axis-aligned box around it in
+ * scene coordinates. The index refreshes itself at the start of every frame
+ * (in the {@link UpdatePhase#PRE_INPUT} phase). Only the boxes of objects that
+ * moved, or whose Rectangle changed, since the last refresh are recomputed,
+ * and only those that moved into different cells are re-filed. Objects that
+ * are destroyed or lose their Rectangle feature are dropped at the same time.
+ * Call {@link #refresh()} to pick up changes made during the frame.
+ * <p>
+ * For example, to find the bricks the ball touches:
+ *
+ * <pre>
+ * CollisionIndex collisions = new CollisionIndex(32);
+ * ...
+ * for (GameObject hit : collisions.query(ballBounds)) { ... }
+ * </pre>
+ */
+public class CollisionIndex {
+
+    private static final double DEFAULT_CELL_SIZE = 64;
+
+    private final SpatialGrid<GameObject> grid;
+    private final Map<GameObject, Tracked> tracked = new IdentityHashMap<>();
+    private final List<Tracked> trackedList = new ArrayList<>();
+    private final double[] bounds = new double[4];
+    private final ContinuousEvent updater;
+
+    /**
+     * Creates a collision index with 64 by 64 cells.
+     */
+    public CollisionIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Creates a collision index.
+     *
+     * @param cellSize
+     *            size of the grid cells; about the size of a typical object
+     *            works best
+     */
+    public CollisionIndex(double cellSize) {
+        grid = new SpatialGrid<>(cellSize);
+        updater = new ContinuousEvent(UpdatePhase.PRE_INPUT) {
+            @Override
+            public void onUpdate() {
+                refresh();
+            }
+        };
+    }
+
+    /**
+     * Brings the index up to date with the current bounds of all objects.
+     */
+    public void refresh() {
+        List<GameObject> objects = GameObject.findAllWithFeature(Rectangle.class);
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject object = objects.get(i);
+            Rectangle rect = object.getFeature(Rectangle.class);
+            Tracked entry = tracked.get(object);
+            if (entry == null) {
+                entry = new Tracked(object);
+                tracked.put(object, entry);
+                trackedList.add(entry);
+            } else if (!entry.isStale(rect)) {
+                continue;
+            }
+            object.getWorldBounds(rect, bounds);
+            entry.remember(rect);
+            grid.update(object, bounds[0], bounds[1], bounds[2] - bounds[0], bounds[3] - bounds[1]);
+        }
+
+        // Destroyed objects leave the feature index, so anything tracked but
+        // no longer listed is swept here.
+        for (int i = trackedList.size() - 1; i >= 0; i--) {
+            GameObject object = trackedList.get(i).object;
+            if (object.isDestroyed() || !object.hasFeature(Rectangle.class)) {
+                grid.remove(object);
+                tracked.remove(object);
+                Tracked last = trackedList.remove(trackedList.size() - 1);
+                if (i < trackedList.size())
+                    trackedList.set(i, last);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of objects in this index.
+     *
+     * @return the object count
+     */
+    public int size() {
+        return grid.size();
+    }
+
+    /**
+     * Returns all objects whose bounds overlap the given region in scene
+     * coordinates.
+     *
+     * @param region
+     *            the region to search
+     * @return a new list of overlapping objects
+     */
+    public List<GameObject> query(Rectangle region) {
+        return grid.query(region);
+    }
+
+    /**
+     * Calls the action for every object whose bounds overlap the given region
+     * in scene coordinates.
+     *
+     * @param x
+     *            left edge of the region
+     * @param y
+     *            top edge of the region
+     * @param width
+     *            width of the region
+     * @param height
+     *            height of the region
+     * @param action
+     *            action to call for each overlapping object
+     */
+    public void query(double x, double y, double width, double height, Consumer<? super GameObject> action) {
+        grid.query(x, y, width, height, action);
+    }
+
+    /**
+     * Finds the first object whose bounds are hit by a ray.
+     *
+     * @param originX
+     *            x coordinate the ray starts at
+     * @param originY
+     *            y coordinate the ray starts at
+     * @param directionX
+     *            x component of the ray direction
+     * @param directionY
+     *            y component of the ray direction
+     * @param maxDistance
+     *            how far to follow the ray
+     * @return the nearest object hit, or null if nothing is hit
+     * @see SpatialGrid#raycast(double, double, double, double, double, double[])
+     */
+    public GameObject raycast(double originX, double originY, double directionX, double directionY,
+            double maxDistance) {
+        return grid.raycast(originX, originY, directionX, directionY, maxDistance, null);
+    }
+
+    /**
+     * Calls the action once for every pair of objects whose bounds overlap.
+     *
+     * @param action
+     *            action to call with both objects of each overlapping pair
+     */
+    public void forEachOverlappingPair(BiConsumer<? super GameObject, ? super GameObject> action) {
+        grid.forEachOverlappingPair(action);
+    }
+
+    /**
+     * Stops refreshing this index every frame.
+     */
+    public void stop() {
+        updater.stop();
+    }
+
+    /**
+     * What the box of a tracked object was last computed from.
+     */
+    private static final class Tracked {
+        final GameObject object;
+        int worldVersion;
+        double left, top, right, bottom;
+
+        Tracked(GameObject object) {
+            this.object = object;
+        }
+
+        boolean isStale(Rectangle rect) {
+            return object.getWorldVersion() != worldVersion || rect.getLeft() != left || rect.getTop() != top
+                    || rect.getRight() != right || rect.getBottom() != bottom;
+        }
+
+        void remember(Rectangle rect) {
+            worldVersion = object.getWorldVersion();
+            left = rect.getLeft();
+            top = rect.getTop();
+            right = rect.getRight();
+            bottom = rect.getBottom();
+        }
+    }
+
+}
@@ -10,19 +10,60 @@ package edu.gatech.cs2340.trydent;
  * Users seeking to create ContinousEvents should subclass this class, and
  * override at least the {@link #onUpdate} method, which is called once per
  * frame.
+ * <p>
+ * Every frame is divided into {@link UpdatePhase phases}, which run in order.
+ * Events run in the {@link UpdatePhase#UPDATE UPDATE} phase unless another
+ * phase is given when they are created; within a phase, events with a lower
+ * priority run first, and events with equal priority run in the order they
+ * were created.
  *
  * @author Garrett Malmquist
  *
  */
 public abstract class ContinuousEvent {
 
+    private final UpdatePhase phase;
+    private final int priority;
+
     private boolean started = false;
 
+    // Slot in the engine's EventRegistry, or -1 while not running.
+    int registryIndex = -1;
+
     /**
      * Creates a new ContinuousEvent, and tells the engine to start running it
      * on the next frame.
      */
     public ContinuousEvent() {
+        this(UpdatePhase.UPDATE, 0);
+    }
+
+    /**
+     * Creates a new ContinuousEvent that runs in the given phase of each
+     * frame, and tells the engine to start running it on the next frame.
+     *
+     * @param phase
+     *            the phase this event runs in
+     */
+    public ContinuousEvent(UpdatePhase phase) {
+        this(phase, 0);
+    }
+
+    /**
+     * Creates a new ContinuousEvent that runs in the given phase of each
+     * frame, and tells the engine to start running it on the next frame.
+     *
+     * @param phase
+     *            the phase this event runs in
+     * @param priority
+     *            order within the phase; events with lower priorities run
+     *            first
+     */
+    public ContinuousEvent(UpdatePhase phase, int priority) {
+        if (phase == null)
+            throw new TrydentException("The update phase of a ContinuousEvent cannot be null.");
+        this.phase = phase;
+        this.priority = priority;
         TrydentEngine.addContinuousEvent(this);
     }
 
@@ -51,6 +92,32 @@ public abstract class ContinuousEvent {
         }
     }
 
+    /**
+     * Returns the phase of each frame this event runs in.
+     *
+     * @return the update phase
+     */
+    public final UpdatePhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns the order of this event within its phase. Events with lower
+     * priorities run first.
+     *
+     * @return the priority
+     */
+    public final int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns true if the engine may update this event on a worker thread.
+     */
+    boolean runsInParallel() {
+        return false;
+    }
+
     /**
      * Tells the TrydentEngine to stop running this event.
      */
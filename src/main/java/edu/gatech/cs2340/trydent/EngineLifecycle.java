@@ -0,0 +1,61 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Completion signals for a single run of the engine, from start to stop.
+ * <p>
+ * The engine creates a new lifecycle every time it is started after having
+ * stopped, so futures handed out for one run are never completed by the next.
+ */
+class EngineLifecycle {
+
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
+    private final CompletableFuture<Void> firstFrame = new CompletableFuture<>();
+    private final CompletableFuture<Void> stopped = new CompletableFuture<>();
+
+    void markStarted() {
+        started.complete(null);
+    }
+
+    void markFirstFrame() {
+        firstFrame.complete(null);
+    }
+
+    void markStopped() {
+        // A run that stops before its first frame (or before it finished
+        // starting) still releases everyone waiting on it.
+        started.complete(null);
+        firstFrame.complete(null);
+        stopped.complete(null);
+    }
+
+    boolean isStopped() {
+        return stopped.isDone();
+    }
+
+    CompletableFuture<Void> started() {
+        return copy(started);
+    }
+
+    CompletableFuture<Void> firstFrame() {
+        return copy(firstFrame);
+    }
+
+    CompletableFuture<Void> stopped() {
+        return copy(stopped);
+    }
+
+    /** Direct access for waiting; never hand this out to users. */
+    CompletableFuture<Void> stoppedSignal() {
+        return stopped;
+    }
+
+    // Callers get a dependent future, so completing or cancelling it can't
+    // affect the engine or anyone else waiting on the same signal.
+    private static CompletableFuture<Void> copy(CompletableFuture<Void> future) {
+        return future.thenApply(Function.<Void> identity());
+    }
+
+}
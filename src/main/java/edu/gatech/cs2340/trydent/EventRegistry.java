@@ -0,0 +1,219 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Holds the ContinuousEvents run by the engine.
+ * <p>
+ * Events are grouped into buckets, one per phase and priority, and buckets
+ * are kept sorted in the order they run. Events that may run in parallel get
+ * buckets of their own, which run after the serial bucket of the same phase
+ * and priority. Within a bucket, events live in a
+ * dense array in the order they were added, and each event remembers its own
+ * slot, so removing one never searches or hashes. Requests to add or remove
+ * events may come from any thread; they are queued on lock-free queues and
+ * only applied by the engine thread in {@link #applyChanges()}, so the arrays
+ * never change while they are being iterated.
+ */
+class EventRegistry {
+
+    private final Queue<ContinuousEvent> toAdd = new ConcurrentLinkedQueue<>();
+    private final Queue<ContinuousEvent> toRemove = new ConcurrentLinkedQueue<>();
+
+    // Sorted by phase, then priority, then serial before parallel.
+    private final List<Bucket> buckets = new ArrayList<>();
+
+    /**
+     * Requests that the event be run, starting with the next call to
+     * {@link #applyChanges()}. Safe to call from any thread.
+     */
+    void requestAdd(ContinuousEvent event) {
+        toAdd.add(event);
+    }
+
+    /**
+     * Requests that the event be stopped and removed on the next call to
+     * {@link #applyChanges()}. Safe to call from any thread.
+     */
+    void requestRemove(ContinuousEvent event) {
+        toRemove.add(event);
+    }
+
+    /**
+     * Applies all pending requests: adds first, then removes, so an event
+     * added and removed in the same frame never runs. Removed events are
+     * stopped, and events they remove in turn from their onStop() methods are
+     * handled in the same call.
+     */
+    void applyChanges() {
+        ContinuousEvent event;
+        while ((event = toAdd.poll()) != null) {
+            if (event.registryIndex >= 0)
+                continue; // Already running.
+            findBucket(event, true).add(event);
+        }
+
+        // Removed slots are cleared first and closed up in a single pass
+        // afterwards, which keeps the remaining events in their original order.
+        boolean removed = false;
+        while ((event = toRemove.poll()) != null) {
+            event.doStop();
+            if (event.registryIndex < 0)
+                continue; // Never added, or already removed.
+            findBucket(event, false).clear(event);
+            removed = true;
+        }
+        if (removed) {
+            for (int i = 0; i < buckets.size(); i++) {
+                buckets.get(i).compact();
+            }
+        }
+    }
+
+    private Bucket findBucket(ContinuousEvent event, boolean create) {
+        UpdatePhase phase = event.getPhase();
+        int priority = event.getPriority();
+        boolean parallel = event.runsInParallel();
+        int low = 0;
+        int high = buckets.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Bucket bucket = buckets.get(mid);
+            int cmp = bucket.compareTo(phase, priority, parallel);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return bucket;
+            }
+        }
+        if (!create)
+            return null;
+        Bucket bucket = new Bucket(phase, priority, parallel);
+        buckets.add(low, bucket);
+        return bucket;
+    }
+
+    /** Number of buckets, in the order they run. */
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    /** Returns the bucket at the given index, in the order they run. */
+    Bucket getBucket(int index) {
+        return buckets.get(index);
+    }
+
+    /**
+     * Stops every running event and forgets all events and pending requests.
+     */
+    void stopAll() {
+        for (int i = 0; i < buckets.size(); i++) {
+            buckets.get(i).stopAll();
+        }
+        buckets.clear();
+        toAdd.clear();
+        toRemove.clear();
+    }
+
+    /**
+     * The running events of a single phase and priority.
+     */
+    static final class Bucket {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final UpdatePhase phase;
+        private final int priority;
+        private final boolean parallel;
+
+        private ContinuousEvent[] events = new ContinuousEvent[INITIAL_CAPACITY];
+        private int size;
+        private boolean holes;
+
+        private Bucket(UpdatePhase phase, int priority, boolean parallel) {
+            this.phase = phase;
+            this.priority = priority;
+            this.parallel = parallel;
+        }
+
+        private int compareTo(UpdatePhase otherPhase, int otherPriority, boolean otherParallel) {
+            int cmp = phase.compareTo(otherPhase);
+            if (cmp == 0)
+                cmp = Integer.compare(priority, otherPriority);
+            return cmp != 0 ? cmp : Boolean.compare(parallel, otherParallel);
+        }
+
+        UpdatePhase getPhase() {
+            return phase;
+        }
+
+        int getPriority() {
+            return priority;
+        }
+
+        /** Returns true if this bucket holds ParallelBehaviors. */
+        boolean isParallel() {
+            return parallel;
+        }
+
+        /** Number of running events in this bucket. */
+        int size() {
+            return size;
+        }
+
+        /** Returns the running event at the given index, in order of addition. */
+        ContinuousEvent get(int index) {
+            return events[index];
+        }
+
+        private void add(ContinuousEvent event) {
+            if (size == events.length)
+                events = Arrays.copyOf(events, size * 2);
+            event.registryIndex = size;
+            events[size++] = event;
+        }
+
+        private void clear(ContinuousEvent event) {
+            events[event.registryIndex] = null;
+            event.registryIndex = -1;
+            holes = true;
+        }
+
+        private void compact() {
+            if (!holes)
+                return;
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                ContinuousEvent event = events[i];
+                if (event != null) {
+                    event.registryIndex = kept;
+                    events[kept++] = event;
+                }
+            }
+            Arrays.fill(events, kept, size, null);
+            size = kept;
+            holes = false;
+        }
+
+        private void stopAll() {
+            for (int i = 0; i < size; i++) {
+                ContinuousEvent event = events[i];
+                if (event == null)
+                    continue;
+                // Cleared first, in case onStop() asks to remove the event
+                // again.
+                event.registryIndex = -1;
+                event.doStop();
+                events[i] = null;
+            }
+            size = 0;
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Engine-wide index from feature types to the live GameObjects that have at
+ * least one feature of that type.
+ * <p>
+ * Each type maps to a dense list of objects. Every object remembers its slot
+ * in the list of each of its feature types, so objects are added and removed
+ * in O(1) by moving the last object of the list into the freed slot. The
+ * index is kept up to date by {@link GameObject}, and like the rest of the
+ * scene it is only meant to be used from the engine thread.
+ */
+final class FeatureIndex {
+
+    private static final Map<Class<?>, Entries> INDEX = new HashMap<>();
+
+    private FeatureIndex() {
+    }
+
+    /**
+     * Adds the object to the list for the given type. The feature list is the
+     * object's list of features of that type.
+     */
+    static void add(Class<?> type, GameObject object, GameObject.FeatureList list) {
+        Entries entries = getEntries(type);
+        list.indexSlot = entries.objects.size();
+        entries.objects.add(object);
+    }
+
+    /**
+     * Removes the object owning the given feature list from the list for the
+     * given type.
+     */
+    static void remove(Class<?> type, GameObject.FeatureList list) {
+        int slot = list.indexSlot;
+        if (slot < 0)
+            return;
+        List<GameObject> objects = INDEX.get(type).objects;
+        GameObject last = objects.remove(objects.size() - 1);
+        if (slot < objects.size()) {
+            objects.set(slot, last);
+            last.getFeatureList(type).indexSlot = slot;
+        }
+        list.indexSlot = -1;
+    }
+
+    /**
+     * Returns a live, read-only view of all objects with a feature of the
+     * given type.
+     */
+    static List<GameObject> objectsWith(Class<?> type) {
+        return getEntries(type).view;
+    }
+
+    /**
+     * Forgets all objects once the engine has stopped, so that objects of one
+     * run don't show up in the queries of the next.
+     */
+    static void clear() {
+        for (Map.Entry<Class<?>, Entries> entry : INDEX.entrySet()) {
+            List<GameObject> objects = entry.getValue().objects;
+            for (GameObject object : objects) {
+                object.getFeatureList(entry.getKey()).indexSlot = -1;
+            }
+            // Cleared rather than dropped, so views handed out stay valid.
+            objects.clear();
+        }
+    }
+
+    private static Entries getEntries(Class<?> type) {
+        Entries entries = INDEX.get(type);
+        if (entries == null) {
+            entries = new Entries();
+            INDEX.put(type, entries);
+        }
+        return entries;
+    }
+
+    private static final class Entries {
+        final List<GameObject> objects = new ArrayList<>();
+        final List<GameObject> view = Collections.unmodifiableList(objects);
+    }
+
+}
@@ -0,0 +1,144 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A query for all live GameObjects with some combination of features, e.g.
+ *
+ * <pre>
+ * for (GameObject g : GameObject.query().with(Rectangle.class).without(Brick.class)) {
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * Queries walk the engine's feature index for the rarest of the required
+ * types, so they cost time proportional to the number of objects with that
+ * type rather than to the number of objects in the game. Results are not
+ * copied: don't add or remove features of the queried types, or destroy
+ * objects, while iterating over a query. Use {@link #toList()} to take a
+ * snapshot first if you need to.
+ */
+public final class FeatureQuery implements Iterable<GameObject> {
+
+    private final List<Class<?>> with = new ArrayList<>(2);
+    private final List<Class<?>> without = new ArrayList<>(1);
+
+    FeatureQuery() {
+    }
+
+    /**
+     * Only matches objects with a feature of the given type.
+     *
+     * @param type
+     *            the type (or supertype) of a required feature
+     * @return this query
+     */
+    public FeatureQuery with(Class<?> type) {
+        with.add(type);
+        return this;
+    }
+
+    /**
+     * Only matches objects without any feature of the given type.
+     *
+     * @param type
+     *            the type (or supertype) of an excluded feature
+     * @return this query
+     */
+    public FeatureQuery without(Class<?> type) {
+        without.add(type);
+        return this;
+    }
+
+    /**
+     * Returns a snapshot of all objects currently matching this query.
+     *
+     * @return a new list of matching objects
+     */
+    public List<GameObject> toList() {
+        List<GameObject> result = new ArrayList<>();
+        for (GameObject object : this) {
+            result.add(object);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of objects currently matching this query.
+     *
+     * @return number of matching objects
+     */
+    public int count() {
+        int count = 0;
+        for (Iterator<GameObject> it = iterator(); it.hasNext(); it.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Iterator<GameObject> iterator() {
+        if (with.isEmpty())
+            throw new TrydentException("A feature query needs at least one required feature type.");
+        List<GameObject> smallest = null;
+        for (Class<?> type : with) {
+            List<GameObject> candidates = FeatureIndex.objectsWith(type);
+            if (smallest == null || candidates.size() < smallest.size())
+                smallest = candidates;
+        }
+        return new QueryIterator(smallest);
+    }
+
+    private boolean matches(GameObject object) {
+        for (int i = 0; i < with.size(); i++) {
+            if (!object.hasFeature(with.get(i)))
+                return false;
+        }
+        for (int i = 0; i < without.size(); i++) {
+            if (object.hasFeature(without.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private final class QueryIterator implements Iterator<GameObject> {
+
+        private final List<GameObject> candidates;
+        private int index = 0;
+        private GameObject next;
+
+        QueryIterator(List<GameObject> candidates) {
+            this.candidates = candidates;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (index < candidates.size()) {
+                GameObject candidate = candidates.get(index++);
+                if (matches(candidate)) {
+                    next = candidate;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public GameObject next() {
+            if (next == null)
+                throw new NoSuchElementException();
+            GameObject result = next;
+            advance();
+            return result;
+        }
+    }
+
+}
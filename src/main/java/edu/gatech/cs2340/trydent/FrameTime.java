@@ -0,0 +1,131 @@
+package edu.gatech.cs2340.trydent;
+
+/**
+ * Immutable snapshot of the engine's clock for a single frame (or a single
+ * fixed step, in fixed-timestep mode).
+ * <p>
+ * The engine publishes one snapshot per update, so all values read from the
+ * same snapshot are consistent with each other, and a snapshot can be kept
+ * for as long as needed. Use {@link Time#getFrame()} to get the current
+ * snapshot.
+ * <p>
+ * All values are in seconds, unless stated otherwise.
+ */
+public final class FrameTime {
+
+    private final long frameNumber;
+    private final double time;
+    private final double timePassed;
+    private final double smoothedTimePassed;
+    private final double realTime;
+    private final double realTimePassed;
+    private final double timeRate;
+    private final double interpolationAlpha;
+
+    FrameTime(long frameNumber, double time, double timePassed, double smoothedTimePassed, double realTime,
+            double realTimePassed, double timeRate, double interpolationAlpha) {
+        this.frameNumber = frameNumber;
+        this.time = time;
+        this.timePassed = timePassed;
+        this.smoothedTimePassed = smoothedTimePassed;
+        this.realTime = realTime;
+        this.realTimePassed = realTimePassed;
+        this.timeRate = timeRate;
+        this.interpolationAlpha = interpolationAlpha;
+    }
+
+    /**
+     * Returns the number of the frame this snapshot was taken for, starting
+     * at 0 when the engine starts.
+     *
+     * @return the frame number
+     */
+    public long getFrameNumber() {
+        return frameNumber;
+    }
+
+    /**
+     * Game time since the game started.
+     *
+     * @return time in seconds
+     * @see Time#getTime()
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Game time elapsed since the previous frame.
+     *
+     * @return time in seconds
+     * @see Time#getTimePassed()
+     */
+    public double getTimePassed() {
+        return timePassed;
+    }
+
+    /**
+     * Game time elapsed since the previous frame, smoothed over recent frames
+     * to filter out jitter.
+     *
+     * @return time in seconds
+     * @see Time#getSmoothedTimePassed()
+     */
+    public double getSmoothedTimePassed() {
+        return smoothedTimePassed;
+    }
+
+    /**
+     * Real time since the game started.
+     *
+     * @return time in seconds
+     * @see Time#getRealTimeSinceStartup()
+     */
+    public double getRealTimeSinceStartup() {
+        return realTime;
+    }
+
+    /**
+     * Real time elapsed since the previous frame.
+     *
+     * @return time in seconds
+     * @see Time#getRealTimePassed()
+     */
+    public double getRealTimePassed() {
+        return realTimePassed;
+    }
+
+    /**
+     * Rate of game time relative to real time during this frame.
+     *
+     * @return ratio of virtual seconds over real seconds
+     * @see Time#getTimeRate()
+     */
+    public double getTimeRate() {
+        return timeRate;
+    }
+
+    /**
+     * Interpolation factor between the previous and current fixed step.
+     *
+     * @return value between 0 and 1
+     * @see Time#getInterpolationAlpha()
+     */
+    public double getInterpolationAlpha() {
+        return interpolationAlpha;
+    }
+
+    @Override
+    public String toString() {
+        StringBuffer sb = new StringBuffer(64);
+        sb.append("FrameTime(#");
+        sb.append(frameNumber);
+        sb.append(", t=");
+        sb.append(time);
+        sb.append(", dt=");
+        sb.append(timePassed);
+        sb.append(")");
+        return sb.toString();
+    }
+
+}
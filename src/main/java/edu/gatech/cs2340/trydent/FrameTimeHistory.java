@@ -0,0 +1,77 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring buffer of recent frame durations, used by {@link Time} to
+ * report minimum, maximum and percentile frame times.
+ * <p>
+ * Recording happens once per frame on the engine thread; queries may come
+ * from any thread, so both are synchronized. Neither allocates.
+ */
+class FrameTimeHistory {
+
+    private final long[] samples;
+    private final long[] sorted;
+    private int head;
+    private int count;
+
+    /**
+     * Creates a new history remembering the given number of frames.
+     *
+     * @param capacity
+     *            number of frames to remember
+     */
+    FrameTimeHistory(int capacity) {
+        samples = new long[capacity];
+        sorted = new long[capacity];
+    }
+
+    synchronized void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    synchronized void record(long nanos) {
+        samples[head] = nanos;
+        head = (head + 1) % samples.length;
+        if (count < samples.length)
+            count++;
+    }
+
+    synchronized long min() {
+        if (count == 0)
+            return 0;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, samples[i]);
+        }
+        return min;
+    }
+
+    synchronized long max() {
+        if (count == 0)
+            return 0;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Returns the nearest-rank percentile of the recorded samples.
+     *
+     * @param percentile
+     *            value between 0 and 100
+     */
+    synchronized long percentile(double percentile) {
+        if (count == 0)
+            return 0;
+        System.arraycopy(samples, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))];
+    }
+
+}
@@ -1,32 +1,35 @@
 package edu.gatech.cs2340.trydent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
-import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Shape;
-import javafx.scene.transform.NonInvertibleTransformException;
-import javafx.scene.transform.Rotate;
-import javafx.scene.transform.Transform;
+import javafx.scene.transform.Affine;
 import edu.gatech.cs2340.trydent.animation.Animation;
 import edu.gatech.cs2340.trydent.animation.AnimationEvent;
 import edu.gatech.cs2340.trydent.animation.AnimationListener;
 import edu.gatech.cs2340.trydent.animation.DispatchAnimationListener;
+import edu.gatech.cs2340.trydent.animation.Pose;
 import edu.gatech.cs2340.trydent.internal.TrydentInternalException;
+import edu.gatech.cs2340.trydent.log.Log;
 import edu.gatech.cs2340.trydent.math.BaseVector;
 import edu.gatech.cs2340.trydent.math.MathTools;
 import edu.gatech.cs2340.trydent.math.Orientation;
 import edu.gatech.cs2340.trydent.math.Position;
 import edu.gatech.cs2340.trydent.math.Scale;
+import edu.gatech.cs2340.trydent.math.Vec2;
 import edu.gatech.cs2340.trydent.math.curve.IndexWrapMode;
 import edu.gatech.cs2340.trydent.math.curve.TimeWrapMode;
+import edu.gatech.cs2340.trydent.math.geom.Rectangle;
 
 /**
  * Basic GameObject all visual elements of a game should either use directly or
@@ -35,6 +38,11 @@ import edu.gatech.cs2340.trydent.math.curve.TimeWrapMode;
  * <p>
  * Core functionality of GameObjects includes arbitrary positioning, scaling,
  * and rotating in the scene graph, display of JavaFXNodes, and animation.
+ * <p>
+ * GameObjects are not thread-safe, and only meant to be used from the engine
+ * thread. This includes the transform getters such as {@link #getPosition()}:
+ * the world transform is computed lazily and cached in the object, so even
+ * reading it writes to the object.
  *
  * <p>
  * <strong>GameObject generic `Features'</strong>
@@ -82,20 +90,50 @@ public class GameObject {
     // Only used for deletion.
     private List<GameObject> children;
 
-    private Transform localRotate;
-    private Transform localScale;
-    private Transform localTranslate;
-
-    private Animation animation;
-    private double animationStartTime;
-    private int animationLoopCounter = 0;
+    // Number of transforms a node may have before a warning is logged.
+    private static volatile int transformCountWarning = 16;
+
+    // Local transform, as set by the user. The JavaFX node applies it through
+    // a single Affine holding translate * rotate * scale.
+    private double localX, localY, localRotation;
+    private double localScaleX = 1, localScaleY = 1;
+
+    // Cached local-to-parent and local-to-scene matrices, as rows
+    // [ xx xy tx ] and [ yx yy ty ]. The world matrix is only valid while
+    // worldDirty is false.
+    private double lxx = 1, lxy, ltx, lyx, lyy = 1, lty;
+    private double wxx = 1, wxy, wtx, wyx, wyy = 1, wty;
+    private boolean worldDirty = false;
+    // Incremented whenever the world matrix goes out of date, so that caches
+    // of world-space data can tell whether this object has moved.
+    private int worldVersion;
+
+    // Updated in place, so that changing the transform never touches the
+    // node's transform list.
+    private Affine localAffine;
+    private boolean transformCountWarned = false;
+
+    // Read by the AnimationSystem, which plays the animation.
+    Animation animation;
+    double animationStartTime;
+    int animationLoopCounter = 0;
+    // Counts calls that start or stop animations, so the AnimationSystem can
+    // tell when a listener has replaced the animation it is working on.
+    int animationPlays = 0;
+    // Slot in the AnimationSystem, or -1 if the animation isn't running.
+    int animationSlot = -1;
+    // Reused for every animation sample.
+    final Pose animationPose = new Pose();
 
     private DispatchAnimationListener animationListener;
     private volatile boolean animationPaused = false;
+    private double animationPausedAt;
 
     private boolean isDestroyed = false;
 
-    private Map<Class<?>, Set<Object>> features;
+    // Every feature is listed under its own class and all of its supertypes,
+    // so lookups by any type are a single map access.
+    private Map<Class<?>, FeatureList> features;
 
     /**
      * Creates a new GameObject with the given name.
@@ -129,13 +167,9 @@ public class GameObject {
         TrydentEngine.getRootNode().getChildren().add(fxNode);
 
         // Identity
-        localRotate = Transform.affine(1, 0, 0, 1, 0, 0);
-        localScale = Transform.affine(1, 0, 0, 1, 0, 0);
-        localTranslate = Transform.affine(1, 0, 0, 1, 0, 0);
-
-        setMatrices(localTranslate, localRotate, localScale);
-
-        createAnimationBehavior();
+        localAffine = new Affine();
+        fxNode.getTransforms().add(localAffine);
+        localChanged();
 
         animationListener = new DispatchAnimationListener();
     }
@@ -199,11 +233,22 @@ public class GameObject {
      * @param <T> the type of the feature.
      */
     public <T> void addFeature(T feature) {
-        Class<?> key = feature.getClass();
-        if (!features.containsKey(key)) {
-            features.put(key, new HashSet<Object>());
+        // As before, a feature equal to one of the same class is only kept
+        // once.
+        FeatureList sameClass = features.get(feature.getClass());
+        if (sameClass != null && sameClass.indexOf(feature) >= 0)
+            return;
+
+        for (Class<?> type : TypeHierarchy.supertypesOf(feature.getClass())) {
+            FeatureList list = features.get(type);
+            if (list == null) {
+                list = new FeatureList();
+                features.put(type, list);
+            }
+            list.add(feature);
+            if (list.size() == 1 && !isDestroyed)
+                FeatureIndex.add(type, this, list);
         }
-        features.get(key).add(feature);
     }
 
     /**
@@ -215,25 +260,15 @@ public class GameObject {
      * @param type
      *            the type (or supertype) of the feature to retrieve.
      * @param <T> the type of the feature.
-     * @return the feature if it exists, null otherwise.
+     * @return the feature if it exists (the first one added, if there are
+     *         several), null otherwise.
      */
     @SuppressWarnings("unchecked")
     public <T> T getFeature(Class<T> type) {
-        if (features.containsKey(type)) {
-            for (Object o : features.get(type)) {
-                return (T) o;
-            }
-        }
-
-        for (Class<?> key : features.keySet()) {
-            if (type.isAssignableFrom(key)) {
-                for (Object o : features.get(key)) {
-                    return (T) o;
-                }
-            }
-        }
-
-        return null;
+        FeatureList list = features.get(type);
+        if (list == null || list.size() == 0)
+            return null;
+        return (T) list.get(0);
     }
 
     /**
@@ -249,20 +284,18 @@ public class GameObject {
      *            this game objects, because all features are subclasses of the
      *            java Object superclass.
      * @param <T> the type of the feature.
-     * @return an Iterable over all features of the given type that this object
-     *         contains.
+     * @return all features of the given type that this object contains, in
+     *         the order they were added. This is a read-only view, not a
+     *         copy: later changes show up in it, but each iteration sees the
+     *         features as they were when it started, so features can be
+     *         added and removed while iterating over it.
      */
     @SuppressWarnings("unchecked")
     public <T> Iterable<T> getFeatures(Class<T> type) {
-        Set<T> iterable = new HashSet<>();
-        for (Class<?> key : features.keySet()) {
-            if (type.isAssignableFrom(key)) {
-                for (Object o : features.get(key)) {
-                    iterable.add((T) o);
-                }
-            }
-        }
-        return iterable;
+        FeatureList list = features.get(type);
+        if (list == null)
+            return Collections.emptyList();
+        return (Iterable<T>) list;
     }
 
     /**
@@ -294,14 +327,9 @@ public class GameObject {
      * @param <T> the type of the feature.
      */
     public <T> void removeAllFeatures(Class<T> type) {
-        Set<Class<?>> toRemove = new HashSet<>();
-        for (Class<?> key : features.keySet()) {
-            if (type.isAssignableFrom(key)) {
-                toRemove.add(key);
-            }
-        }
-        for (Class<?> key : toRemove) {
-            features.remove(key);
+        FeatureList matching = features.get(type);
+        while (matching != null && matching.size() > 0) {
+            unindexFeature(matching.get(matching.size() - 1));
         }
     }
 
@@ -319,14 +347,58 @@ public class GameObject {
      *            to remove.
      */
     public <T> boolean removeFeature(T feature) {
-        for (Class<?> key : features.keySet()) {
-            if (feature.getClass().isAssignableFrom(key)) {
-                if (features.get(key).remove(feature)) {
-                    return true;
-                }
-            }
+        FeatureList sameClass = features.get(feature.getClass());
+        int index = sameClass == null ? -1 : sameClass.indexOf(feature);
+        if (index < 0)
+            return false;
+        unindexFeature(sameClass.get(index));
+        return true;
+    }
+
+    /**
+     * Removes the given (stored) feature from the lists of all its supertypes.
+     */
+    private void unindexFeature(Object feature) {
+        for (Class<?> type : TypeHierarchy.supertypesOf(feature.getClass())) {
+            FeatureList list = features.get(type);
+            list.remove(feature);
+            if (list.size() == 0)
+                FeatureIndex.remove(type, list);
         }
-        return false;
+    }
+
+    /** For use by the FeatureIndex only. */
+    FeatureList getFeatureList(Class<?> type) {
+        return features.get(type);
+    }
+
+    /**
+     * Returns all live GameObjects with at least one feature of the given
+     * type (or a subtype of it). This takes time proportional to the number
+     * of such objects, not the number of objects in the game.
+     * <p>
+     * The returned list is a read-only view that reflects later changes, and
+     * its order changes as objects are added and removed. To add or remove
+     * features of this type, or destroy objects, while iterating, copy the
+     * list first.
+     *
+     * @param type
+     *            the type (or supertype) of the feature
+     * @return all live objects with such a feature
+     */
+    public static List<GameObject> findAllWithFeature(Class<?> type) {
+        return FeatureIndex.objectsWith(type);
+    }
+
+    /**
+     * Starts a query for all live GameObjects with a combination of
+     * features, e.g.
+     * {@code GameObject.query().with(A.class).with(B.class).without(C.class)}.
+     *
+     * @return a new, empty query
+     */
+    public static FeatureQuery query() {
+        return new FeatureQuery();
     }
 
     /**
@@ -385,8 +457,10 @@ public class GameObject {
         this.animation = animation;
         this.animationStartTime = Time.getTime();
         this.animationLoopCounter = 1;
+        this.animationPlays++;
         animation.setTimeWrap(TimeWrapMode.CLAMP);
         animationPaused = false;
+        AnimationSystem.add(this);
         animationListener.animationStarted(new AnimationEvent(this, animation));
     }
 
@@ -411,9 +485,11 @@ public class GameObject {
         this.animation = animation;
         this.animationStartTime = Time.getTime();
         this.animationLoopCounter = count;
+        this.animationPlays++;
         animation.setTimeWrap(TimeWrapMode.WRAP);
         animation.setIndexWrap(IndexWrapMode.WRAP);
         animationPaused = false;
+        AnimationSystem.add(this);
         animationListener.animationStarted(new AnimationEvent(this, animation));
     }
 
@@ -443,8 +519,14 @@ public class GameObject {
         this.animationPaused = paused;
         if (this.animation != null) {
             if (paused) {
+                // Paused animations aren't updated at all; unpausing moves
+                // the start time forward by the time spent paused.
+                animationPausedAt = Time.getTime();
+                AnimationSystem.remove(this);
                 animationListener.animationPaused(new AnimationEvent(this, animation));
             } else {
+                animationStartTime += Time.getTime() - animationPausedAt;
+                AnimationSystem.add(this);
                 animationListener.animationUnpaused(new AnimationEvent(this, animation));
             }
         }
@@ -458,64 +540,182 @@ public class GameObject {
             animationListener.animationStopped(new AnimationEvent(this, animation));
         }
         this.animation = null;
+        this.animationPlays++;
+        AnimationSystem.remove(this);
+    }
+
+    /**
+     * Called by the AnimationSystem when the animation has played to its end.
+     * The animation is cleared before the listeners run, so that they can
+     * start the next one.
+     */
+    void endAnimation() {
+        Animation ended = animation;
+        animation = null;
+        animationPlays++;
+        AnimationSystem.remove(this);
+        animationListener.animationEnded(new AnimationEvent(this, ended));
     }
 
-    private void createAnimationBehavior() {
-        new Behavior(this) {
-            @Override
-            public void onUpdate() {
-                GameObject g = getGameObject();
+    /**
+     * Called by the AnimationSystem when the animation has started another
+     * loop.
+     */
+    void fireAnimationLooped() {
+        animationListener.animationLooped(new AnimationEvent(this, animation));
+    }
 
-                if (g.animation == null) {
-                    return;
-                }
+    /**
+     * Recomputes the cached local matrix from the local position, rotation and
+     * scale, and pushes the change to the JavaFX node and to the world
+     * matrices of this object and its descendants.
+     */
+    private void localChanged() {
+        double radians = Math.toRadians(localRotation);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        // T * R * S: [ c*sx  -s*sy  x ]
+        //            [ s*sx   c*sy  y ]
+        lxx = cos * localScaleX;
+        lxy = -sin * localScaleY;
+        ltx = localX;
+        lyx = sin * localScaleX;
+        lyy = cos * localScaleY;
+        lty = localY;
+        markWorldDirty();
+        // One call, so JavaFX sees a single transform change.
+        localAffine.setToTransform(lxx, lxy, ltx, lyx, lyy, lty);
+        checkTransformCount();
+    }
 
-                if (g.animationPaused) {
-                    // Simulate pausing by moving the start-time forward.
-                    g.animationStartTime += Time.getTimePassed();
-                    return; // No updates should occur, so don't bother.
-                }
+    /**
+     * Logs a warning the first time this object's node has more transforms
+     * than the threshold, which usually means something keeps adding
+     * transforms without removing them.
+     */
+    private void checkTransformCount() {
+        if (transformCountWarned)
+            return;
+        int count = fxNode.getTransforms().size();
+        if (count > transformCountWarning) {
+            transformCountWarned = true;
+            Log.warn(this + " has " + count + " transforms on its JavaFX node; are transforms being added every "
+                    + "frame?");
+        }
+    }
 
-                double time = Time.getTime() - g.animationStartTime;
-                if (g.animationLoopCounter >= 0 && time > g.animationLoopCounter * g.animation.getDuration()) {
-                    animationListener.animationEnded(new AnimationEvent(g, animation));
-                    g.animation = null;
-                    return;
-                } else {
-                    int lastLoopIndex = (int) (Math.max(0, time - Time.getTimePassed()) / g.animation.getDuration());
-                    int currLoopIndex = (int) (Math.max(0, time) / g.animation.getDuration());
-                    if (currLoopIndex > lastLoopIndex) {
-                        animationListener.animationLooped(new AnimationEvent(g, animation));
-                    }
-                }
-                g.setLocalOrientation(g.animation.sample(time));
-            }
-        };
+    /**
+     * Returns the number of transforms on this object's JavaFX node. Trydent
+     * itself only ever uses one, so a larger number means transforms were
+     * added to the node directly, e.g. through {@link #getFxNode()}.
+     * <p>
+     * This is meant for debugging and metrics; a warning is also logged the
+     * first time an object exceeds
+     * {@link #setTransformCountWarningThreshold(int)}.
+     *
+     * @return the length of the node's transform list, or 0 if this object
+     *         has been destroyed
+     */
+    public int getTransformCount() {
+        Group node = fxNode;
+        return node == null ? 0 : node.getTransforms().size();
     }
 
-    private void setMatrices(Transform translate, Transform rotate, Transform scale) {
-        List<Transform> transforms = fxNode.getTransforms();
-        if (transforms.size() >= 3) {
-            // This should happen every time except for initialization.
-            for (int i = 0; i < 3; i++) {
-                transforms.remove(transforms.size() - 1);
-            }
+    /**
+     * Sets how many transforms a GameObject's JavaFX node may have before a
+     * warning is logged for it. Each object warns at most once.
+     *
+     * @param count
+     *            the largest number of transforms that doesn't cause a warning
+     */
+    public static void setTransformCountWarningThreshold(int count) {
+        if (count < 1)
+            throw new TrydentException("The transform count threshold must be at least 1 (got " + count + ").");
+        transformCountWarning = count;
+    }
+
+    /**
+     * Returns how many transforms a GameObject's JavaFX node may have before a
+     * warning is logged for it.
+     *
+     * @return the warning threshold
+     */
+    public static int getTransformCountWarningThreshold() {
+        return transformCountWarning;
+    }
+
+    /**
+     * Marks the world matrix of this object and all its descendants as out of
+     * date. A dirty object's descendants are always dirty too, so the walk can
+     * stop at any object that is already dirty.
+     */
+    private void markWorldDirty() {
+        if (worldDirty)
+            return;
+        worldVersion++;
+        worldDirty = true;
+        for (GameObject child : children) {
+            child.markWorldDirty();
         }
-        transforms.add(localTranslate = translate);
-        transforms.add(localRotate = rotate);
-        transforms.add(localScale = scale);
     }
 
-    private void setTranslateMatrix(Transform translate) {
-        setMatrices(translate, localRotate, localScale);
+    /**
+     * Brings the cached world matrix up to date, along with those of any
+     * ancestors that are out of date.
+     */
+    private void updateWorldMatrix() {
+        if (!worldDirty)
+            return;
+        if (parent == null) {
+            // The scene root has no transform of its own.
+            wxx = lxx;
+            wxy = lxy;
+            wtx = ltx;
+            wyx = lyx;
+            wyy = lyy;
+            wty = lty;
+        } else {
+            GameObject p = parent;
+            p.updateWorldMatrix();
+            wxx = p.wxx * lxx + p.wxy * lyx;
+            wxy = p.wxx * lxy + p.wxy * lyy;
+            wtx = p.wxx * ltx + p.wxy * lty + p.wtx;
+            wyx = p.wyx * lxx + p.wyy * lyx;
+            wyy = p.wyx * lxy + p.wyy * lyy;
+            wty = p.wyx * ltx + p.wyy * lty + p.wty;
+        }
+        worldDirty = false;
     }
 
-    private void setRotateMatrix(Transform rotate) {
-        setMatrices(localTranslate, rotate, localScale);
+    /**
+     * Returns a number that changes whenever this object's world transform
+     * may have changed, whether it moved itself or one of its ancestors did.
+     */
+    int getWorldVersion() {
+        return worldVersion;
     }
 
-    private void setScaleMatrix(Transform scale) {
-        setMatrices(localTranslate, localRotate, scale);
+    /**
+     * Computes the axis-aligned box around the given local-space rectangle in
+     * scene coordinates, as {minX, minY, maxX, maxY}.
+     */
+    void getWorldBounds(Rectangle local, double[] out) {
+        updateWorldMatrix();
+        double left = local.getLeft();
+        double top = local.getTop();
+        double right = local.getRight();
+        double bottom = local.getBottom();
+        // The box around a transformed rectangle only depends on the signs
+        // of the matrix entries: each axis picks whichever edge extends it.
+        double minX = wtx, maxX = wtx, minY = wty, maxY = wty;
+        minX += Math.min(wxx * left, wxx * right) + Math.min(wxy * top, wxy * bottom);
+        maxX += Math.max(wxx * left, wxx * right) + Math.max(wxy * top, wxy * bottom);
+        minY += Math.min(wyx * left, wyx * right) + Math.min(wyy * top, wyy * bottom);
+        maxY += Math.max(wyx * left, wyx * right) + Math.max(wyy * top, wyy * bottom);
+        out[0] = minX;
+        out[1] = minY;
+        out[2] = maxX;
+        out[3] = maxY;
     }
 
     /**
@@ -537,9 +737,30 @@ public class GameObject {
      *            orientation object with position, rotation, and scale.
      */
     public void setLocalOrientation(Orientation orientation) {
-        setLocalPosition(orientation.getPosition());
-        setLocalRotation(orientation.getRotation());
-        setLocalScale(orientation.getScale());
+        checkScale(orientation.getScaleX(), orientation.getScaleY());
+        localX = orientation.getX();
+        localY = orientation.getY();
+        localRotation = orientation.getRotation();
+        localScaleX = orientation.getScaleX();
+        localScaleY = orientation.getScaleY();
+        localChanged();
+    }
+
+    /**
+     * Sets the local position, rotation and scale of this object from a pose,
+     * e.g. one sampled from an animation.
+     *
+     * @param pose
+     *            the pose to apply
+     */
+    public void setLocalPose(Pose pose) {
+        checkScale(pose.getScaleX(), pose.getScaleY());
+        localX = pose.getX();
+        localY = pose.getY();
+        localRotation = pose.getRotation();
+        localScaleX = pose.getScaleX();
+        localScaleY = pose.getScaleY();
+        localChanged();
     }
 
     /**
@@ -567,12 +788,35 @@ public class GameObject {
      *            the 2D position
      */
     public void setPosition(Position position) {
-        try {
-            Point2D p = getParentFxNode().getLocalToSceneTransform().inverseTransform(position.getX(), position.getY());
-            setTranslateMatrix(Transform.translate(p.getX(), p.getY()));
-        } catch (NonInvertibleTransformException e) {
-            throw new TrydentInternalException("Local -> Scene not invertable! " + e);
+        setPosition(position.getX(), position.getY());
+    }
+
+    /**
+     * Sets the global position.
+     *
+     * @param x
+     *            the x coordinate
+     * @param y
+     *            the y coordinate
+     */
+    public void setPosition(double x, double y) {
+        if (parent == null) {
+            localX = x;
+            localY = y;
+        } else {
+            // Invert the parent's world matrix to bring (x, y) into the
+            // parent's space.
+            GameObject p = parent;
+            p.updateWorldMatrix();
+            double det = p.wxx * p.wyy - p.wxy * p.wyx;
+            if (det == 0)
+                throw new TrydentInternalException("Local -> Scene not invertable! (parent " + p + ")");
+            double dx = x - p.wtx;
+            double dy = y - p.wty;
+            localX = (p.wyy * dx - p.wxy * dy) / det;
+            localY = (p.wxx * dy - p.wyx * dx) / det;
         }
+        localChanged();
     }
 
     /**
@@ -593,14 +837,12 @@ public class GameObject {
      *            the 2D scale
      */
     public void setScale(Scale scale) {
-        if (scale.getX() == 0 || scale.getY() == 0) {
-            throw new TrydentException("Setting the x or y scale to 0 is not a good idea (tried to set scale to "
-                    + scale + ").");
-        }
+        checkScale(scale);
 
-        Scale old = getScale();
-        Scale change = scale.copy().scale(1f / old.getX(), 1f / old.getY());
-        setLocalScale(change.scale(getLocalScale()));
+        updateWorldMatrix();
+        double changeX = scale.getX() / MathTools.getScaleX(wxx, wyx);
+        double changeY = scale.getY() / MathTools.getScaleY(wxx, wyx, wyy);
+        setLocalScale(changeX * localScaleX, changeY * localScaleY);
     }
 
     /**
@@ -611,7 +853,22 @@ public class GameObject {
      *            the 2D position
      */
     public void setLocalPosition(Position position) {
-        setTranslateMatrix(Transform.translate(position.getX(), position.getY()));
+        setLocalPosition(position.getX(), position.getY());
+    }
+
+    /**
+     * Sets the position of this object relative to its parent's rotation,
+     * position, and scale.
+     *
+     * @param x
+     *            the x coordinate
+     * @param y
+     *            the y coordinate
+     */
+    public void setLocalPosition(double x, double y) {
+        localX = x;
+        localY = y;
+        localChanged();
     }
 
     /**
@@ -622,7 +879,8 @@ public class GameObject {
      *            the rotation about the z axis
      */
     public void setLocalRotation(double rotation) {
-        setRotateMatrix(new Rotate(rotation));
+        localRotation = rotation;
+        localChanged();
     }
 
     /**
@@ -632,11 +890,25 @@ public class GameObject {
      *            the 2D scale
      */
     public void setLocalScale(Scale scale) {
-        if (scale.getX() == 0 || scale.getY() == 0) {
+        checkScale(scale);
+        setLocalScale(scale.getX(), scale.getY());
+    }
+
+    private void setLocalScale(double x, double y) {
+        localScaleX = x;
+        localScaleY = y;
+        localChanged();
+    }
+
+    private static void checkScale(Scale scale) {
+        checkScale(scale.getX(), scale.getY());
+    }
+
+    private static void checkScale(double scaleX, double scaleY) {
+        if (scaleX == 0 || scaleY == 0) {
             throw new TrydentException("Setting the x or y scale to 0 is not a good idea (tried to set scale to "
-                    + scale + ").");
+                    + new Scale(scaleX, scaleY) + ").");
         }
-        setScaleMatrix(Transform.scale(scale.getX(), scale.getY()));
     }
 
     /**
@@ -658,7 +930,8 @@ public class GameObject {
      *            the y displacement
      */
     public void translate(double x, double y) {
-        setPosition(getPosition().add(x, y));
+        updateWorldMatrix();
+        setPosition(wtx + x, wty + y);
     }
 
     /**
@@ -672,9 +945,10 @@ public class GameObject {
     }
 
     /**
-     * Scales this object by the given amount. Non-uniform scalings (ie not
-     * scaling sx and sy by the same amount) are not recommended as they can
-     * have undesirable effects (shearing) if this object has rotated children.
+     * Scales this object by the given amount, multiplying it into the local
+     * scale. Non-uniform scalings (ie not scaling sx and sy by the same
+     * amount) are not recommended as they can have undesirable effects
+     * (shearing) if this object has rotated children.
      *
      * @param sx
      *            the x scale
@@ -682,7 +956,13 @@ public class GameObject {
      *            the y scale
      */
     public void scale(double sx, double sy) {
-        fxNode.getTransforms().add(Transform.scale(sx, sy));
+        if (sx == 0 || sy == 0) {
+            throw new TrydentException("Scaling by 0 is not a good idea (tried to scale by " + sx + ", " + sy
+                    + ").");
+        }
+        localScaleX *= sx;
+        localScaleY *= sy;
+        localChanged();
     }
 
     /**
@@ -704,7 +984,23 @@ public class GameObject {
      *         the position of this object)
      */
     public Position getPosition() {
-        return MathTools.getTranslation(fxNode.getLocalToSceneTransform());
+        updateWorldMatrix();
+        return new Position(wtx, wty);
+    }
+
+    /**
+     * Stores this object's global (x, y) position in the given vector, without
+     * allocating.
+     *
+     * @param <T>
+     *            the type of the result vector
+     * @param result
+     *            the vector to store the position in
+     * @return the result vector
+     */
+    public <T extends Vec2<T>> T getPosition(T result) {
+        updateWorldMatrix();
+        return result.set(wtx, wty);
     }
 
     /**
@@ -713,7 +1009,8 @@ public class GameObject {
      * @return the 2D rotation
      */
     public double getRotation() {
-        return MathTools.getRotation(fxNode.getLocalToSceneTransform());
+        updateWorldMatrix();
+        return MathTools.getRotation(wxx, wyx);
     }
 
     /**
@@ -723,7 +1020,8 @@ public class GameObject {
      *         scale of this object)
      */
     public Scale getScale() {
-        return MathTools.getScale(fxNode.getLocalToSceneTransform());
+        updateWorldMatrix();
+        return new Scale(MathTools.getScaleX(wxx, wyx), MathTools.getScaleY(wxx, wyx, wyy));
     }
 
     /**
@@ -734,7 +1032,21 @@ public class GameObject {
      *         position of this object)
      */
     public Position getLocalPosition() {
-        return MathTools.getTranslation(fxNode.getLocalToParentTransform());
+        return new Position(ltx, lty);
+    }
+
+    /**
+     * Stores this object's position relative to its parent in the given
+     * vector, without allocating.
+     *
+     * @param <T>
+     *            the type of the result vector
+     * @param result
+     *            the vector to store the position in
+     * @return the result vector
+     */
+    public <T extends Vec2<T>> T getLocalPosition(T result) {
+        return result.set(ltx, lty);
     }
 
     /**
@@ -744,7 +1056,7 @@ public class GameObject {
      * @return the 2D rotation
      */
     public double getLocalRotation() {
-        return MathTools.getRotation(fxNode.getLocalToParentTransform());
+        return localRotation;
     }
 
     /**
@@ -754,7 +1066,7 @@ public class GameObject {
      *         scale of this object)
      */
     public Scale getLocalScale() {
-        return MathTools.getScale(fxNode.getLocalToParentTransform());
+        return new Scale(localScaleX, localScaleY);
     }
 
     /**
@@ -797,27 +1109,35 @@ public class GameObject {
 
         this.parent = object;
         getParentFxNode().getChildren().add(fxNode);
+        if (this.parent != null) {
+            this.parent.children.add(this);
+        }
+        markWorldDirty();
 
         setScale(oldScale);
         setPosition(oldPos);
         setRotation(oldRot);
-
-        if (this.parent != null) {
-            this.parent.children.add(this);
-        }
     }
 
     /**
      * Marks this object and its children for deletion.
      */
     public void destroy() {
-        for (GameObject child : this.children) {
+        // Children remove themselves from our list as they are destroyed.
+        for (GameObject child : new ArrayList<>(this.children)) {
             child.destroy();
         }
         setParent(null);
         getParentFxNode().getChildren().remove(fxNode);
         isDestroyed = true;
         this.fxNode = null;
+        AnimationSystem.remove(this);
+
+        // Destroyed objects keep their features, but no longer show up in
+        // queries.
+        for (Map.Entry<Class<?>, FeatureList> entry : features.entrySet()) {
+            FeatureIndex.remove(entry.getKey(), entry.getValue());
+        }
     }
 
     /**
@@ -846,6 +1166,62 @@ public class GameObject {
         return "GameObject[" + name + "]";
     }
 
+    /**
+     * The features of one type, in the order they were added. The list is
+     * handed out to users as its own read-only view: adding or removing a
+     * feature replaces the array rather than changing it, so iterators keep
+     * walking the features they started with.
+     */
+    static final class FeatureList implements Iterable<Object> {
+        private static final Object[] NONE = {};
+
+        private Object[] items = NONE;
+
+        // Slot of the owning object in the FeatureIndex, -1 if not indexed.
+        int indexSlot = -1;
+
+        int size() {
+            return items.length;
+        }
+
+        Object get(int index) {
+            return items[index];
+        }
+
+        /** Returns the index of a feature equal to the given one, or -1. */
+        int indexOf(Object feature) {
+            for (int i = 0; i < items.length; i++) {
+                if (feature.equals(items[i]))
+                    return i;
+            }
+            return -1;
+        }
+
+        void add(Object feature) {
+            Object[] grown = Arrays.copyOf(items, items.length + 1);
+            grown[items.length] = feature;
+            items = grown;
+        }
+
+        /** Removes the given feature itself, not one equal to it. */
+        void remove(Object feature) {
+            for (int i = 0; i < items.length; i++) {
+                if (items[i] == feature) {
+                    Object[] shrunk = new Object[items.length - 1];
+                    System.arraycopy(items, 0, shrunk, 0, i);
+                    System.arraycopy(items, i + 1, shrunk, i, shrunk.length - i);
+                    items = shrunk;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return Arrays.asList(items).iterator();
+        }
+    }
+
     private Group getParentFxNode() {
         if (this.parent == null)
             return TrydentEngine.getRootNode();
@@ -0,0 +1,182 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Behavior whose updates may run on worker threads, in parallel with other
+ * ParallelBehaviors of the same phase and priority.
+ * <p>
+ * By default a ParallelBehavior is assumed to write to its own GameObject
+ * only, so behaviors of different GameObjects run in parallel while behaviors
+ * of the same GameObject run one after the other, in the order they were
+ * created. Behaviors that write to other objects, or to state shared by all
+ * features of some type, must say so with {@link #declareWrites(Object...)};
+ * behaviors that only write to state they synchronize themselves can opt out
+ * of ordering entirely with {@link #setThreadSafe(boolean)}.
+ * <p>
+ * {@link #onStart()} and {@link #onUpdate()} run on a worker thread, and so
+ * must not touch the JavaFX scene graph (which includes moving, parenting or
+ * destroying GameObjects, or creating new ContinuousEvents that do so).
+ * Instead, wrap such changes in {@link #commit(Runnable)}: committed actions
+ * run on the engine thread once all parallel behaviors of the phase and
+ * priority have updated, in the order the behaviors were created.
+ * {@link #onPreUpdate()} and {@link #onStop()} always run on the engine
+ * thread.
+ * <p>
+ * The transform getters of GameObjects are not thread-safe either: world
+ * positions, rotations and scales are computed lazily and cached inside the
+ * object, so reading them from a worker thread races with other readers.
+ * Read what {@link #onUpdate()} needs in {@link #onPreUpdate()} instead. For
+ * example, a behavior that steers its object towards a target:
+ *
+ * <pre>
+ * new ParallelBehavior(ship) {
+ *     private Position current;
+ *
+ *     public void onPreUpdate() {
+ *         super.onPreUpdate();
+ *         current = getGameObject().getPosition();
+ *     }
+ *
+ *     public void onUpdate() {
+ *         final Position next = steer(current, target);
+ *         commit(() -&gt; getGameObject().setPosition(next));
+ *     }
+ * };
+ * </pre>
+ */
+public abstract class ParallelBehavior extends Behavior {
+
+    private static final Object[] NO_TARGETS = new Object[0];
+
+    private volatile boolean threadSafe = false;
+    private volatile Object[] writes;
+
+    // The targets used without a declaration, built once rather than every
+    // frame.
+    private final Object[] ownObject = { getGameObject() };
+
+    // Only touched by the thread running this behavior, then drained by the
+    // engine thread after the worker threads have been joined.
+    private final List<Runnable> commits = new ArrayList<>(2);
+
+    /**
+     * Creates a parallel behavior for the given object.
+     *
+     * @param object
+     *            the object this behavior belongs to
+     */
+    public ParallelBehavior(GameObject object) {
+        super(object);
+    }
+
+    /**
+     * Creates a parallel behavior for the given object that runs in the given
+     * phase of each frame.
+     *
+     * @param object
+     *            the object this behavior belongs to
+     * @param phase
+     *            the phase this behavior runs in
+     */
+    public ParallelBehavior(GameObject object, UpdatePhase phase) {
+        super(object, phase);
+    }
+
+    /**
+     * Creates a parallel behavior for the given object that runs in the given
+     * phase of each frame.
+     *
+     * @param object
+     *            the object this behavior belongs to
+     * @param phase
+     *            the phase this behavior runs in
+     * @param priority
+     *            order within the phase; behaviors with lower priorities run
+     *            first
+     */
+    public ParallelBehavior(GameObject object, UpdatePhase phase, int priority) {
+        super(object, phase, priority);
+    }
+
+    /**
+     * Declares that this behavior's updates are safe to run at the same time
+     * as any other behavior's, so the engine doesn't need to order it with
+     * respect to anything. Defaults to false.
+     *
+     * @param threadSafe
+     *            true if this behavior may run concurrently with anything
+     */
+    public void setThreadSafe(boolean threadSafe) {
+        this.threadSafe = threadSafe;
+    }
+
+    /**
+     * Returns true if this behavior declared that it may run concurrently
+     * with any other behavior.
+     *
+     * @return whether this behavior is thread-safe
+     */
+    public boolean isThreadSafe() {
+        return threadSafe;
+    }
+
+    /**
+     * Declares what this behavior writes to during its updates, replacing any
+     * previous declaration. Each target is either a GameObject, or a Class to
+     * declare writes to state shared by all features of that type. Behaviors
+     * writing to a common target never run at the same time, and run in the
+     * order they were created.
+     * <p>
+     * Without a declaration, a behavior writes to its own GameObject only.
+     * Changes take effect on the next frame.
+     *
+     * @param targets
+     *            GameObjects and feature types written to; may be empty
+     */
+    public void declareWrites(Object... targets) {
+        for (Object target : targets) {
+            if (!(target instanceof GameObject || target instanceof Class))
+                throw new TrydentException("Write targets must be GameObjects or feature classes, not " + target);
+        }
+        writes = targets.length == 0 ? NO_TARGETS : targets.clone();
+    }
+
+    /**
+     * Defers the given action to the engine thread. Committed actions run
+     * after all parallel behaviors of this phase and priority have updated.
+     * Only call this from this behavior's own updates.
+     *
+     * @param action
+     *            action to run on the engine thread
+     */
+    protected final void commit(Runnable action) {
+        commits.add(action);
+    }
+
+    @Override
+    final boolean runsInParallel() {
+        return true;
+    }
+
+    /**
+     * Returns the targets this behavior writes to, never null.
+     */
+    Object[] getWriteTargets() {
+        Object[] targets = writes;
+        return targets == null ? ownObject : targets;
+    }
+
+    /**
+     * Runs and clears committed actions, on the engine thread.
+     */
+    void runCommits() {
+        // Index loop: a committed action may commit more work.
+        for (int i = 0; i < commits.size(); i++) {
+            commits.get(i).run();
+        }
+        commits.clear();
+    }
+
+}
@@ -0,0 +1,155 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the updates of a bucket of {@link ParallelBehavior}s on a fork-join
+ * pool.
+ * <p>
+ * Behaviors are split into waves: each behavior goes into the first wave
+ * after every earlier behavior that writes to one of its targets, so writers
+ * of a common target keep their creation order, and behaviors within a wave
+ * never share a target. Waves run one after the other, each spread across the
+ * pool. Only used by the engine thread.
+ */
+class ParallelUpdater {
+
+    private static final ForkJoinPool.ForkJoinWorkerThreadFactory THREAD_FACTORY =
+            new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                @Override
+                public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("Trydent-Worker-" + thread.getPoolIndex());
+                    return thread;
+                }
+            };
+
+    private ForkJoinPool pool;
+
+    // Scratch state reused from frame to frame.
+    private final Map<Object, Integer> lastWave = new IdentityHashMap<>();
+    private int[] waveOf = new int[64];
+    private int[] waveCount = new int[8];
+    private ParallelBehavior[] order = new ParallelBehavior[64];
+
+    /**
+     * Updates every behavior in the bucket, then runs their committed actions
+     * in bucket order. Pre-updates must already have run.
+     */
+    void update(EventRegistry.Bucket bucket) {
+        int count = bucket.size();
+        if (count == 0)
+            return;
+        if (waveOf.length < count) {
+            waveOf = new int[Math.max(count, waveOf.length * 2)];
+            order = new ParallelBehavior[waveOf.length];
+        }
+
+        int waves = assignWaves(bucket, count);
+        sortByWave(bucket, count, waves);
+
+        int start = 0;
+        for (int w = 0; w < waves; w++) {
+            int end = start + waveCount[w];
+            if (end - start == 1) {
+                order[start].doUpdate();
+            } else {
+                ForkJoinPool workers = getPool();
+                int grain = Math.max(1, (end - start) / (workers.getParallelism() * 4));
+                workers.invoke(new UpdateTask(order, start, end, grain));
+            }
+            start = end;
+        }
+        Arrays.fill(order, 0, count, null);
+
+        for (int i = 0; i < count; i++) {
+            ((ParallelBehavior) bucket.get(i)).runCommits();
+        }
+    }
+
+    private int assignWaves(EventRegistry.Bucket bucket, int count) {
+        lastWave.clear();
+        int waves = 1;
+        for (int i = 0; i < count; i++) {
+            ParallelBehavior behavior = (ParallelBehavior) bucket.get(i);
+            int wave = 0;
+            if (!behavior.isThreadSafe()) {
+                Object[] targets = behavior.getWriteTargets();
+                for (Object target : targets) {
+                    Integer previous = lastWave.get(target);
+                    if (previous != null && previous >= wave)
+                        wave = previous + 1;
+                }
+                for (Object target : targets) {
+                    lastWave.put(target, wave);
+                }
+            }
+            waveOf[i] = wave;
+            waves = Math.max(waves, wave + 1);
+        }
+        return waves;
+    }
+
+    // Stable counting sort, so behaviors keep their bucket order within a
+    // wave.
+    private void sortByWave(EventRegistry.Bucket bucket, int count, int waves) {
+        if (waveCount.length < waves + 1)
+            waveCount = new int[Math.max(waves + 1, waveCount.length * 2)];
+        Arrays.fill(waveCount, 0, waves + 1, 0);
+        for (int i = 0; i < count; i++) {
+            waveCount[waveOf[i] + 1]++;
+        }
+        for (int w = 0; w < waves; w++) {
+            waveCount[w + 1] += waveCount[w];
+        }
+        for (int i = 0; i < count; i++) {
+            order[waveCount[waveOf[i]]++] = (ParallelBehavior) bucket.get(i);
+        }
+        // waveCount[w] now holds the end of wave w; turn it back into sizes.
+        for (int w = waves - 1; w > 0; w--) {
+            waveCount[w] -= waveCount[w - 1];
+        }
+    }
+
+    ForkJoinPool getPool() {
+        if (pool == null)
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), THREAD_FACTORY, null, false);
+        return pool;
+    }
+
+    /**
+     * Updates a range of behaviors, splitting it across the pool.
+     */
+    private static final class UpdateTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ParallelBehavior[] behaviors;
+        private final int start, end, grain;
+
+        UpdateTask(ParallelBehavior[] behaviors, int start, int end, int grain) {
+            this.behaviors = behaviors;
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                for (int i = start; i < end; i++) {
+                    behaviors[i].doUpdate();
+                }
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new UpdateTask(behaviors, start, mid, grain), new UpdateTask(behaviors, mid, end, grain));
+        }
+    }
+
+}
@@ -5,6 +5,9 @@ import javafx.scene.image.ImageView;
 
 /**
  * A class that displays 2D sprite images and can support simple 2D animations.
+ * <p>
+ * Every Sprite has its own JavaFX nodes; to draw thousands of sprites, use a
+ * {@link SpriteBatch} instead.
  */
 public class Sprite extends GameObject {
 
@@ -0,0 +1,209 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Many small images (frames) packed into one large image, for drawing with a
+ * {@link SpriteBatch}.
+ * <p>
+ * Frames are packed onto shelves: sorted from tallest to shortest, they are
+ * placed left to right in rows, and a new row starts below the tallest frame
+ * of the last one when a frame doesn't fit. Frames are identified by their
+ * index in the array they were packed from, and are kept apart by a
+ * transparent pixel so that smoothing never blends neighboring frames.
+ */
+public class SpriteAtlas {
+
+    private static final int PADDING = 1;
+
+    private final WritableImage image;
+    // Source rectangles of the frames, in pixels of the atlas image.
+    final int[] frameX;
+    final int[] frameY;
+    final int[] frameWidth;
+    final int[] frameHeight;
+    private final Map<String, Integer> frameOfFile = new HashMap<>();
+
+    /**
+     * Loads the given image files and packs them into a new atlas. Frame i is
+     * the image of file i.
+     *
+     * @param filenames
+     *            the images to pack, see {@link Images#getImage(String)}
+     */
+    public SpriteAtlas(String[] filenames) {
+        this(loadImages(filenames));
+        for (int i = 0; i < filenames.length; i++) {
+            frameOfFile.put(filenames[i], i);
+        }
+    }
+
+    /**
+     * Packs the given images into a new atlas. Frame i is image i.
+     *
+     * @param images
+     *            the images to pack; they must be fully loaded
+     */
+    public SpriteAtlas(Image[] images) {
+        int count = images.length;
+        if (count == 0)
+            throw new TrydentException("A sprite atlas needs at least one image.");
+        frameX = new int[count];
+        frameY = new int[count];
+        frameWidth = new int[count];
+        frameHeight = new int[count];
+
+        long area = 0;
+        int widest = 0;
+        for (int i = 0; i < count; i++) {
+            if (images[i] == null)
+                throw new TrydentException("Cannot pack a null image into a sprite atlas.");
+            frameWidth[i] = (int) Math.ceil(images[i].getWidth());
+            frameHeight[i] = (int) Math.ceil(images[i].getHeight());
+            area += (long) (frameWidth[i] + PADDING) * (frameHeight[i] + PADDING);
+            widest = Math.max(widest, frameWidth[i]);
+        }
+        // Aim for a square atlas, unless a frame is wider than that.
+        int maxWidth = Math.max(widest, (int) Math.ceil(Math.sqrt(area)));
+
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Integer.compare(frameHeight[b], frameHeight[a]);
+            }
+        });
+
+        int x = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        int width = 0;
+        for (int frame : order) {
+            if (x > 0 && x + frameWidth[frame] > maxWidth) {
+                shelfY += shelfHeight + PADDING;
+                shelfHeight = 0;
+                x = 0;
+            }
+            frameX[frame] = x;
+            frameY[frame] = shelfY;
+            x += frameWidth[frame] + PADDING;
+            shelfHeight = Math.max(shelfHeight, frameHeight[frame]);
+            width = Math.max(width, x - PADDING);
+        }
+        int height = shelfY + shelfHeight;
+
+        image = new WritableImage(Math.max(1, width), Math.max(1, height));
+        PixelWriter writer = image.getPixelWriter();
+        for (int i = 0; i < count; i++) {
+            if (frameWidth[i] == 0 || frameHeight[i] == 0)
+                continue;
+            PixelReader reader = images[i].getPixelReader();
+            if (reader == null)
+                throw new TrydentException("Could not read the pixels of image " + i + "; is it fully loaded?");
+            writer.setPixels(frameX[i], frameY[i], frameWidth[i], frameHeight[i], reader, 0, 0);
+        }
+    }
+
+    private static Image[] loadImages(String[] filenames) {
+        Image[] images = new Image[filenames.length];
+        for (int i = 0; i < filenames.length; i++) {
+            images[i] = Images.getImage(filenames[i]);
+        }
+        return images;
+    }
+
+    /**
+     * Returns the packed image holding all frames.
+     *
+     * @return the atlas image
+     */
+    public Image getImage() {
+        return image;
+    }
+
+    /**
+     * Returns the number of frames in this atlas.
+     *
+     * @return the frame count
+     */
+    public int getFrameCount() {
+        return frameX.length;
+    }
+
+    /**
+     * Returns the index of the frame loaded from the given file.
+     *
+     * @param filename
+     *            a filename this atlas was created from
+     * @return the frame index
+     */
+    public int getFrame(String filename) {
+        Integer frame = frameOfFile.get(filename);
+        if (frame == null)
+            throw new TrydentException("This sprite atlas has no frame for file " + filename);
+        return frame;
+    }
+
+    /**
+     * Returns the left edge of a frame in the atlas image.
+     *
+     * @param frame
+     *            the frame index
+     * @return the x-coordinate in pixels
+     */
+    public double getFrameX(int frame) {
+        return frameX[checkFrame(frame)];
+    }
+
+    /**
+     * Returns the top edge of a frame in the atlas image.
+     *
+     * @param frame
+     *            the frame index
+     * @return the y-coordinate in pixels
+     */
+    public double getFrameY(int frame) {
+        return frameY[checkFrame(frame)];
+    }
+
+    /**
+     * Returns the width of a frame.
+     *
+     * @param frame
+     *            the frame index
+     * @return the width in pixels
+     */
+    public double getFrameWidth(int frame) {
+        return frameWidth[checkFrame(frame)];
+    }
+
+    /**
+     * Returns the height of a frame.
+     *
+     * @param frame
+     *            the frame index
+     * @return the height in pixels
+     */
+    public double getFrameHeight(int frame) {
+        return frameHeight[checkFrame(frame)];
+    }
+
+    int checkFrame(int frame) {
+        if (frame < 0 || frame >= frameX.length)
+            throw new TrydentException("Frame " + frame + " is not in this sprite atlas (it has " + frameX.length
+                    + " frames).");
+        return frame;
+    }
+
+}
@@ -0,0 +1,431 @@
+package edu.gatech.cs2340.trydent;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import edu.gatech.cs2340.trydent.entity.Archetype;
+import edu.gatech.cs2340.trydent.math.geom.Rectangle;
+
+/**
+ * Draws many sprites from one {@link SpriteAtlas} onto a single canvas.
+ * <p>
+ * A {@link Sprite} is a GameObject with its own JavaFX nodes, and JavaFX gets
+ * slow once there are thousands of nodes. The sprites of a batch are not
+ * GameObjects: they are rows of numbers identified by int ids, and the whole
+ * batch is one node, redrawn in a single pass in the
+ * {@link UpdatePhase#POST_ANIMATION} phase of every frame. Sprites are drawn
+ * in the order they were added, so later sprites cover earlier ones, and
+ * positions are relative to the batch, which can be moved like any other
+ * GameObject.
+ * <p>
+ * Like a Sprite, each sprite's position is its top-left corner, which it is
+ * also rotated and scaled about. Animated sprites cycle through a run of
+ * consecutive frames of the atlas. Nothing is drawn while the engine is
+ * headless.
+ */
+public class SpriteBatch extends GameObject {
+
+    private final SpriteAtlas atlas;
+    private final Canvas canvas;
+    private final Archetype sprites;
+    private final int xColumn;
+    private final int yColumn;
+    private final int rotationColumn;
+    private final int scaleXColumn;
+    private final int scaleYColumn;
+    private final int frameColumn;
+    private final int frameCountColumn;
+    private final int frameTimeColumn;
+    private final int startTimeColumn;
+    // Left, top, right and bottom of the sprite being drawn.
+    private final double[] box = new double[4];
+
+    /**
+     * Creates a new, empty sprite batch drawing onto a canvas of the given
+     * size.
+     *
+     * @param atlas
+     *            the frames of the sprites
+     * @param width
+     *            width of the canvas
+     * @param height
+     *            height of the canvas
+     */
+    public SpriteBatch(SpriteAtlas atlas, double width, double height) {
+        super();
+        if (atlas == null)
+            throw new TrydentException("A sprite batch needs a sprite atlas.");
+        this.atlas = atlas;
+        this.canvas = new Canvas(width, height);
+        getFxNode().getChildren().add(canvas);
+
+        sprites = new Archetype("x", "y", "rotation", "scaleX", "scaleY", "frame", "frameCount", "frameTime",
+                "startTime");
+        xColumn = sprites.getColumnIndex("x");
+        yColumn = sprites.getColumnIndex("y");
+        rotationColumn = sprites.getColumnIndex("rotation");
+        scaleXColumn = sprites.getColumnIndex("scaleX");
+        scaleYColumn = sprites.getColumnIndex("scaleY");
+        frameColumn = sprites.getColumnIndex("frame");
+        frameCountColumn = sprites.getColumnIndex("frameCount");
+        frameTimeColumn = sprites.getColumnIndex("frameTime");
+        startTimeColumn = sprites.getColumnIndex("startTime");
+
+        new Behavior(this, UpdatePhase.POST_ANIMATION) {
+            @Override
+            public void onUpdate() {
+                if (!TrydentEngine.isHeadless())
+                    draw();
+            }
+        };
+    }
+
+    /**
+     * Adds a sprite showing one frame.
+     *
+     * @param frame
+     *            index of the frame in the atlas
+     * @param x
+     *            x-coordinate of the sprite's top-left corner
+     * @param y
+     *            y-coordinate of the sprite's top-left corner
+     * @return the id of the new sprite
+     */
+    public int add(int frame, double x, double y) {
+        return add(frame, 1, 0, x, y);
+    }
+
+    /**
+     * Adds a sprite that cycles through consecutive frames, starting now.
+     *
+     * @param firstFrame
+     *            index of the first frame in the atlas
+     * @param frameCount
+     *            number of frames to cycle through
+     * @param frameTime
+     *            how long each frame is shown, in seconds
+     * @param x
+     *            x-coordinate of the sprite's top-left corner
+     * @param y
+     *            y-coordinate of the sprite's top-left corner
+     * @return the id of the new sprite
+     */
+    public int add(int firstFrame, int frameCount, double frameTime, double x, double y) {
+        checkAnimation(firstFrame, frameCount, frameTime);
+        int id = sprites.create();
+        sprites.set(id, xColumn, x);
+        sprites.set(id, yColumn, y);
+        sprites.set(id, scaleXColumn, 1);
+        sprites.set(id, scaleYColumn, 1);
+        setFrames(id, firstFrame, frameCount, frameTime);
+        return id;
+    }
+
+    /**
+     * Removes a sprite. The other sprites keep their drawing order, which
+     * takes time proportional to the number of sprites added after it.
+     *
+     * @param id
+     *            the id of the sprite
+     */
+    public void remove(int id) {
+        sprites.destroyInOrder(id);
+    }
+
+    /**
+     * Removes all sprites.
+     */
+    public void clear() {
+        while (sprites.size() > 0) {
+            sprites.destroy(sprites.getId(sprites.size() - 1));
+        }
+    }
+
+    /**
+     * Returns true if the id belongs to a sprite in this batch.
+     *
+     * @param id
+     *            a sprite id
+     * @return whether the sprite exists
+     */
+    public boolean isAlive(int id) {
+        return sprites.isAlive(id);
+    }
+
+    /**
+     * Returns the number of sprites in this batch.
+     *
+     * @return the sprite count
+     */
+    public int getSpriteCount() {
+        return sprites.size();
+    }
+
+    /**
+     * Returns the id of the sprite at the given place in the drawing order,
+     * where 0 is drawn first.
+     *
+     * @param index
+     *            a place between 0 and {@code getSpriteCount() - 1}
+     * @return the id of the sprite
+     */
+    public int getSpriteId(int index) {
+        return sprites.getId(index);
+    }
+
+    /**
+     * Moves a sprite.
+     *
+     * @param id
+     *            the id of the sprite
+     * @param x
+     *            x-coordinate of the sprite's top-left corner
+     * @param y
+     *            y-coordinate of the sprite's top-left corner
+     */
+    public void setPosition(int id, double x, double y) {
+        sprites.set(id, xColumn, x);
+        sprites.set(id, yColumn, y);
+    }
+
+    /**
+     * Returns the x-coordinate of a sprite's top-left corner.
+     *
+     * @param id
+     *            the id of the sprite
+     * @return x
+     */
+    public double getX(int id) {
+        return sprites.get(id, xColumn);
+    }
+
+    /**
+     * Returns the y-coordinate of a sprite's top-left corner.
+     *
+     * @param id
+     *            the id of the sprite
+     * @return y
+     */
+    public double getY(int id) {
+        return sprites.get(id, yColumn);
+    }
+
+    /**
+     * Sets the rotation of a sprite.
+     *
+     * @param id
+     *            the id of the sprite
+     * @param rotation
+     *            rotation in degrees
+     */
+    public void setRotation(int id, double rotation) {
+        sprites.set(id, rotationColumn, rotation);
+    }
+
+    /**
+     * Sets the scale of a sprite.
+     *
+     * @param id
+     *            the id of the sprite
+     * @param scaleX
+     *            x scale factor
+     * @param scaleY
+     *            y scale factor
+     */
+    public void setScale(int id, double scaleX, double scaleY) {
+        sprites.set(id, scaleXColumn, scaleX);
+        sprites.set(id, scaleYColumn, scaleY);
+    }
+
+    /**
+     * Shows a single frame on a sprite, stopping its animation.
+     *
+     * @param id
+     *            the id of the sprite
+     * @param frame
+     *            index of the frame in the atlas
+     */
+    public void setFrame(int id, int frame) {
+        setAnimation(id, frame, 1, 0);
+    }
+
+    /**
+     * Makes a sprite cycle through consecutive frames, starting now.
+     *
+     * @param id
+     *            the id of the sprite
+     * @param firstFrame
+     *            index of the first frame in the atlas
+     * @param frameCount
+     *            number of frames to cycle through
+     * @param frameTime
+     *            how long each frame is shown, in seconds
+     */
+    public void setAnimation(int id, int firstFrame, int frameCount, double frameTime) {
+        checkAnimation(firstFrame, frameCount, frameTime);
+        setFrames(id, firstFrame, frameCount, frameTime);
+    }
+
+    /**
+     * Returns the frame a sprite shows at the current time.
+     *
+     * @param id
+     *            the id of the sprite
+     * @return index of the frame in the atlas
+     */
+    public int getFrame(int id) {
+        return frameAt(sprites.getRow(id), Time.getTime());
+    }
+
+    /**
+     * Returns the smallest box around a sprite as it is drawn now, after
+     * rotating and scaling it, relative to the batch.
+     *
+     * @param id
+     *            the id of the sprite
+     * @return a new rectangle around the sprite
+     */
+    public Rectangle getBounds(int id) {
+        int row = sprites.getRow(id);
+        int frame = frameAt(row, Time.getTime());
+        double radians = Math.toRadians(sprites.getColumn(rotationColumn)[row]);
+        computeBox(sprites.getColumn(xColumn)[row], sprites.getColumn(yColumn)[row], atlas.frameWidth[frame],
+                atlas.frameHeight[frame], sprites.getColumn(scaleXColumn)[row],
+                sprites.getColumn(scaleYColumn)[row], Math.cos(radians), Math.sin(radians), box);
+        return new Rectangle(box[0], box[1], box[2] - box[0], box[3] - box[1]);
+    }
+
+    /**
+     * Returns the atlas the sprites' frames come from.
+     *
+     * @return the atlas
+     */
+    public SpriteAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * Resizes the canvas the sprites are drawn on.
+     *
+     * @param width
+     *            new width of the canvas
+     * @param height
+     *            new height of the canvas
+     */
+    public void setCanvasSize(double width, double height) {
+        canvas.setWidth(width);
+        canvas.setHeight(height);
+    }
+
+    /**
+     * Clears the canvas and draws all sprites onto it. This is done
+     * automatically every frame.
+     *
+     * @return the number of sprites drawn; sprites entirely off the canvas
+     *         are skipped
+     */
+    public int draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        double canvasWidth = canvas.getWidth();
+        double canvasHeight = canvas.getHeight();
+        gc.clearRect(0, 0, canvasWidth, canvasHeight);
+
+        Image image = atlas.getImage();
+        int[] frameX = atlas.frameX;
+        int[] frameY = atlas.frameY;
+        int[] frameWidth = atlas.frameWidth;
+        int[] frameHeight = atlas.frameHeight;
+        double[] x = sprites.getColumn(xColumn);
+        double[] y = sprites.getColumn(yColumn);
+        double[] rotation = sprites.getColumn(rotationColumn);
+        double[] scaleX = sprites.getColumn(scaleXColumn);
+        double[] scaleY = sprites.getColumn(scaleYColumn);
+        double now = Time.getTime();
+        boolean transformed = false;
+        double[] box = this.box;
+        int drawn = 0;
+
+        int count = sprites.size();
+        for (int row = 0; row < count; row++) {
+            int frame = frameAt(row, now);
+            double width = frameWidth[frame];
+            double height = frameHeight[frame];
+            double sx = scaleX[row];
+            double sy = scaleY[row];
+            double cos = 1;
+            double sin = 0;
+            if (rotation[row] != 0) {
+                double radians = Math.toRadians(rotation[row]);
+                cos = Math.cos(radians);
+                sin = Math.sin(radians);
+            }
+            // Skip sprites that are entirely off the canvas.
+            computeBox(x[row], y[row], width, height, sx, sy, cos, sin, box);
+            if (box[0] > canvasWidth || box[1] > canvasHeight || box[2] < 0 || box[3] < 0)
+                continue;
+            drawn++;
+            if (rotation[row] == 0) {
+                if (transformed) {
+                    gc.setTransform(1, 0, 0, 1, 0, 0);
+                    transformed = false;
+                }
+                gc.drawImage(image, frameX[frame], frameY[frame], width, height, x[row], y[row], width * sx,
+                        height * sy);
+            } else {
+                // T * R * S, like a GameObject's local transform.
+                gc.setTransform(cos * sx, sin * sx, -sin * sy, cos * sy, x[row], y[row]);
+                transformed = true;
+                gc.drawImage(image, frameX[frame], frameY[frame], width, height, 0, 0, width, height);
+            }
+        }
+        if (transformed)
+            gc.setTransform(1, 0, 0, 1, 0, 0);
+        return drawn;
+    }
+
+    /**
+     * Stores the left, top, right and bottom of a sprite's box in the given
+     * array, transforming its corners the same way {@link #draw()} does.
+     */
+    private static void computeBox(double x, double y, double width, double height, double sx, double sy,
+            double cos, double sin, double[] box) {
+        // Where the top and left edges of the frame end up.
+        double topX = cos * sx * width;
+        double topY = sin * sx * width;
+        double leftX = -sin * sy * height;
+        double leftY = cos * sy * height;
+        box[0] = x + Math.min(0, topX) + Math.min(0, leftX);
+        box[1] = y + Math.min(0, topY) + Math.min(0, leftY);
+        box[2] = x + Math.max(0, topX) + Math.max(0, leftX);
+        box[3] = y + Math.max(0, topY) + Math.max(0, leftY);
+    }
+
+    private int frameAt(int row, double time) {
+        int frame = (int) sprites.getColumn(frameColumn)[row];
+        int frameCount = (int) sprites.getColumn(frameCountColumn)[row];
+        if (frameCount <= 1)
+            return frame;
+        double elapsed = time - sprites.getColumn(startTimeColumn)[row];
+        int step = (int) (Math.max(0, elapsed) / sprites.getColumn(frameTimeColumn)[row]) % frameCount;
+        return frame + step;
+    }
+
+    private void setFrames(int id, int firstFrame, int frameCount, double frameTime) {
+        sprites.set(id, frameColumn, firstFrame);
+        sprites.set(id, frameCountColumn, frameCount);
+        sprites.set(id, frameTimeColumn, frameTime);
+        sprites.set(id, startTimeColumn, Time.getTime());
+    }
+
+    private void checkAnimation(int firstFrame, int frameCount, double frameTime) {
+        if (frameCount < 1)
+            throw new TrydentException("Sprites need at least 1 frame (got " + frameCount + ").");
+        atlas.checkFrame(firstFrame);
+        atlas.checkFrame(firstFrame + frameCount - 1);
+        if (frameCount > 1 && !(frameTime > 0))
+            throw new TrydentException("The frame time of animated sprites must be positive (got " + frameTime
+                    + ").");
+    }
+
+}
@@ -5,23 +5,69 @@ package edu.gatech.cs2340.trydent;
  *
  * All values returned by public methods are in seconds, unless stated
  * otherwise.
+ * <p>
+ * Time is measured with {@link System#nanoTime()}. The engine publishes a
+ * {@link FrameTime} snapshot once per frame; every getter in this class reads
+ * from the current snapshot, so reading the clock never allocates and costs a
+ * single volatile read. Snapshots are immutable, so publishing one costs a
+ * single small allocation per update.
  *
  * @author Garrett Malmquist
  */
 public class Time {
 
-    // There are 1000 milliseconds per second. This would change to
-    // 1e9 if we were to use nano seconds instead.
-    private static final double UNITS_PER_SECOND = 1000.0;
+    // There are 1e9 nanoseconds per second.
+    private static final double UNITS_PER_SECOND = 1e9;
 
-    // All private variables are stored in milliseconds for accuracy.
-    private static volatile double gameTimeSinceStartup;
-    private static volatile long realTimeSinceStartup;
-    private static volatile long realLastFrame;
-    private static volatile long realStartTime;
-    private static volatile double gameTimePassed;
-    private static volatile long realTimePassed;
-    private static volatile double timeRate;
+    // Weight of the newest frame in the exponential moving average used for
+    // the smoothed time step.
+    private static final double SMOOTHING = 0.1;
+
+    // Number of frames remembered for min/max/percentile statistics.
+    private static final int HISTORY_SIZE = 240;
+
+    private static final FrameTimeHistory HISTORY = new FrameTimeHistory(HISTORY_SIZE);
+
+    // The snapshot all getters read from.
+    private static volatile FrameTime frame = new FrameTime(0, 0, 0, 0, 0, 0, 1, 1);
+
+    // Clock state below is only touched by the engine thread. Real times are
+    // in nanoseconds, game time in seconds.
+    private static long realStartTime;
+    private static long realLastFrame;
+    private static long realTimePassed;
+    private static double smoothedRealTimePassed;
+    private static double gameTimeSinceStartup;
+    private static double gameTimePassed;
+    private static long frameCount;
+    private static volatile long frameStartTime;
+    private static volatile double timeRate = 1;
+
+    // Per-frame time budget in nanoseconds, 0 if unlimited.
+    private static volatile long frameBudget = 0;
+
+    // Fixed-timestep state, in nanoseconds. A step of 0 means the engine
+    // runs in variable-timestep mode (one update per frame).
+    private static volatile long fixedTimeStep = 0;
+    private static volatile int maxStepsPerFrame = 5;
+    private static double fixedAccumulator;
+    private static double interpolationAlpha = 1;
+
+    // Length of every frame in nanoseconds while a headless engine is
+    // stepped by hand at a set frame rate; 0 measures frames with the real
+    // clock.
+    private static volatile long steppedFrameTime = 0;
+
+    /**
+     * Returns the snapshot of the clock for the current frame. All values in
+     * the snapshot are consistent with each other, even if the engine moves on
+     * to the next frame while they are being read.
+     *
+     * @return the current frame's time snapshot
+     */
+    public static FrameTime getFrame() {
+        return frame;
+    }
 
     /**
      * Game time in seconds since the game started.
@@ -29,7 +75,7 @@ public class Time {
      * @return time in seconds
      */
     public static double getTime() {
-        return gameTimeSinceStartup / UNITS_PER_SECOND;
+        return frame.getTime();
     }
 
     /**
@@ -41,7 +87,18 @@ public class Time {
      *         of objects in the game.
      */
     public static double getTimePassed() {
-        return gameTimePassed / UNITS_PER_SECOND;
+        return frame.getTimePassed();
+    }
+
+    /**
+     * Game time in seconds elapsed since the previous frame, smoothed with an
+     * exponential moving average over recent frames. Useful for things like
+     * camera motion, where the jitter of the raw frame time is visible.
+     *
+     * @return smoothed time in seconds since last frame
+     */
+    public static double getSmoothedTimePassed() {
+        return frame.getSmoothedTimePassed();
     }
 
     /**
@@ -50,7 +107,7 @@ public class Time {
      * @return time in seconds
      */
     public static double getRealTimeSinceStartup() {
-        return realTimeSinceStartup / UNITS_PER_SECOND;
+        return frame.getRealTimeSinceStartup();
     }
 
     /**
@@ -59,7 +116,7 @@ public class Time {
      * @return time in seconds
      */
     public static double getRealTimePassed() {
-        return realTimePassed / UNITS_PER_SECOND;
+        return frame.getRealTimePassed();
     }
 
     /**
@@ -83,33 +140,281 @@ public class Time {
         timeRate = rate;
     }
 
+    /**
+     * Returns the shortest real frame time over the last few seconds.
+     *
+     * @return time in seconds
+     */
+    public static double getMinFrameTime() {
+        return HISTORY.min() / UNITS_PER_SECOND;
+    }
+
+    /**
+     * Returns the longest real frame time over the last few seconds.
+     *
+     * @return time in seconds
+     */
+    public static double getMaxFrameTime() {
+        return HISTORY.max() / UNITS_PER_SECOND;
+    }
+
+    /**
+     * Returns the given percentile of real frame times over the last few
+     * seconds. E.g., {@code getFrameTimePercentile(99)} returns the frame time
+     * that 99% of recent frames were at least as fast as.
+     *
+     * @param percentile
+     *            value between 0 and 100
+     * @return time in seconds
+     */
+    public static double getFrameTimePercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new TrydentException("Percentile must be between 0 and 100 (got " + percentile + ").");
+        return HISTORY.percentile(percentile) / UNITS_PER_SECOND;
+    }
+
+    /**
+     * Sets how much real time a single frame is allowed to take. Optional work
+     * (like path finding or particle spawning) can check
+     * {@link #getFrameBudgetRemaining()} and defer itself to a later frame
+     * when the budget runs out.
+     *
+     * @param seconds
+     *            the budget in seconds, or 0 for no budget
+     */
+    public static void setFrameBudget(double seconds) {
+        if (seconds < 0)
+            throw new TrydentException("The frame budget cannot be negative (got " + seconds + ").");
+        frameBudget = (long) (seconds * UNITS_PER_SECOND);
+    }
+
+    /**
+     * Returns the per-frame time budget.
+     *
+     * @return the budget in seconds, or 0 if there is no budget
+     */
+    public static double getFrameBudget() {
+        return frameBudget / UNITS_PER_SECOND;
+    }
+
+    /**
+     * Returns the real time spent in the current frame so far.
+     *
+     * @return time in seconds since the current frame started
+     */
+    public static double getTimeInFrame() {
+        return (System.nanoTime() - frameStartTime) / UNITS_PER_SECOND;
+    }
+
+    /**
+     * Returns how much of the frame budget is left for the current frame. The
+     * result is negative once the budget has been exceeded, and infinite if no
+     * budget has been set.
+     *
+     * @return time in seconds
+     */
+    public static double getFrameBudgetRemaining() {
+        long budget = frameBudget;
+        if (budget == 0)
+            return Double.POSITIVE_INFINITY;
+        return (budget - (System.nanoTime() - frameStartTime)) / UNITS_PER_SECOND;
+    }
+
+    /**
+     * Returns true if the current frame has used up its time budget.
+     *
+     * @return whether the budget is exceeded
+     * @see #setFrameBudget(double)
+     */
+    public static boolean isFrameBudgetExceeded() {
+        return getFrameBudgetRemaining() < 0;
+    }
+
+    /**
+     * Sets the length of a fixed simulation step in seconds. When positive,
+     * the engine runs ContinuousEvent updates at a constant rate of
+     * {@code 1 / step} updates per second of game time, independent of how
+     * often frames are drawn. Each update then sees
+     * {@link #getTimePassed()} equal to exactly the step length.
+     * <p>
+     * A step of 0 (the default) makes the engine update exactly once per frame
+     * with a variable time step.
+     *
+     * @param seconds
+     *            the length of a fixed step in seconds, or 0 to disable fixed
+     *            stepping
+     */
+    public static void setFixedTimeStep(double seconds) {
+        if (seconds < 0)
+            throw new TrydentException("The fixed time step cannot be negative (got " + seconds + ").");
+        fixedTimeStep = (long) (seconds * UNITS_PER_SECOND);
+        fixedAccumulator = 0;
+        interpolationAlpha = 1;
+    }
+
+    /**
+     * Returns the length of a fixed simulation step in seconds.
+     *
+     * @return the fixed step, or 0 if the engine uses a variable time step
+     */
+    public static double getFixedTimeStep() {
+        return fixedTimeStep / UNITS_PER_SECOND;
+    }
+
+    /**
+     * Sets the maximum number of fixed steps the engine will run in a single
+     * frame to catch up with real time. If a frame takes longer than this many
+     * steps, the remaining time is dropped and the game slows down instead of
+     * falling further and further behind.
+     *
+     * @param steps
+     *            maximum number of steps per frame (at least 1)
+     */
+    public static void setMaxStepsPerFrame(int steps) {
+        if (steps < 1)
+            throw new TrydentException("At least one step per frame is required (got " + steps + ").");
+        maxStepsPerFrame = steps;
+    }
+
+    /**
+     * Returns the maximum number of fixed steps run in a single frame.
+     *
+     * @return maximum steps per frame
+     */
+    public static int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    /**
+     * Returns how far the current frame is between the last fixed step and
+     * the next one, as a fraction between 0 and 1. Rendering code can use this
+     * to interpolate between the previous and current simulation state, i.e.
+     * {@code drawn = previous.lerp(alpha, current)}.
+     * <p>
+     * In variable-timestep mode this is always 1.
+     *
+     * @return interpolation factor between 0 (previous step) and 1 (current
+     *         step)
+     */
+    public static double getInterpolationAlpha() {
+        return frame.getInterpolationAlpha();
+    }
+
     /**
      * Starts keeping track of time, called by the TrydentEngine.
      */
     static void startTheDawnOfTime() {
-        realStartTime = System.currentTimeMillis();
+        realStartTime = System.nanoTime();
+        realLastFrame = realStartTime;
+        frameStartTime = realStartTime;
+        realTimePassed = 0;
+        smoothedRealTimePassed = 0;
+
         gameTimeSinceStartup = 0;
-        realTimeSinceStartup = 0;
+        gameTimePassed = 0;
         timeRate = 1;
 
-        realLastFrame = realStartTime;
+        frameCount = 0;
+        fixedAccumulator = 0;
+        interpolationAlpha = 1;
+        HISTORY.clear();
 
-        gameTimePassed = 0;
-        realTimePassed = 0;
+        publish();
+    }
+
+    /**
+     * Makes every following frame count as exactly the given length, instead
+     * of the real time since the last frame. Called by the engine when
+     * frames are stepped by hand.
+     *
+     * @param nanos
+     *            the length of a frame in nanoseconds, or 0 to use the real
+     *            clock
+     */
+    static void setSteppedFrameTime(long nanos) {
+        steppedFrameTime = nanos;
+    }
+
+    /**
+     * Returns true if the engine should run fixed steps rather than one
+     * update per frame.
+     */
+    static boolean isFixedTimeStep() {
+        return fixedTimeStep > 0;
+    }
+
+    /**
+     * Expected to be called by the engine at the very start of every frame,
+     * before any updates run. Marks the start of the frame budget.
+     */
+    static void startFrame() {
+        frameStartTime = System.nanoTime();
     }
 
     /**
-     * Expected to be called by the engine at the start of every frame.
+     * Expected to be called by the engine at the end of every frame in
+     * variable-timestep mode.
      */
     static void updateTime() {
-        long now = System.currentTimeMillis();
+        measureRealTime();
+        gameTimePassed = timeRate * realTimePassed / UNITS_PER_SECOND;
+        gameTimeSinceStartup += gameTimePassed;
+        publish();
+    }
 
-        realTimePassed = now - realLastFrame;
-        realTimeSinceStartup = now - realStartTime;
-        gameTimePassed = timeRate * realTimePassed;
+    /**
+     * Expected to be called by the engine at the start of every frame in
+     * fixed-timestep mode. Measures the real time since the last frame and
+     * returns the number of fixed steps that should be run to catch up.
+     */
+    static int updateFixedTime() {
+        measureRealTime();
+
+        double step = fixedTimeStep;
+        fixedAccumulator += timeRate * realTimePassed;
+        int steps = (int) (fixedAccumulator / step);
+        if (steps > maxStepsPerFrame) {
+            // Spiral of death: drop the time we can't catch up on.
+            steps = maxStepsPerFrame;
+            fixedAccumulator = fixedAccumulator % step;
+        } else {
+            fixedAccumulator -= steps * step;
+        }
+        interpolationAlpha = fixedAccumulator / step;
+        gameTimePassed = 0;
+        publish();
+        return steps;
+    }
 
+    /**
+     * Advances game time by one fixed step, called by the engine right before
+     * running each fixed update.
+     */
+    static void advanceFixedStep() {
+        gameTimePassed = fixedTimeStep / UNITS_PER_SECOND;
         gameTimeSinceStartup += gameTimePassed;
+        publish();
+    }
 
+    private static void measureRealTime() {
+        long stepped = steppedFrameTime;
+        long now = stepped > 0 ? realLastFrame + stepped : System.nanoTime();
+        realTimePassed = now - realLastFrame;
         realLastFrame = now;
+        frameCount++;
+
+        if (frameCount == 1) {
+            smoothedRealTimePassed = realTimePassed;
+        } else {
+            smoothedRealTimePassed += SMOOTHING * (realTimePassed - smoothedRealTimePassed);
+        }
+        HISTORY.record(realTimePassed);
+    }
+
+    private static void publish() {
+        double rate = timeRate;
+        frame = new FrameTime(frameCount, gameTimeSinceStartup, gameTimePassed,
+                rate * smoothedRealTimePassed / UNITS_PER_SECOND, (realLastFrame - realStartTime) / UNITS_PER_SECOND,
+                realTimePassed / UNITS_PER_SECOND, rate, interpolationAlpha);
     }
 }
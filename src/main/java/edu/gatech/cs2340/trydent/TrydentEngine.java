@@ -1,18 +1,24 @@
 package edu.gatech.cs2340.trydent;
 
+import java.awt.GraphicsEnvironment;
 import java.io.InputStream;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.paint.Color;
+import edu.gatech.cs2340.trydent.internal.HeadlessManager;
 import edu.gatech.cs2340.trydent.internal.JavaFXManager;
 import edu.gatech.cs2340.trydent.internal.SwingManager;
 import edu.gatech.cs2340.trydent.log.Log;
+import edu.gatech.cs2340.trydent.math.VectorArena;
 
 /**
  * Main class that kicks off the TrydentEngine.
@@ -24,6 +30,13 @@ import edu.gatech.cs2340.trydent.log.Log;
  * */
 public class TrydentEngine {
 
+    /**
+     * System property that, when set to "true", makes the engine run without a
+     * window. The engine also runs headless automatically when no display is
+     * available.
+     */
+    public static final String HEADLESS_PROPERTY = "trydent.headless";
+
     private static TrydentEngine instance;
 
     private final Object mainLock = new Object();
@@ -34,81 +47,109 @@ public class TrydentEngine {
 
     private volatile boolean superCalledFlag = false;
 
-    private Set<ContinuousEvent> continuousEvents, continuousEventsToAdd, continuousEventsToRemove;
+    private final EventRegistry continuousEvents = new EventRegistry();
+
+    private final ParallelUpdater parallelUpdater = new ParallelUpdater();
 
     private Map<Runnable, ContinuousEvent> continuousRunnables;
 
     private JavaFXManager fxManager;
 
+    private volatile EngineLifecycle lifecycle = new EngineLifecycle();
+
     private TrydentEngine() {
-        continuousEvents = new HashSet<>();
-        continuousEventsToAdd = new HashSet<>();
-        continuousEventsToRemove = new HashSet<>();
-        continuousRunnables = new HashMap<>();
+        continuousRunnables = new ConcurrentHashMap<>();
 
-        fxManager = new SwingManager();
+        if (Boolean.getBoolean(HEADLESS_PROPERTY) || GraphicsEnvironment.isHeadless()) {
+            fxManager = new HeadlessManager();
+        } else {
+            fxManager = new SwingManager();
+        }
     }
 
     private void mainUpdate() {
-        if (frameNumber == 0)
+        if (frameNumber == 0) {
             Time.startTheDawnOfTime();
+            AnimationSystem.get();
+        }
+        Time.startFrame();
+        VectorArena.advanceFrame();
 
         if (!doQuit) {
+            boolean fixed = Time.isFixedTimeStep();
             try {
-                updateContinuousEvents();
+                if (fixed) {
+                    updateFixedSteps();
+                } else {
+                    updateContinuousEvents();
+                }
             } catch (Exception ex) {
                 Log.error(String.valueOf(ex));
                 ex.printStackTrace();
                 quit();
             }
-            Time.updateTime();
+            if (!fixed)
+                Time.updateTime();
+            if (frameNumber == 0)
+                lifecycle.markFirstFrame();
+            frameNumber++;
         } else {
+            // Nothing may touch engine state after this: waiters are released
+            // as soon as the backend stops, and may restart the engine.
             cleanup();
         }
+    }
 
-        frameNumber++;
+    private void updateFixedSteps() {
+        // Frames that arrive before a full step has elapsed don't update at
+        // all; slow frames run several steps to catch up.
+        int steps = Time.updateFixedTime();
+        for (int i = 0; i < steps && !doQuit; i++) {
+            Time.advanceFixedStep();
+            updateContinuousEvents();
+        }
     }
 
     private void updateContinuousEvents() {
-        continuousEvents.addAll(continuousEventsToAdd);
-        continuousEventsToAdd.clear();
-
-        // Removing events is uglier than creating events, because
-        // we need to make sure we handle the case where users
-        // remove additional events in an events onStop() method.
-        while (!continuousEventsToRemove.isEmpty()) {
-            ContinuousEvent next = null;
-            for (ContinuousEvent event : continuousEventsToRemove) {
-                next = event;
-                break;
+        continuousEvents.applyChanges();
+
+        // Events added or removed from here on are only queued, so the
+        // registry can be walked by index without copying it. Buckets are
+        // already sorted by phase and priority.
+        int buckets = continuousEvents.bucketCount();
+        for (int b = 0; b < buckets; b++) {
+            EventRegistry.Bucket bucket = continuousEvents.getBucket(b);
+            int count = bucket.size();
+            if (bucket.isParallel()) {
+                // Pre-updates may stop events, so they stay on this thread.
+                for (int i = 0; i < count; i++) {
+                    preUpdateEvent(bucket.get(i));
+                }
+                parallelUpdater.update(bucket);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    ContinuousEvent event = bucket.get(i);
+                    preUpdateEvent(event);
+                    event.doUpdate();
+                }
             }
-            next.doStop();
-            continuousEvents.remove(next);
-            continuousEventsToRemove.remove(next);
         }
+    }
 
-        for (ContinuousEvent event : continuousEvents) {
-            clearSuperCalledFlag();
-            event.onPreUpdate();
-            if (!superCalledFlag) {
-                throw new TrydentException("ContinuousEvent " + event
-                        + " overloaded onPreUpdate() but failed to call super method!");
-            }
-            event.doUpdate();
+    private void preUpdateEvent(ContinuousEvent event) {
+        clearSuperCalledFlag();
+        event.onPreUpdate();
+        if (!superCalledFlag) {
+            throw new TrydentException("ContinuousEvent " + event
+                    + " overloaded onPreUpdate() but failed to call super method!");
         }
     }
 
     private void cleanup() {
         // Stop any remaining events.
-        ContinuousEvent[] toStop = new ContinuousEvent[continuousEvents.size()];
-        continuousEvents.toArray(toStop);
-        for (ContinuousEvent event : toStop) {
-            event.doStop();
-        }
-
-        continuousEvents.clear();
-        continuousEventsToRemove.clear();
-        continuousEventsToAdd.clear();
+        continuousEvents.stopAll();
+        AnimationSystem.shutdown();
+        FeatureIndex.clear();
 
         fxManager.stopJavaFX();
     }
@@ -138,7 +179,7 @@ public class TrydentEngine {
      *            every frame.
      */
     static void addContinuousEvent(ContinuousEvent event) {
-        getInstance().continuousEventsToAdd.add(event);
+        getInstance().continuousEvents.requestAdd(event);
     }
 
     /**
@@ -147,7 +188,14 @@ public class TrydentEngine {
      * @param event
      */
     static void removeContinuousEvent(ContinuousEvent event) {
-        getInstance().continuousEventsToRemove.add(event);
+        getInstance().continuousEvents.requestRemove(event);
+    }
+
+    /**
+     * Returns the pool that parallel work of the engine runs on.
+     */
+    static ForkJoinPool getWorkerPool() {
+        return getInstance().parallelUpdater.getPool();
     }
 
     static Group getRootNode() {
@@ -183,43 +231,208 @@ public class TrydentEngine {
                 Log.warn("Engine has already been started.");
                 return; // Nothing to do.
             }
-            engine.doQuit = false;
-            engine.frameNumber = 0;
-            engine.fxManager.setUpdateAction(new Runnable() {
-                @Override
-                public void run() {
-                    engine.mainUpdate();
-                }
-            });
+            engine.prepareToStart();
             // Could pass command-line args here maybe
             // JavaFXFacade.main(args);
             engine.fxManager.startJavaFX();
+            engine.lifecycle.markStarted();
         }
     }
 
+    private void prepareToStart() {
+        doQuit = false;
+        frameNumber = 0;
+        Time.setSteppedFrameTime(0);
+        if (lifecycle.isStopped())
+            lifecycle = new EngineLifecycle();
+        final EngineLifecycle current = lifecycle;
+        fxManager.setStopAction(new Runnable() {
+            @Override
+            public void run() {
+                current.markStopped();
+            }
+        });
+        fxManager.setUpdateAction(new Runnable() {
+            @Override
+            public void run() {
+                mainUpdate();
+            }
+        });
+    }
+
+    /**
+     * Chooses whether the engine runs without a window. Headless engines run
+     * all game logic (including GameObjects) without opening a window or
+     * starting the JavaFX toolkit, which is useful for tests, servers, and
+     * benchmarks.
+     * <p>
+     * This must be called before the engine is started. By default the engine
+     * is headless only if the {@value #HEADLESS_PROPERTY} system property is
+     * set to true, or if no display is available.
+     *
+     * @param headless
+     *            true to run without a window
+     */
+    public static void setHeadless(boolean headless) {
+        TrydentEngine engine = getInstance();
+        synchronized (engine.mainLock) {
+            if (engine.fxManager.isRunning())
+                throw new TrydentException("Cannot change the engine backend while the engine is running.");
+            if (headless != isHeadless())
+                engine.fxManager = headless ? new HeadlessManager() : new SwingManager();
+        }
+    }
+
+    /**
+     * Returns true if the engine runs without a window.
+     *
+     * @return whether the engine is headless
+     */
+    public static boolean isHeadless() {
+        return getInstance().fxManager instanceof HeadlessManager;
+    }
+
+    /**
+     * Sets how many frames per second a headless engine started with
+     * {@link #start()} runs. By default, headless engines run as fast as
+     * possible.
+     * <p>
+     * Frames run with {@link #step(int)} don't wait; instead, each one counts
+     * as exactly {@code 1 / framesPerSecond} seconds long, whatever the real
+     * time between them. This makes stepped runs repeatable, e.g. in tests.
+     *
+     * @param framesPerSecond
+     *            target frame rate, or 0 to run as fast as possible
+     */
+    public static void setHeadlessFrameRate(double framesPerSecond) {
+        getHeadlessManager().setFrameRate(framesPerSecond);
+    }
+
+    /**
+     * Runs the given number of frames of a headless engine on the calling
+     * thread. If the engine is not running yet, it is started without its own
+     * update thread, so that frames only run when this method is called.
+     * <p>
+     * This cannot be mixed with {@link #start()}, which runs frames on a
+     * background thread. If a frame rate has been set with
+     * {@link #setHeadlessFrameRate(double)}, each frame counts as exactly one
+     * frame period long; otherwise frames are measured with the real clock.
+     *
+     * @param frames
+     *            number of frames to run
+     * @return the number of frames that were run; fewer than requested if the
+     *         engine quit in the meantime
+     */
+    public static int step(int frames) {
+        TrydentEngine engine = getInstance();
+        HeadlessManager headless = getHeadlessManager();
+        synchronized (engine.mainLock) {
+            if (!headless.isRunning()) {
+                engine.prepareToStart();
+                headless.startManual();
+                engine.lifecycle.markStarted();
+            }
+            Time.setSteppedFrameTime(headless.getFramePeriod());
+        }
+        return headless.step(frames);
+    }
+
+    private static HeadlessManager getHeadlessManager() {
+        JavaFXManager manager = getInstance().fxManager;
+        if (!(manager instanceof HeadlessManager))
+            throw new TrydentException("This is only available on a headless engine; call setHeadless(true) first.");
+        return (HeadlessManager) manager;
+    }
+
     public static void quit() {
         getInstance().doQuit = true;
     }
 
     /**
-     * Hangs the current thread until the TrydentEngine stops running.
+     * Hangs the current thread until the TrydentEngine stops running. Returns
+     * immediately if the engine is not running.
      *
      * @throws InterruptedException
      *             if this thread is interrupted while waiting
      */
     public static void waitUntilEngineStops() throws InterruptedException {
-        // We don't have our own thread, because we rely on JavaFX
-        // to invoke the engine's update method, so we have to busy-wait.
-        while (getInstance().fxManager.isRunning()) {
-            try {
-                // Wait 100 ms and try again.
-                Thread.sleep(100);
-            } catch (InterruptedException ex) {
+        CompletableFuture<Void> stopped = getInstance().lifecycle.stoppedSignal();
+        if (!isRunning())
+            return;
+        try {
+            stopped.get();
+        } catch (ExecutionException ex) {
+            // The signal is only ever completed normally.
+            throw new TrydentException("Unexpected failure while waiting for the engine to stop.", ex);
+        }
+    }
 
-            }
+    /**
+     * Hangs the current thread until the TrydentEngine stops running, or
+     * until the timeout runs out. Returns immediately if the engine is not
+     * running.
+     *
+     * @param timeout
+     *            maximum time to wait
+     * @param unit
+     *            unit of the timeout
+     * @return true if the engine stopped, false if the timeout ran out first
+     * @throws InterruptedException
+     *             if this thread is interrupted while waiting
+     */
+    public static boolean waitUntilEngineStops(long timeout, TimeUnit unit) throws InterruptedException {
+        CompletableFuture<Void> stopped = getInstance().lifecycle.stoppedSignal();
+        if (!isRunning())
+            return true;
+        try {
+            stopped.get(timeout, unit);
+            return true;
+        } catch (TimeoutException ex) {
+            return false;
+        } catch (ExecutionException ex) {
+            throw new TrydentException("Unexpected failure while waiting for the engine to stop.", ex);
         }
     }
 
+    /**
+     * Returns a future that completes once the engine has been started. If
+     * the engine is running, or has stopped and not been started again, the
+     * future is already complete; otherwise it completes on the next call to
+     * {@link #start()}.
+     *
+     * @return future for the engine starting
+     */
+    public static CompletableFuture<Void> whenStarted() {
+        return getInstance().lifecycle.started();
+    }
+
+    /**
+     * Returns a future that completes once the engine has finished its first
+     * frame, i.e. once every ContinuousEvent added before starting has run its
+     * onStart() and first onUpdate().
+     *
+     * @return future for the first frame of the current (or next) run
+     */
+    public static CompletableFuture<Void> whenFirstFrame() {
+        return getInstance().lifecycle.firstFrame();
+    }
+
+    /**
+     * Returns a future that completes once the engine has completely stopped.
+     * This can be used to chain actions on shutdown, e.g.
+     * {@code TrydentEngine.whenStopped().thenRun(...)}. Actions chained with
+     * the non-async methods run on the engine's thread.
+     * <p>
+     * If the engine has stopped and not been started again, the future is
+     * already complete; otherwise it completes when the current (or next) run
+     * stops.
+     *
+     * @return future for the engine stopping
+     */
+    public static CompletableFuture<Void> whenStopped() {
+        return getInstance().lifecycle.stopped();
+    }
+
     /**
      * Returns true if the TrydentEngine has been started, and hasn't been
      * stopped.
@@ -0,0 +1,63 @@
+package edu.gatech.cs2340.trydent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the supertypes of classes, used to index features by every type
+ * they can be looked up by.
+ */
+final class TypeHierarchy {
+
+    private static final ConcurrentHashMap<Class<?>, Class<?>[]> SUPERTYPES = new ConcurrentHashMap<>();
+
+    private TypeHierarchy() {
+    }
+
+    /**
+     * Returns the given class followed by all its superclasses and all the
+     * interfaces it implements, directly or indirectly. The returned array is
+     * shared and must not be modified.
+     *
+     * @param type
+     *            the class to look up
+     * @return every type instances of the class are assignable to
+     */
+    static Class<?>[] supertypesOf(Class<?> type) {
+        Class<?>[] supertypes = SUPERTYPES.get(type);
+        if (supertypes == null) {
+            supertypes = collect(type);
+            Class<?>[] previous = SUPERTYPES.putIfAbsent(type, supertypes);
+            if (previous != null)
+                supertypes = previous;
+        }
+        return supertypes;
+    }
+
+    private static Class<?>[] collect(Class<?> type) {
+        Set<Class<?>> found = new LinkedHashSet<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            found.add(c);
+        }
+        // Interfaces come after all classes, breadth first.
+        List<Class<?>> pending = new ArrayList<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Class<?> i : c.getInterfaces()) {
+                pending.add(i);
+            }
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            Class<?> iface = pending.get(i);
+            if (found.add(iface)) {
+                for (Class<?> parent : iface.getInterfaces()) {
+                    pending.add(parent);
+                }
+            }
+        }
+        return found.toArray(new Class<?>[found.size()]);
+    }
+
+}
@@ -0,0 +1,51 @@
+package edu.gatech.cs2340.trydent;
+
+/**
+ * The phases of a frame, in the order the engine runs them. Every
+ * ContinuousEvent runs in exactly one phase; within a phase, events run in
+ * order of their priority.
+ *
+ * @see ContinuousEvent#ContinuousEvent(UpdatePhase, int)
+ */
+public enum UpdatePhase {
+
+    /**
+     * Runs before input is read for the frame.
+     */
+    PRE_INPUT,
+
+    /**
+     * Latches the keyboard and mouse state for the frame. Events in later
+     * phases see the keys pressed and released since the previous frame.
+     */
+    INPUT,
+
+    /**
+     * The default phase, for regular game logic.
+     */
+    UPDATE,
+
+    /**
+     * Steps physics simulations, after game logic has set velocities and
+     * applied forces.
+     */
+    PHYSICS,
+
+    /**
+     * Runs after all regular game logic, e.g. for cameras that follow objects
+     * moved during {@link #UPDATE}.
+     */
+    LATE_UPDATE,
+
+    /**
+     * Applies animations to GameObjects.
+     */
+    ANIMATION,
+
+    /**
+     * Runs last, after GameObjects have reached their final positions for the
+     * frame, e.g. to sync rendering state.
+     */
+    POST_ANIMATION;
+
+}
@@ -29,6 +29,33 @@ public interface Animation {
      */
     Orientation sample(double time);
 
+    /**
+     * Samples this animation into an existing pose. Animations that can do so
+     * without allocating should override this; the default copies the result
+     * of {@link #sample(double)}.
+     *
+     * @param time
+     *            between 0 and duration
+     * @param result
+     *            the pose to store the sample in
+     * @return the result pose
+     */
+    default Pose sample(double time, Pose result) {
+        return result.set(sample(time));
+    }
+
+    /**
+     * Returns true if {@link #sample(double, Pose)} may be called from several
+     * threads at once, which lets the engine sample many playing animations
+     * in parallel. The wrap modes are never changed while that happens. By
+     * default animations are not thread-safe.
+     *
+     * @return whether this animation can be sampled concurrently
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
     /**
      * Sets the strategy used to handle keyframe index values that are outside
      * of the range 0 ... # frames.
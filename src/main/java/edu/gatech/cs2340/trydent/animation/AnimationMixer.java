@@ -0,0 +1,362 @@
+package edu.gatech.cs2340.trydent.animation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.gatech.cs2340.trydent.TrydentException;
+import edu.gatech.cs2340.trydent.math.MathTools;
+import edu.gatech.cs2340.trydent.math.Orientation;
+import edu.gatech.cs2340.trydent.math.curve.IndexWrapMode;
+import edu.gatech.cs2340.trydent.math.curve.TimeWrapMode;
+
+/**
+ * An animation that blends several other animations (clips) together.
+ * <p>
+ * Every clip plays on its own layer with a weight. Blended layers are
+ * averaged by their weights, and additive layers then add how far their clip
+ * has moved since its first frame on top, e.g. a recoil over a walk cycle.
+ * Weights can fade over time, which gives smooth transitions between clips:
+ *
+ * <pre>
+ * AnimationMixer mixer = new AnimationMixer();
+ * mixer.play(idle);
+ * player.playAnimation(mixer);
+ * // later:
+ * mixer.crossFade(run, 0.25);
+ * </pre>
+ *
+ * A mixer plays until it is stopped, and its clips play from the moment they
+ * are added, wrapping around according to their own time wrap modes. Times
+ * are those of the object playing the mixer, so fades pause with the
+ * object's animation. Each object needs its own mixer; to share the work of
+ * sampling the same clips, wrap them in a {@link PoseCache}.
+ */
+public class AnimationMixer implements Animation {
+
+    private final List<Layer> layers = new ArrayList<>();
+    // Time of the last sample, which is when new layers and fades start.
+    private double time;
+
+    /**
+     * Creates an empty mixer, which holds the identity pose until clips are
+     * added.
+     */
+    public AnimationMixer() {
+    }
+
+    /**
+     * Plays the given clip by itself, immediately replacing all blended clips.
+     * Additive clips keep playing.
+     *
+     * @param clip
+     *            the clip to play
+     */
+    public void play(Animation clip) {
+        crossFade(clip, 0);
+    }
+
+    /**
+     * Fades the given clip in over the given time, while fading all other
+     * blended clips out. Additive clips keep playing. If the clip is already
+     * playing, it keeps its place in time.
+     *
+     * @param clip
+     *            the clip to fade in
+     * @param seconds
+     *            the length of the fade
+     */
+    public void crossFade(Animation clip, double seconds) {
+        for (Layer layer : layers) {
+            if (!layer.additive && layer.clip != clip)
+                layer.fadeTo(0, seconds, time, true);
+        }
+        fadeTo(clip, 1, seconds);
+    }
+
+    /**
+     * Fades the weight of the given clip to a new value over the given time.
+     * Clips that aren't playing yet start as blended clips with a weight of
+     * 0.
+     *
+     * @param clip
+     *            the clip to fade
+     * @param weight
+     *            the weight at the end of the fade, at least 0
+     * @param seconds
+     *            the length of the fade; 0 changes the weight immediately
+     */
+    public void fadeTo(Animation clip, double weight, double seconds) {
+        checkWeight(weight);
+        getOrAddLayer(clip, false).fadeTo(weight, seconds, time, false);
+    }
+
+    /**
+     * Fades the given clip out over the given time, and then stops it.
+     *
+     * @param clip
+     *            the clip to fade out
+     * @param seconds
+     *            the length of the fade
+     */
+    public void fadeOut(Animation clip, double seconds) {
+        Layer layer = findLayer(clip);
+        if (layer != null)
+            layer.fadeTo(0, seconds, time, true);
+    }
+
+    /**
+     * Sets the weight of the given clip immediately, starting it as a blended
+     * clip if it isn't playing yet.
+     *
+     * @param clip
+     *            the clip
+     * @param weight
+     *            the new weight, at least 0
+     */
+    public void setWeight(Animation clip, double weight) {
+        fadeTo(clip, weight, 0);
+    }
+
+    /**
+     * Plays the given clip additively: its change since its first frame is
+     * added, scaled by the weight, on top of the blended clips. If the clip is
+     * already playing additively, only its weight changes.
+     *
+     * @param clip
+     *            the clip to add
+     * @param weight
+     *            how much of the clip's motion to add, at least 0
+     */
+    public void addAdditive(Animation clip, double weight) {
+        checkWeight(weight);
+        Layer layer = findLayer(clip);
+        if (layer != null && !layer.additive) {
+            layers.remove(layer);
+            layer = null;
+        }
+        if (layer == null)
+            layer = getOrAddLayer(clip, true);
+        layer.fadeTo(weight, 0, time, false);
+    }
+
+    /**
+     * Stops the given clip immediately.
+     *
+     * @param clip
+     *            the clip to stop
+     */
+    public void stop(Animation clip) {
+        Layer layer = findLayer(clip);
+        if (layer != null)
+            layers.remove(layer);
+    }
+
+    /**
+     * Stops all clips immediately.
+     */
+    public void stopAll() {
+        layers.clear();
+    }
+
+    /**
+     * Returns whether the given clip is playing in this mixer, including
+     * clips that are fading out.
+     *
+     * @param clip
+     *            the clip
+     * @return true if the clip is playing
+     */
+    public boolean isPlaying(Animation clip) {
+        return findLayer(clip) != null;
+    }
+
+    /**
+     * Returns the weight the given clip had at the last sample, or 0 if it
+     * isn't playing.
+     *
+     * @param clip
+     *            the clip
+     * @return the current weight
+     */
+    public double getWeight(Animation clip) {
+        Layer layer = findLayer(clip);
+        return layer == null ? 0 : layer.weightAt(time);
+    }
+
+    /**
+     * Returns the number of clips playing in this mixer.
+     *
+     * @return the number of clips
+     */
+    public int getClipCount() {
+        return layers.size();
+    }
+
+    /**
+     * Returns positive infinity: a mixer plays until it is stopped.
+     */
+    @Override
+    public double getDuration() {
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public Orientation sample(double time) {
+        return sample(time, new Pose()).toOrientation();
+    }
+
+    @Override
+    public Pose sample(double time, Pose result) {
+        if (time < this.time) {
+            // The object restarted the mixer; keep the layers where they were.
+            double shift = time - this.time;
+            for (Layer layer : layers) {
+                layer.startTime += shift;
+                layer.fadeStart += shift;
+            }
+        }
+        this.time = time;
+
+        // Blend by keeping a running weighted average, which interpolates
+        // rotations the short way around like MathTools.degreeLerp.
+        result.set(0, 0, 0, 1, 1);
+        double totalWeight = 0;
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            double weight = layer.weightAt(time);
+            if (weight <= 0 && layer.stopWhenFaded && time >= layer.fadeStart + layer.fadeDuration) {
+                layers.remove(i--);
+                continue;
+            }
+            if (layer.additive || weight <= 0)
+                continue;
+            Pose sample = layer.clip.sample(time - layer.startTime, layer.pose);
+            totalWeight += weight;
+            double t = weight / totalWeight;
+            result.set(lerp(result.getX(), sample.getX(), t), lerp(result.getY(), sample.getY(), t),
+                    totalWeight == weight ? sample.getRotation()
+                            : MathTools.degreeLerp(result.getRotation(), sample.getRotation(), t),
+                    lerp(result.getScaleX(), sample.getScaleX(), t), lerp(result.getScaleY(), sample.getScaleY(), t));
+        }
+
+        for (int i = 0; i < layers.size(); i++) {
+            Layer layer = layers.get(i);
+            double weight = layer.weightAt(time);
+            if (!layer.additive || weight <= 0)
+                continue;
+            Pose sample = layer.clip.sample(time - layer.startTime, layer.pose);
+            Pose reference = layer.reference;
+            double rotation = MathTools.wrapAngle(sample.getRotation() - reference.getRotation());
+            if (rotation > 180)
+                rotation -= 360;
+            result.set(result.getX() + weight * (sample.getX() - reference.getX()),
+                    result.getY() + weight * (sample.getY() - reference.getY()),
+                    result.getRotation() + weight * rotation,
+                    result.getScaleX() * lerp(1, ratio(sample.getScaleX(), reference.getScaleX()), weight),
+                    result.getScaleY() * lerp(1, ratio(sample.getScaleY(), reference.getScaleY()), weight));
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if all clips are thread-safe. The mixer itself changes as
+     * it is sampled, so it must only be played by one object.
+     */
+    @Override
+    public boolean isThreadSafe() {
+        for (Layer layer : layers) {
+            if (!layer.clip.isThreadSafe())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Does nothing: the clips keep their own wrap modes.
+     */
+    @Override
+    public void setIndexWrap(IndexWrapMode mode) {
+    }
+
+    /**
+     * Does nothing: the clips keep their own wrap modes.
+     */
+    @Override
+    public void setTimeWrap(TimeWrapMode mode) {
+    }
+
+    private Layer findLayer(Animation clip) {
+        for (Layer layer : layers) {
+            if (layer.clip == clip)
+                return layer;
+        }
+        return null;
+    }
+
+    private Layer getOrAddLayer(Animation clip, boolean additive) {
+        if (clip == null)
+            throw new TrydentException("Cannot play a null animation in a mixer.");
+        Layer layer = findLayer(clip);
+        if (layer == null) {
+            layer = new Layer(clip, additive, time);
+            layers.add(layer);
+        }
+        return layer;
+    }
+
+    private static void checkWeight(double weight) {
+        if (!(weight >= 0))
+            throw new TrydentException("Animation weights must be at least 0 (got " + weight + ").");
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return (1.0 - t) * a + t * b;
+    }
+
+    private static double ratio(double value, double reference) {
+        return reference == 0 ? 1 : value / reference;
+    }
+
+    /**
+     * A clip playing in the mixer, with its weight and fade.
+     */
+    private static final class Layer {
+        final Animation clip;
+        final boolean additive;
+        // Additive clips add their change relative to this pose.
+        final Pose reference;
+        // Each clip samples into its own pose, which keeps its keyframe hint.
+        final Pose pose = new Pose();
+        double startTime;
+
+        double fromWeight;
+        double toWeight;
+        double fadeStart;
+        double fadeDuration;
+        boolean stopWhenFaded;
+
+        Layer(Animation clip, boolean additive, double startTime) {
+            this.clip = clip;
+            this.additive = additive;
+            this.startTime = startTime;
+            this.fadeStart = startTime;
+            this.reference = additive ? clip.sample(0, new Pose()) : null;
+        }
+
+        double weightAt(double time) {
+            double elapsed = time - fadeStart;
+            if (elapsed >= fadeDuration)
+                return toWeight;
+            return lerp(fromWeight, toWeight, Math.max(0, elapsed) / fadeDuration);
+        }
+
+        void fadeTo(double weight, double seconds, double time, boolean stop) {
+            fromWeight = weightAt(time);
+            toWeight = weight;
+            fadeStart = time;
+            fadeDuration = Math.max(0, seconds);
+            stopWhenFaded = stop;
+        }
+    }
+
+}
@@ -16,6 +16,7 @@ public class KeyframeAnimation extends Curve<Orientation> implements Animation {
 
     double duration = 0;
     SplineCurve<Keyframe> frameInterpolator;
+    KeyframeChannels channels;
 
     /**
      * Use the static 'create()' method to create new instances of the
@@ -52,16 +53,47 @@ public class KeyframeAnimation extends Curve<Orientation> implements Animation {
      */
     @Override
     public Orientation sample(double t) {
+        if (channels.canSample())
+            return channels.sample(t / duration, new Pose()).toOrientation();
         return frameInterpolator.sample(t / duration).copy();
     }
 
+    /**
+     * Samples this animation into a pose without allocating, unless a
+     * keyframe uses a custom interpolation.
+     *
+     * @param t
+     *            The time, between 0 and the duration of this animation.
+     * @param result
+     *            the pose to store the sample in
+     * @return the result pose
+     */
+    @Override
+    public Pose sample(double t, Pose result) {
+        if (channels.canSample())
+            return channels.sample(t / duration, result);
+        return result.set(frameInterpolator.sample(t / duration));
+    }
+
+    /**
+     * Returns true unless a keyframe uses a custom interpolation.
+     *
+     * @return whether this animation can be sampled concurrently
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return channels.canSample();
+    }
+
     @Override
     public void setIndexWrap(IndexWrapMode mode) {
         this.frameInterpolator.setIndexWrap(mode);
+        this.channels.setIndexWrap(mode);
     }
 
     @Override
     public void setTimeWrap(TimeWrapMode mode) {
         this.frameInterpolator.setTimeWrap(mode);
+        this.channels.setTimeWrap(mode);
     }
 }
@@ -243,6 +243,7 @@ public class KeyframeAnimationBuilder {
             durations[i] = points[i].duration;
         }
         animation.frameInterpolator = new SplineCurve<>(interpolation, bounds, points, durations);
+        animation.channels = new KeyframeChannels(points, durations, bounds);
 
         return animation;
     }
@@ -0,0 +1,111 @@
+package edu.gatech.cs2340.trydent.animation;
+
+import edu.gatech.cs2340.trydent.math.MathTools;
+import edu.gatech.cs2340.trydent.math.curve.ArbitraryTiming;
+import edu.gatech.cs2340.trydent.math.curve.IndexWrapMode;
+import edu.gatech.cs2340.trydent.math.curve.Interpolation;
+import edu.gatech.cs2340.trydent.math.curve.TimeWrapMode;
+
+/**
+ * The keyframes of a {@link KeyframeAnimation}, stored as one primitive array
+ * per channel, so that they can be sampled without allocating. Gives the same
+ * results as sampling the keyframes through a SplineCurve with a
+ * {@link KeyframeInterpolation}, for frames using the built-in
+ * {@link Interpolation#STRAIGHT} and {@link Interpolation#SMOOTH}
+ * interpolations.
+ */
+class KeyframeChannels {
+
+    private static final byte STRAIGHT = 0;
+    private static final byte SMOOTH = 1;
+    private static final byte OTHER = 2;
+
+    private final int size;
+    private final double[] x;
+    private final double[] y;
+    private final double[] rotation;
+    private final double[] scaleX;
+    private final double[] scaleY;
+    private final byte[] interpolation;
+    private final boolean builtInOnly;
+
+    private final ArbitraryTiming timing;
+    private IndexWrapMode indexWrap;
+    private TimeWrapMode timeWrap = TimeWrapMode.WRAP;
+
+    KeyframeChannels(Keyframe[] frames, double[] durations, IndexWrapMode indexWrap) {
+        size = frames.length;
+        x = new double[size];
+        y = new double[size];
+        rotation = new double[size];
+        scaleX = new double[size];
+        scaleY = new double[size];
+        interpolation = new byte[size];
+        boolean builtIn = true;
+        for (int i = 0; i < size; i++) {
+            Keyframe frame = frames[i];
+            x[i] = frame.getX();
+            y[i] = frame.getY();
+            rotation[i] = frame.getRotation();
+            scaleX[i] = frame.getScaleX();
+            scaleY[i] = frame.getScaleY();
+            if (frame.interpolation == Interpolation.STRAIGHT) {
+                interpolation[i] = STRAIGHT;
+            } else if (frame.interpolation == Interpolation.SMOOTH) {
+                interpolation[i] = SMOOTH;
+            } else {
+                interpolation[i] = OTHER;
+                builtIn = false;
+            }
+        }
+        builtInOnly = builtIn;
+        timing = new ArbitraryTiming(durations);
+        this.indexWrap = indexWrap;
+    }
+
+    void setIndexWrap(IndexWrapMode indexWrap) {
+        this.indexWrap = indexWrap;
+    }
+
+    void setTimeWrap(TimeWrapMode timeWrap) {
+        this.timeWrap = timeWrap;
+    }
+
+    /**
+     * Returns false if some frame uses a custom interpolation, which can only
+     * be sampled through the SplineCurve.
+     */
+    boolean canSample() {
+        return builtInOnly;
+    }
+
+    /**
+     * Samples the channels at a time between 0 and 1, starting the span
+     * lookup at the span last sampled into the result. Safe to call from
+     * several threads at once, as long as the wrap modes don't change.
+     */
+    Pose sample(double t, Pose result) {
+        t = timeWrap.handle(t, 1.0);
+        int span = timing.findSpan(t, result.spanHint);
+        result.spanHint = span;
+        double local = timing.getSpanTime(span, t);
+
+        int p0 = indexWrap.handle(span - 1, size);
+        int p1 = indexWrap.handle(span, size);
+        int p2 = indexWrap.handle(span + 1, size);
+        int p3 = indexWrap.handle(span + 2, size);
+        boolean smooth = interpolation[p1] == SMOOTH;
+        return result.set(channel(x, p0, p1, p2, p3, local, smooth), channel(y, p0, p1, p2, p3, local, smooth),
+                MathTools.degreeLerp(rotation[p1], rotation[p2], local),
+                channel(scaleX, p0, p1, p2, p3, local, smooth), channel(scaleY, p0, p1, p2, p3, local, smooth));
+    }
+
+    private static double channel(double[] values, int p0, int p1, int p2, int p3, double t, boolean smooth) {
+        if (!smooth)
+            return (1.0 - t) * values[p1] + t * values[p2];
+        // Interpolation.SMOOTH: a hermite curve with Catmull-Rom tangents.
+        return MathTools.hermite(values[p1], (values[p2] - values[p0]) * 0.5, values[p2],
+                (values[p3] - values[p1]) * 0.5, t);
+    }
+
+}
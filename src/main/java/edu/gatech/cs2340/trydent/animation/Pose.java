@@ -0,0 +1,148 @@
+package edu.gatech.cs2340.trydent.animation;
+
+import edu.gatech.cs2340.trydent.math.Orientation;
+import edu.gatech.cs2340.trydent.math.Position;
+import edu.gatech.cs2340.trydent.math.Scale;
+
+/**
+ * A mutable position, rotation and scale, stored as plain numbers. This is
+ * the allocation-free counterpart of {@link Orientation} used to sample
+ * animations every frame: see {@link Animation#sample(double, Pose)}.
+ */
+public class Pose {
+
+    private double x;
+    private double y;
+    private double rotation;
+    private double scaleX = 1;
+    private double scaleY = 1;
+    // Keyframe span of the last sample taken into this pose; only a hint for
+    // the next lookup. Every object samples into its own pose, so objects
+    // playing the same clip don't undo each other's hints.
+    int spanHint;
+
+    /**
+     * Creates the identity pose: at (0, 0), not rotated, with a scale of 1.
+     */
+    public Pose() {
+    }
+
+    /**
+     * Sets every channel of this pose.
+     *
+     * @param x
+     *            x-component of the position
+     * @param y
+     *            y-component of the position
+     * @param rotation
+     *            rotation in degrees
+     * @param scaleX
+     *            x scale factor
+     * @param scaleY
+     *            y scale factor
+     * @return this pose, for method chaining
+     */
+    public Pose set(double x, double y, double rotation, double scaleX, double scaleY) {
+        this.x = x;
+        this.y = y;
+        this.rotation = rotation;
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        return this;
+    }
+
+    /**
+     * Copies another pose into this one.
+     *
+     * @param other
+     *            the pose to copy
+     * @return this pose, for method chaining
+     */
+    public Pose set(Pose other) {
+        return set(other.x, other.y, other.rotation, other.scaleX, other.scaleY);
+    }
+
+    /**
+     * Copies an orientation into this pose.
+     *
+     * @param orientation
+     *            the orientation to copy
+     * @return this pose, for method chaining
+     */
+    public Pose set(Orientation orientation) {
+        return set(orientation.getX(), orientation.getY(), orientation.getRotation(), orientation.getScaleX(),
+                orientation.getScaleY());
+    }
+
+    /**
+     * Returns the x-component of the position.
+     *
+     * @return x
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-component of the position.
+     *
+     * @return y
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Returns the rotation.
+     *
+     * @return the rotation in degrees
+     */
+    public double getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Returns the x scale factor.
+     *
+     * @return the x scale
+     */
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    /**
+     * Returns the y scale factor.
+     *
+     * @return the y scale
+     */
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    /**
+     * Returns a new Orientation with the values of this pose.
+     *
+     * @return the orientation
+     */
+    public Orientation toOrientation() {
+        return new Orientation(new Position(x, y), rotation, new Scale(scaleX, scaleY));
+    }
+
+    @Override
+    public String toString() {
+        StringBuffer sb = new StringBuffer(64);
+        sb.append("Pose(");
+        sb.append(x);
+        sb.append(", ");
+        sb.append(y);
+        sb.append(", rotation: ");
+        sb.append(rotation);
+        sb.append(", scale: ");
+        sb.append(scaleX);
+        sb.append(", ");
+        sb.append(scaleY);
+        sb.append(")");
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,153 @@
+package edu.gatech.cs2340.trydent.animation;
+
+import edu.gatech.cs2340.trydent.TrydentException;
+import edu.gatech.cs2340.trydent.math.Orientation;
+import edu.gatech.cs2340.trydent.math.curve.IndexWrapMode;
+import edu.gatech.cs2340.trydent.math.curve.TimeWrapMode;
+
+/**
+ * An animation that remembers recent samples of another animation, so that
+ * objects playing the same clip at the same time only sample it once.
+ * (Advanced functionality).
+ * <p>
+ * Objects that start an animation in the same frame sample it at exactly
+ * the same times, e.g. a crowd of identical characters. Playing one PoseCache
+ * on all of them computes each frame's pose once, and copies it for the
+ * others:
+ *
+ * <pre>
+ * Animation walk = new PoseCache(walkAnimation);
+ * for (GameObject npc : crowd)
+ *     npc.loopAnimation(walk);
+ * </pre>
+ *
+ * Samples are kept in a small table indexed by time, so the samples of each
+ * new frame replace those of older frames. Since an animation always gives
+ * the same pose for the same time, the cache is only cleared when the wrap
+ * modes change through this object; change them here rather than on the
+ * wrapped animation.
+ */
+public class PoseCache implements Animation {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final Animation animation;
+    // Entries are immutable, so threads sampling at once never see half of
+    // an entry; at worst they compute a sample twice.
+    private final Entry[] entries;
+    private final int shift;
+
+    /**
+     * Creates a new cache of samples of the given animation.
+     *
+     * @param animation
+     *            the animation to sample
+     */
+    public PoseCache(Animation animation) {
+        this(animation, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new cache of samples of the given animation, with room for
+     * about the given number of samples at once.
+     *
+     * @param animation
+     *            the animation to sample
+     * @param capacity
+     *            the number of samples to keep; rounded up to a power of two.
+     *            This only needs to be as large as the number of different
+     *            times the animation is sampled at per frame.
+     */
+    public PoseCache(Animation animation, int capacity) {
+        if (animation == null)
+            throw new TrydentException("Cannot cache the samples of a null animation.");
+        if (capacity < 1)
+            throw new TrydentException("The capacity of a PoseCache must be at least 1 (got " + capacity + ").");
+        this.animation = animation;
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.entries = new Entry[size];
+        this.shift = 63 - Integer.numberOfTrailingZeros(size);
+    }
+
+    /**
+     * Returns the animation whose samples are cached.
+     *
+     * @return the wrapped animation
+     */
+    public Animation getAnimation() {
+        return animation;
+    }
+
+    /**
+     * Forgets all cached samples, e.g. after the wrapped animation has
+     * changed.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = null;
+        }
+    }
+
+    @Override
+    public double getDuration() {
+        return animation.getDuration();
+    }
+
+    @Override
+    public Orientation sample(double time) {
+        return sample(time, new Pose()).toOrientation();
+    }
+
+    @Override
+    public Pose sample(double time, Pose result) {
+        int slot = slot(time);
+        Entry entry = entries[slot];
+        if (entry != null && entry.time == time)
+            return result.set(entry.x, entry.y, entry.rotation, entry.scaleX, entry.scaleY);
+        animation.sample(time, result);
+        entries[slot] = new Entry(time, result);
+        return result;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return animation.isThreadSafe();
+    }
+
+    @Override
+    public void setIndexWrap(IndexWrapMode mode) {
+        animation.setIndexWrap(mode);
+        clear();
+    }
+
+    @Override
+    public void setTimeWrap(TimeWrapMode mode) {
+        animation.setTimeWrap(mode);
+        clear();
+    }
+
+    private int slot(double time) {
+        // Times like 0.25 and 0.5 only differ in their top bits, so multiply
+        // them into the top of the product and take the slot from there. The
+        // shift is split in two so that a single slot shifts out every bit.
+        long hash = Double.doubleToLongBits(time) * 0x9E3779B97F4A7C15L;
+        return (int) ((hash >>> 1) >>> shift);
+    }
+
+    private static final class Entry {
+        final double time;
+        final double x, y, rotation, scaleX, scaleY;
+
+        Entry(double time, Pose pose) {
+            this.time = time;
+            this.x = pose.getX();
+            this.y = pose.getY();
+            this.rotation = pose.getRotation();
+            this.scaleX = pose.getScaleX();
+            this.scaleY = pose.getScaleY();
+        }
+    }
+
+}
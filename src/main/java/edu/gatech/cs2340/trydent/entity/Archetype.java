@@ -0,0 +1,375 @@
+package edu.gatech.cs2340.trydent.entity;
+
+import java.util.Arrays;
+
+import edu.gatech.cs2340.trydent.GameObject;
+import edu.gatech.cs2340.trydent.TrydentException;
+
+/**
+ * Struct-of-arrays storage for entities that all have the same numeric
+ * components.
+ * <p>
+ * Each component is a named column of doubles, and each entity is a row.
+ * Rows are always packed at the start of the columns, so iterating over rows
+ * {@code 0} to {@code size() - 1} visits every live entity. Destroying an
+ * entity moves the last row into its place, which means rows are not stable;
+ * entities are identified by ids instead, which never change while the entity
+ * lives. Where the order of the rows matters, {@link #destroyInOrder(int)}
+ * shifts the following rows down instead.
+ * <p>
+ * Entities can optionally be linked to a GameObject. Linked objects get an
+ * {@link EntityHandle} feature, so systems working with GameObjects can find
+ * the entity's data, and {@link #removeDestroyed()} cleans up entities whose
+ * objects have been destroyed.
+ * <p>
+ * Archetypes are not thread-safe.
+ */
+public final class Archetype {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String[] columnNames;
+    private double[][] columns;
+
+    private int size;
+
+    // Row -> id, and id -> row (-1 for unused ids).
+    private int[] idOfRow;
+    private int[] rowOfId;
+    // Incremented every time an id is freed, so stale handles can tell.
+    private int[] generationOfId;
+    private GameObject[] objects;
+
+    // Stack of freed ids, reused before new ones are handed out.
+    private int[] freeIds;
+    private int freeCount;
+    private int nextId;
+
+    /**
+     * Creates a new archetype with the given components.
+     *
+     * @param columnNames
+     *            the names of the components, one column each
+     */
+    public Archetype(String... columnNames) {
+        if (columnNames.length == 0)
+            throw new TrydentException("An archetype needs at least one column.");
+        this.columnNames = columnNames.clone();
+        columns = new double[columnNames.length][INITIAL_CAPACITY];
+        idOfRow = new int[INITIAL_CAPACITY];
+        rowOfId = new int[INITIAL_CAPACITY];
+        generationOfId = new int[INITIAL_CAPACITY];
+        objects = new GameObject[INITIAL_CAPACITY];
+        freeIds = new int[INITIAL_CAPACITY];
+        Arrays.fill(rowOfId, -1);
+    }
+
+    /**
+     * Returns the index of the column with the given name. Look columns up
+     * once, not in inner loops.
+     *
+     * @param name
+     *            the name of the component
+     * @return the column index
+     */
+    public int getColumnIndex(String name) {
+        for (int i = 0; i < columnNames.length; i++) {
+            if (columnNames[i].equals(name))
+                return i;
+        }
+        throw new TrydentException("Archetype has no column named " + name + ".");
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the column count
+     */
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Returns the name of the given column.
+     *
+     * @param column
+     *            the column index
+     * @return the component name
+     */
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /**
+     * Returns the array backing the given column, where row {@code r} holds
+     * the value of the entity in that row. Only the first {@link #size()}
+     * elements are meaningful. The array is replaced when the archetype grows,
+     * so fetch it again after creating entities.
+     *
+     * @param column
+     *            the column index
+     * @return the live column array
+     */
+    public double[] getColumn(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Returns the number of live entities, which are stored in rows 0 to
+     * {@code size() - 1}.
+     *
+     * @return the entity count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Creates a new entity with all components set to 0.
+     *
+     * @return the id of the new entity
+     */
+    public int create() {
+        if (size == idOfRow.length)
+            growRows();
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id == rowOfId.length)
+            growIds();
+
+        int row = size++;
+        for (double[] column : columns) {
+            column[row] = 0;
+        }
+        idOfRow[row] = id;
+        rowOfId[id] = row;
+        objects[row] = null;
+        return id;
+    }
+
+    /**
+     * Creates a new entity linked to the given GameObject, and adds an
+     * {@link EntityHandle} feature for it to the object.
+     *
+     * @param object
+     *            the object to link the entity to
+     * @return the id of the new entity
+     */
+    public int create(GameObject object) {
+        int id = create();
+        objects[rowOfId[id]] = object;
+        object.addFeature(new EntityHandle(this, id, generationOfId[id]));
+        return id;
+    }
+
+    /**
+     * Destroys the entity with the given id. The last row is moved into the
+     * freed row. If the entity is linked to a GameObject, its EntityHandle
+     * feature is removed (the object itself is left alone).
+     *
+     * @param id
+     *            the id of a live entity
+     */
+    public void destroy(int id) {
+        int row = unlink(id);
+        int last = --size;
+        if (row != last) {
+            for (double[] column : columns) {
+                column[row] = column[last];
+            }
+            int movedId = idOfRow[last];
+            idOfRow[row] = movedId;
+            rowOfId[movedId] = row;
+            objects[row] = objects[last];
+        }
+        objects[last] = null;
+        freeId(id);
+    }
+
+    /**
+     * Destroys the entity with the given id, keeping the other entities in
+     * the same order: every following row moves up by one. This takes time
+     * proportional to the number of following rows, so prefer
+     * {@link #destroy(int)} when the order doesn't matter.
+     *
+     * @param id
+     *            the id of a live entity
+     */
+    public void destroyInOrder(int id) {
+        int row = unlink(id);
+        int last = --size;
+        if (row != last) {
+            for (double[] column : columns) {
+                System.arraycopy(column, row + 1, column, row, last - row);
+            }
+            System.arraycopy(idOfRow, row + 1, idOfRow, row, last - row);
+            System.arraycopy(objects, row + 1, objects, row, last - row);
+            for (int r = row; r < last; r++) {
+                rowOfId[idOfRow[r]] = r;
+            }
+        }
+        objects[last] = null;
+        freeId(id);
+    }
+
+    /**
+     * Destroys every entity linked to a GameObject that has been destroyed.
+     *
+     * @return the number of entities destroyed
+     */
+    public int removeDestroyed() {
+        int removed = 0;
+        // Backwards, so the rows moved by destroy() have been checked already.
+        for (int row = size - 1; row >= 0; row--) {
+            GameObject object = objects[row];
+            if (object != null && object.isDestroyed()) {
+                destroy(idOfRow[row]);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns true if the id belongs to a live entity.
+     *
+     * @param id
+     *            an entity id
+     * @return whether the entity exists
+     */
+    public boolean isAlive(int id) {
+        return id >= 0 && id < rowOfId.length && rowOfId[id] >= 0;
+    }
+
+    /**
+     * Returns the row currently holding the entity with the given id. Rows
+     * change when other entities are destroyed.
+     *
+     * @param id
+     *            the id of a live entity
+     * @return the entity's row
+     */
+    public int getRow(int id) {
+        if (!isAlive(id))
+            throw new TrydentException("No live entity with id " + id + " in this archetype.");
+        return rowOfId[id];
+    }
+
+    /**
+     * Returns the id of the entity in the given row.
+     *
+     * @param row
+     *            a row between 0 and {@code size() - 1}
+     * @return the entity id
+     */
+    public int getId(int row) {
+        checkRow(row);
+        return idOfRow[row];
+    }
+
+    /**
+     * Returns the GameObject linked to the entity in the given row.
+     *
+     * @param row
+     *            a row between 0 and {@code size() - 1}
+     * @return the linked object, or null if there is none
+     */
+    public GameObject getGameObject(int row) {
+        checkRow(row);
+        return objects[row];
+    }
+
+    /**
+     * Returns a component of an entity.
+     *
+     * @param id
+     *            the id of a live entity
+     * @param column
+     *            the column index
+     * @return the component value
+     */
+    public double get(int id, int column) {
+        return columns[column][getRow(id)];
+    }
+
+    /**
+     * Sets a component of an entity.
+     *
+     * @param id
+     *            the id of a live entity
+     * @param column
+     *            the column index
+     * @param value
+     *            the new value
+     */
+    public void set(int id, int column, double value) {
+        columns[column][getRow(id)] = value;
+    }
+
+    /**
+     * Copies two columns into the local positions of the linked GameObjects,
+     * e.g. after a system has moved the entities.
+     *
+     * @param xColumn
+     *            the column holding x positions
+     * @param yColumn
+     *            the column holding y positions
+     */
+    public void applyLocalPositions(int xColumn, int yColumn) {
+        double[] x = columns[xColumn];
+        double[] y = columns[yColumn];
+        for (int row = 0; row < size; row++) {
+            GameObject object = objects[row];
+            if (object != null && !object.isDestroyed())
+                object.setLocalPosition(x[row], y[row]);
+        }
+    }
+
+    int getGeneration(int id) {
+        return generationOfId[id];
+    }
+
+    // Removes the EntityHandle of a linked object, and returns the row.
+    private int unlink(int id) {
+        int row = getRow(id);
+        GameObject object = objects[row];
+        if (object != null) {
+            for (EntityHandle handle : object.getFeatures(EntityHandle.class)) {
+                if (handle.getArchetype() == this && handle.getId() == id) {
+                    object.removeFeature(handle);
+                    break;
+                }
+            }
+        }
+        return row;
+    }
+
+    private void freeId(int id) {
+        rowOfId[id] = -1;
+        generationOfId[id]++;
+        if (freeCount == freeIds.length)
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        freeIds[freeCount++] = id;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size)
+            throw new TrydentException("Row " + row + " is out of range (size " + size + ").");
+    }
+
+    private void growRows() {
+        int capacity = idOfRow.length * 2;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Arrays.copyOf(columns[i], capacity);
+        }
+        idOfRow = Arrays.copyOf(idOfRow, capacity);
+        objects = Arrays.copyOf(objects, capacity);
+    }
+
+    private void growIds() {
+        int oldCapacity = rowOfId.length;
+        rowOfId = Arrays.copyOf(rowOfId, oldCapacity * 2);
+        Arrays.fill(rowOfId, oldCapacity, rowOfId.length, -1);
+        generationOfId = Arrays.copyOf(generationOfId, oldCapacity * 2);
+    }
+
+}
@@ -0,0 +1,86 @@
+package edu.gatech.cs2340.trydent.entity;
+
+import edu.gatech.cs2340.trydent.TrydentException;
+
+/**
+ * GameObject feature pointing at the entity data of the object in an
+ * {@link Archetype}. Added by {@link Archetype#create(edu.gatech.cs2340.trydent.GameObject)}.
+ * <p>
+ * Handles stay safe to use after their entity is destroyed: they report
+ * {@link #isAlive()} as false, even if the archetype has reused the id.
+ */
+public final class EntityHandle {
+
+    private final Archetype archetype;
+    private final int id;
+    private final int generation;
+
+    EntityHandle(Archetype archetype, int id, int generation) {
+        this.archetype = archetype;
+        this.id = id;
+        this.generation = generation;
+    }
+
+    /**
+     * Returns the archetype storing the entity.
+     *
+     * @return the archetype
+     */
+    public Archetype getArchetype() {
+        return archetype;
+    }
+
+    /**
+     * Returns the id of the entity in its archetype.
+     *
+     * @return the entity id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns true if the entity still exists.
+     *
+     * @return whether the entity is alive
+     */
+    public boolean isAlive() {
+        return archetype.isAlive(id) && archetype.getGeneration(id) == generation;
+    }
+
+    /**
+     * Returns a component of the entity.
+     *
+     * @param column
+     *            the column index
+     * @return the component value
+     */
+    public double get(int column) {
+        checkAlive();
+        return archetype.get(id, column);
+    }
+
+    /**
+     * Sets a component of the entity.
+     *
+     * @param column
+     *            the column index
+     * @param value
+     *            the new value
+     */
+    public void set(int column, double value) {
+        checkAlive();
+        archetype.set(id, column, value);
+    }
+
+    private void checkAlive() {
+        if (!isAlive())
+            throw new TrydentException("The entity of " + this + " has been destroyed.");
+    }
+
+    @Override
+    public String toString() {
+        return "EntityHandle[" + id + "]";
+    }
+
+}
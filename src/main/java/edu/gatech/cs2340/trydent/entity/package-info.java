@@ -0,0 +1,17 @@
+/**
+ * Optional data-oriented storage for large numbers of simple entities, such
+ * as particles and bullets, whose components are plain numbers.
+ * <p>
+ * An {@link edu.gatech.cs2340.trydent.entity.Archetype} stores one
+ * {@code double[]} column per component, so systems can update all entities
+ * with tight loops over arrays:
+ * <pre>
+ * Archetype bullets = new Archetype("x", "y", "vx", "vy");
+ * ...
+ * double[] x = bullets.getColumn(0), vx = bullets.getColumn(2);
+ * for (int row = 0; row &lt; bullets.size(); row++) {
+ *     x[row] += vx[row] * Time.getTimePassed();
+ * }
+ * </pre>
+ */
+package edu.gatech.cs2340.trydent.entity;
@@ -0,0 +1,200 @@
+package edu.gatech.cs2340.trydent.internal;
+
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.paint.Color;
+
+import edu.gatech.cs2340.trydent.log.Log;
+
+/**
+ * Engine backend that runs without a window and without the JavaFX toolkit.
+ * <p>
+ * GameObjects are still attached to a (never displayed) scene graph, so game
+ * logic behaves the same as with a window. Frames are driven either by a
+ * background thread started with {@link #startJavaFX()}, or manually by
+ * calling {@link #step(int)} after {@link #startManual()}.
+ */
+public class HeadlessManager implements JavaFXManager {
+
+    private volatile boolean running = false;
+    private volatile Thread loopThread;
+
+    // Minimum real time between frames in nanoseconds; 0 runs as fast as
+    // possible.
+    private volatile long framePeriod = 0;
+
+    private Runnable updateAction;
+    private Runnable stopAction;
+
+    private Group background;
+    private Node foreground;
+
+    @Override
+    public void startJavaFX() {
+        if (!begin())
+            return;
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, "Trydent-Headless");
+        thread.setDaemon(true);
+        loopThread = thread;
+        thread.start();
+    }
+
+    /**
+     * Starts the engine without a loop thread. Frames only run when
+     * {@link #step(int)} is called.
+     */
+    public void startManual() {
+        begin();
+    }
+
+    private synchronized boolean begin() {
+        if (running) {
+            Log.warn("TrydentEngine is already running.");
+            return false;
+        }
+        background = new Group();
+        foreground = null;
+        running = true;
+        return true;
+    }
+
+    private void loop() {
+        Thread self = Thread.currentThread();
+        long next = System.nanoTime();
+        // A quick stop-start can leave this thread finishing its last frame
+        // after a new loop thread has taken over, so check which one we are.
+        while (running && loopThread == self) {
+            if (updateAction != null)
+                updateAction.run();
+
+            long period = framePeriod;
+            if (period > 0) {
+                next += period;
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                } else {
+                    // Running behind; don't try to make up for lost frames.
+                    next = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of frames on the calling thread. Stops early if
+     * the engine quits in the meantime.
+     *
+     * @param frames
+     *            number of frames to run
+     * @return the number of frames actually run
+     */
+    public int step(int frames) {
+        if (loopThread != null)
+            throw new TrydentInternalException("Cannot step manually while the headless loop thread is running.");
+        int count = 0;
+        while (count < frames && running) {
+            if (updateAction != null)
+                updateAction.run();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Sets the frame rate of the loop thread.
+     *
+     * @param framesPerSecond
+     *            target frames per second, or 0 to run as fast as possible
+     */
+    public void setFrameRate(double framesPerSecond) {
+        if (framesPerSecond < 0)
+            throw new TrydentInternalException("Frame rate cannot be negative.");
+        framePeriod = framesPerSecond == 0 ? 0 : (long) (1e9 / framesPerSecond);
+    }
+
+    /**
+     * Returns the time between frames set by {@link #setFrameRate(double)}.
+     *
+     * @return the frame period in nanoseconds, or 0 if there is no frame rate
+     */
+    public long getFramePeriod() {
+        return framePeriod;
+    }
+
+    @Override
+    public void stopJavaFX() {
+        if (!running) {
+            Log.warn("Stop called before the headless engine started.");
+            return;
+        }
+        running = false;
+        loopThread = null;
+        if (stopAction != null)
+            stopAction.run();
+    }
+
+    @Override
+    public void setUpdateAction(Runnable updateAction) {
+        this.updateAction = updateAction;
+    }
+
+    @Override
+    public void setStopAction(Runnable stopAction) {
+        this.stopAction = stopAction;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void setWindowTitle(String title) {
+        // No window.
+    }
+
+    @Override
+    public void setWindowSize(int width, int height) {
+        // No window.
+    }
+
+    @Override
+    public void setFullscreen(boolean fullscreen) {
+        // No window.
+    }
+
+    @Override
+    public Group getBackground() {
+        return background;
+    }
+
+    @Override
+    public void setBackgroundColor(Color color) {
+        // Nothing is drawn.
+    }
+
+    @Override
+    public Scene getScene() {
+        return null;
+    }
+
+    @Override
+    public Node setForeground(Node foreground) {
+        Node previous = this.foreground;
+        this.foreground = foreground;
+        return previous;
+    }
+
+}
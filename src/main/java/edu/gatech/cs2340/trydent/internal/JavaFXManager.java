@@ -18,6 +18,12 @@ public interface JavaFXManager {
 
     void setUpdateAction(Runnable updateAction);
 
+    /**
+     * Sets the action to run once the backend has completely stopped, after
+     * {@link #isRunning()} has started returning false.
+     */
+    void setStopAction(Runnable stopAction);
+
     boolean isRunning();
 
     void setWindowTitle(String title);
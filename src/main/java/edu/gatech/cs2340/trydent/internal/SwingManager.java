@@ -21,6 +21,7 @@ import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
 
 import edu.gatech.cs2340.trydent.ContinuousEvent;
+import edu.gatech.cs2340.trydent.UpdatePhase;
 import edu.gatech.cs2340.trydent.log.Log;
 
 public class SwingManager implements JavaFXManager {
@@ -33,6 +34,7 @@ public class SwingManager implements JavaFXManager {
     private int width = 640, height = 480;
     private Color backgroundColor = Color.TRANSPARENT;
     private Runnable updateAction;
+    private Runnable stopAction;
 
     private Scene scene;
     private StackPane root;
@@ -114,7 +116,9 @@ public class SwingManager implements JavaFXManager {
         root.addEventHandler(MouseEvent.MOUSE_MOVED, event -> MouseImpl.moved(event));
         root.addEventHandler(MouseEvent.MOUSE_DRAGGED, event -> MouseImpl.dragged(event));
 
-        new ContinuousEvent() {
+        // Latch input before any game logic runs, so objects react to input
+        // in the same frame.
+        new ContinuousEvent(UpdatePhase.INPUT) {
             @Override
             public void onUpdate() {
                 MouseImpl.newFrame();
@@ -141,6 +145,8 @@ public class SwingManager implements JavaFXManager {
                             timeline.stop();
                             frame = null;
                             stopping = false;
+                            if (stopAction != null)
+                                stopAction.run();
                         }
                     });
                 }
@@ -155,6 +161,11 @@ public class SwingManager implements JavaFXManager {
         this.updateAction = updateAction;
     }
 
+    @Override
+    public void setStopAction(Runnable stopAction) {
+        this.stopAction = stopAction;
+    }
+
     @Override
     public boolean isRunning() {
         return frame != null;
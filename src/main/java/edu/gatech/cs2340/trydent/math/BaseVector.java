@@ -173,6 +173,37 @@ public abstract class BaseVector<T extends BaseVector<T>> {
         return (T) this;
     }
 
+    /**
+     * Sets the x and y components of this vector. Unlike
+     * {@link #set(double...)}, this does not allocate an array.
+     *
+     * @param x
+     *            the new value of x
+     * @param y
+     *            the new value of y
+     * @return the reference to this vector for method chaining convenience
+     */
+    @SuppressWarnings("unchecked")
+    public T set(double x, double y) {
+        if (values.length < 2)
+            return set(new double[] { x, y });
+        values[0] = x;
+        values[1] = y;
+        return (T) this;
+    }
+
+    /**
+     * Sets the components of this vector to the components of a
+     * {@link Vec2}.
+     *
+     * @param vector
+     *            the 2D vector
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T set(Vec2<?> vector) {
+        return set(vector.getX(), vector.getY());
+    }
+
     /**
      * Sets the components of this vector to the components of the other vector.
      *
@@ -206,6 +237,25 @@ public abstract class BaseVector<T extends BaseVector<T>> {
         return (T) this;
     }
 
+    /**
+     * Adds the given x and y values to this 2D vector, without allocating an
+     * array.
+     *
+     * @param x
+     *            - value to add to x
+     * @param y
+     *            - value to add to y
+     * @return the reference to this vector for method chaining convenience
+     */
+    @SuppressWarnings("unchecked")
+    public T add(double x, double y) {
+        if (values.length != 2)
+            return add(new double[] { x, y });
+        values[0] += x;
+        values[1] += y;
+        return (T) this;
+    }
+
     /**
      * Adds the second vector to this vector. I.e.:
      * <p>
@@ -257,6 +307,25 @@ public abstract class BaseVector<T extends BaseVector<T>> {
         return (T) this;
     }
 
+    /**
+     * Subtracts the given x and y values from this 2D vector, without
+     * allocating an array.
+     *
+     * @param x
+     *            - value to subtract from x
+     * @param y
+     *            - value to subtract from y
+     * @return the reference to this vector for method chaining convenience
+     */
+    @SuppressWarnings("unchecked")
+    public T subtract(double x, double y) {
+        if (values.length != 2)
+            return subtract(new double[] { x, y });
+        values[0] -= x;
+        values[1] -= y;
+        return (T) this;
+    }
+
     /**
      * Subtracts the second vector from this vector. I.e.:
      * <p>
@@ -320,6 +389,39 @@ public abstract class BaseVector<T extends BaseVector<T>> {
         return (T) this;
     }
 
+    /**
+     * Scales all components of this vector by the same amount, without
+     * allocating an array.
+     *
+     * @param scale
+     *            the value to multiply every component by
+     * @return the reference to this vector for method chaining convenience
+     */
+    @SuppressWarnings("unchecked")
+    public T scale(double scale) {
+        for (int i = 0; i < values.length; i++)
+            values[i] *= scale;
+        return (T) this;
+    }
+
+    /**
+     * Scales x and y by the given amounts, without allocating an array.
+     *
+     * @param scaleX
+     *            the value to multiply x by
+     * @param scaleY
+     *            the value to multiply y by
+     * @return the reference to this vector for method chaining convenience
+     */
+    @SuppressWarnings("unchecked")
+    public T scale(double scaleX, double scaleY) {
+        if (values.length < 2)
+            return scale(new double[] { scaleX, scaleY });
+        values[0] *= scaleX;
+        values[1] *= scaleY;
+        return (T) this;
+    }
+
     /**
      * Scales the components of this vector by the components of the other
      * vector. I.e.,
@@ -435,7 +537,7 @@ public abstract class BaseVector<T extends BaseVector<T>> {
      * @return the reference to this vector for method chaining convenience
      */
     public T projectToAxis(BaseVector<?> otherAxis) {
-        return set(otherAxis.copy().normalize().scale(dot(otherAxis)));
+        return set(scratchCopy(otherAxis).normalize().scale(dot(otherAxis)));
     }
 
     /**
@@ -448,7 +550,7 @@ public abstract class BaseVector<T extends BaseVector<T>> {
      * @return the reference to this vector for method chaining convenience
      */
     public T projectOffAxis(BaseVector<?> otherAxis) {
-        return subtract(otherAxis.copy().normalize().scale(dot(otherAxis)));
+        return subtract(scratchCopy(otherAxis).normalize().scale(dot(otherAxis)));
     }
 
     /**
@@ -478,6 +580,22 @@ public abstract class BaseVector<T extends BaseVector<T>> {
         return total;
     }
 
+    /**
+     * Returns the dot-product between this 2D vector and (x, y), without
+     * allocating an array.
+     *
+     * @param x
+     *            x-component of the other vector
+     * @param y
+     *            y-component of the other vector
+     * @return the dot-product
+     */
+    public double dot(double x, double y) {
+        if (values.length != 2)
+            return dot(new double[] { x, y });
+        return values[0] * x + values[1] * y;
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
@@ -509,6 +627,16 @@ public abstract class BaseVector<T extends BaseVector<T>> {
         this.stringDelimit = delimit;
     }
 
+    /**
+     * Returns a temporary copy of the vector, from the {@link VectorArena} if
+     * it is 2D.
+     */
+    private static BaseVector<?> scratchCopy(BaseVector<?> vector) {
+        if (vector.values.length != 2)
+            return vector.copy();
+        return VectorArena.current().vector(vector);
+    }
+
     private void checkComponents(double... values) {
         if (values.length != this.values.length)
             throw new VectorMismatchException("Number of components must be " + this.values.length + ", got "
@@ -0,0 +1,272 @@
+package edu.gatech.cs2340.trydent.math;
+
+/**
+ * Vector math over many vectors at once, for particle systems, crowds and
+ * the like. (Advanced functionality).
+ * <p>
+ * Vectors are passed as packed arrays with one array per component (x
+ * values in one array, y values in another), such as the columns of an
+ * {@link edu.gatech.cs2340.trydent.entity.Archetype Archetype}. Every method
+ * works on elements {@code 0} to {@code count - 1}, and output arrays may be
+ * the same as input arrays to work in place.
+ * <p>
+ * The loops are kept straight (no branches, no calls, one independent
+ * element per iteration) so that the JIT compiler can turn them into SIMD
+ * instructions. In practice one call here replaces thousands of
+ * {@link BaseVector} calls and allocates nothing.
+ */
+public final class BatchMath {
+
+    private BatchMath() {
+    }
+
+    /**
+     * Linear interpolation by the same t for every element:
+     * {@code out[i] = (1 - t) * a[i] + t * b[i]}. Call once per component.
+     *
+     * @param a
+     *            values at t=0
+     * @param b
+     *            values at t=1
+     * @param t
+     *            interpolation parameter
+     * @param out
+     *            array to store the results in
+     * @param count
+     *            number of elements
+     */
+    public static void lerp(double[] a, double[] b, double t, double[] out, int count) {
+        checkCount(count, a, b, out);
+        double s = 1.0 - t;
+        for (int i = 0; i < count; i++) {
+            out[i] = s * a[i] + t * b[i];
+        }
+    }
+
+    /**
+     * Linear interpolation with a separate t for every element:
+     * {@code out[i] = (1 - t[i]) * a[i] + t[i] * b[i]}.
+     *
+     * @param a
+     *            values at t=0
+     * @param b
+     *            values at t=1
+     * @param t
+     *            interpolation parameters
+     * @param out
+     *            array to store the results in
+     * @param count
+     *            number of elements
+     */
+    public static void lerp(double[] a, double[] b, double[] t, double[] out, int count) {
+        checkCount(count, a, b, out);
+        checkCount(count, t);
+        for (int i = 0; i < count; i++) {
+            out[i] = a[i] + t[i] * (b[i] - a[i]);
+        }
+    }
+
+    /**
+     * Hermite interpolation by the same t for every element. See
+     * {@link MathTools#hermite(double, double, double, double, double)}. Call
+     * once per component.
+     *
+     * @param p0
+     *            first points
+     * @param t0
+     *            first tangents
+     * @param p1
+     *            second points
+     * @param t1
+     *            second tangents
+     * @param t
+     *            interpolation parameter (P(t=0) = p0, P(t=1) = p1)
+     * @param out
+     *            array to store the results in
+     * @param count
+     *            number of elements
+     */
+    public static void hermite(double[] p0, double[] t0, double[] p1, double[] t1, double t, double[] out,
+            int count) {
+        checkCount(count, p0, t0, p1);
+        checkCount(count, t1, out);
+        double t2 = t * t;
+        double t3 = t2 * t;
+        double h00 = 2 * t3 - 3 * t2 + 1;
+        double h10 = t3 - 2 * t2 + t;
+        double h01 = -2 * t3 + 3 * t2;
+        double h11 = t3 - t2;
+        for (int i = 0; i < count; i++) {
+            out[i] = h00 * p0[i] + h10 * t0[i] + h01 * p1[i] + h11 * t1[i];
+        }
+    }
+
+    /**
+     * Adds scaled values: {@code out[i] = a[i] + scale * b[i]}, e.g. to move
+     * positions by velocity times the time passed.
+     *
+     * @param a
+     *            the values to add to
+     * @param scale
+     *            scalar number
+     * @param b
+     *            the values to scale and add
+     * @param out
+     *            array to store the results in
+     * @param count
+     *            number of elements
+     */
+    public static void addScaled(double[] a, double scale, double[] b, double[] out, int count) {
+        checkCount(count, a, b, out);
+        for (int i = 0; i < count; i++) {
+            out[i] = a[i] + scale * b[i];
+        }
+    }
+
+    /**
+     * Rotates every vector counter-clockwise by the same angle.
+     *
+     * @param x
+     *            x-components
+     * @param y
+     *            y-components
+     * @param angle
+     *            amount to rotate by, in degrees
+     * @param outX
+     *            array to store the rotated x-components in
+     * @param outY
+     *            array to store the rotated y-components in
+     * @param count
+     *            number of vectors
+     */
+    public static void rotate2D(double[] x, double[] y, double angle, double[] outX, double[] outY, int count) {
+        checkCount(count, x, y);
+        checkCount(count, outX, outY);
+        double radians = Math.toRadians(angle);
+        double c = Math.cos(radians);
+        double s = Math.sin(radians);
+        for (int i = 0; i < count; i++) {
+            double vx = x[i];
+            double vy = y[i];
+            outX[i] = c * vx - s * vy;
+            outY[i] = s * vx + c * vy;
+        }
+    }
+
+    /**
+     * Normalizes every vector to unit length. Zero vectors are left alone.
+     *
+     * @param x
+     *            x-components
+     * @param y
+     *            y-components
+     * @param outX
+     *            array to store the normalized x-components in
+     * @param outY
+     *            array to store the normalized y-components in
+     * @param count
+     *            number of vectors
+     */
+    public static void normalize(double[] x, double[] y, double[] outX, double[] outY, int count) {
+        checkCount(count, x, y);
+        checkCount(count, outX, outY);
+        for (int i = 0; i < count; i++) {
+            double vx = x[i];
+            double vy = y[i];
+            double m2 = vx * vx + vy * vy;
+            double inverse = m2 == 0 ? 1 : 1 / Math.sqrt(m2);
+            outX[i] = vx * inverse;
+            outY[i] = vy * inverse;
+        }
+    }
+
+    /**
+     * Computes the dot-products of pairs of vectors:
+     * {@code out[i] = ax[i] * bx[i] + ay[i] * by[i]}.
+     *
+     * @param ax
+     *            x-components of the first vectors
+     * @param ay
+     *            y-components of the first vectors
+     * @param bx
+     *            x-components of the second vectors
+     * @param by
+     *            y-components of the second vectors
+     * @param out
+     *            array to store the dot-products in
+     * @param count
+     *            number of vector pairs
+     */
+    public static void dot(double[] ax, double[] ay, double[] bx, double[] by, double[] out, int count) {
+        checkCount(count, ax, ay, bx);
+        checkCount(count, by, out);
+        for (int i = 0; i < count; i++) {
+            out[i] = ax[i] * bx[i] + ay[i] * by[i];
+        }
+    }
+
+    /**
+     * Tests a list of axis-aligned boxes against one box. Boxes that only
+     * touch count as overlapping, like
+     * {@link edu.gatech.cs2340.trydent.math.geom.Rectangle#intersects
+     * Rectangle.intersects}.
+     *
+     * @param minX
+     *            left edges of the boxes
+     * @param minY
+     *            top edges of the boxes
+     * @param maxX
+     *            right edges of the boxes
+     * @param maxY
+     *            bottom edges of the boxes
+     * @param boxMinX
+     *            left edge of the box to test against
+     * @param boxMinY
+     *            top edge of the box to test against
+     * @param boxMaxX
+     *            right edge of the box to test against
+     * @param boxMaxY
+     *            bottom edge of the box to test against
+     * @param out
+     *            array to store whether each box overlaps
+     * @param count
+     *            number of boxes
+     * @return the number of overlapping boxes
+     */
+    public static int overlaps(double[] minX, double[] minY, double[] maxX, double[] maxY, double boxMinX,
+            double boxMinY, double boxMaxX, double boxMaxY, boolean[] out, int count) {
+        checkCount(count, minX, minY, maxX);
+        checkCount(count, maxY);
+        if (out.length < count)
+            throw new VectorMismatchException("Need at least " + count + " elements, got " + out.length);
+        int overlapping = 0;
+        for (int i = 0; i < count; i++) {
+            // Non-short-circuit ands, so there are no branches in the loop.
+            boolean overlap = (minX[i] <= boxMaxX) & (maxX[i] >= boxMinX) & (minY[i] <= boxMaxY)
+                    & (maxY[i] >= boxMinY);
+            out[i] = overlap;
+            overlapping += overlap ? 1 : 0;
+        }
+        return overlapping;
+    }
+
+    // Fixed arities rather than varargs, which would allocate an array on
+    // every call.
+    private static void checkCount(int count, double[] a, double[] b, double[] c) {
+        checkCount(count, a, b);
+        checkCount(count, c);
+    }
+
+    private static void checkCount(int count, double[] a, double[] b) {
+        checkCount(count, a);
+        checkCount(count, b);
+    }
+
+    private static void checkCount(int count, double[] array) {
+        if (count < 0)
+            throw new VectorMismatchException("Count must not be negative, got " + count);
+        if (array.length < count)
+            throw new VectorMismatchException("Need at least " + count + " elements, got " + array.length);
+    }
+
+}
@@ -1,7 +1,5 @@
 package edu.gatech.cs2340.trydent.math;
 
-import java.lang.reflect.Array;
-
 import javafx.scene.transform.Transform;
 import edu.gatech.cs2340.trydent.math.geom.Rectangle;
 
@@ -14,6 +12,14 @@ import edu.gatech.cs2340.trydent.math.geom.Rectangle;
  */
 public class MathTools {
 
+    // Per-thread scratch space for bezier(), grown as needed.
+    private static final ThreadLocal<double[]> BEZIER_SCRATCH = new ThreadLocal<double[]>() {
+        @Override
+        protected double[] initialValue() {
+            return new double[16];
+        }
+    };
+
     // We don't want people instantiating this class.
     private MathTools() {
     }
@@ -67,6 +73,11 @@ public class MathTools {
     /**
      * Performs an (n-1) dimensional Bezier interpolation over n points.
      * (Advanced functionality).
+     * <p>
+     * This uses de Casteljau's algorithm, which takes O(n^2) time. To sample
+     * the same curve many times, use a
+     * {@link edu.gatech.cs2340.trydent.math.curve.BezierCurve BezierCurve},
+     * which takes O(n) per sample.
      *
      * @param t
      *            interpolation parameter - t=0.0 will return the 1st point,
@@ -77,29 +88,43 @@ public class MathTools {
      *            type of point
      * @return the interpolated point
      */
+    @SafeVarargs
     @SuppressWarnings("unchecked")
     public static <T extends BaseVector<?>> T bezier(double t, T... points) {
         if (points.length == 0)
             throw new IllegalArgumentException("Must input at least one point!");
 
-        if (points.length == 1)
-            return (T) points[0].copy();
-
-        // Strictly speaking this base case could be omitted without loss of
-        // functionality,
-        // but it makes things a bit more efficient.
-        if (points.length == 2)
-            return (T) points[0].copy().lerp(t, points[1]);
+        int components = points[0].getComponentCount();
+        for (T point : points) {
+            if (point.getComponentCount() != components)
+                throw new VectorMismatchException("Number of components must be " + components + ", got "
+                        + point.getComponentCount());
+        }
 
-        T[] left = (T[]) Array.newInstance(points[0].getClass(), points.length - 1);
-        T[] right = (T[]) Array.newInstance(points[0].getClass(), points.length - 1);
+        T result = (T) points[0].copy();
+        if (points.length == 1)
+            return result;
 
-        for (int i = 0; i < points.length - 1; i++) {
-            left[i] = points[i];
-            right[i] = points[i + 1];
+        double[] scratch = BEZIER_SCRATCH.get();
+        if (scratch.length < points.length) {
+            scratch = new double[Math.max(points.length, scratch.length * 2)];
+            BEZIER_SCRATCH.set(scratch);
         }
-
-        return (T) bezier(t, left).lerp(t, bezier(t, right));
+        double s = 1.0 - t;
+        for (int c = 0; c < components; c++) {
+            for (int i = 0; i < points.length; i++) {
+                scratch[i] = points[i].getComponent(c);
+            }
+            // Each pass replaces the first 'n' values by the lerps between
+            // neighbors, until a single value is left.
+            for (int n = points.length - 1; n > 0; n--) {
+                for (int i = 0; i < n; i++) {
+                    scratch[i] = s * scratch[i] + t * scratch[i + 1];
+                }
+            }
+            result.setComponent(c, scratch[0]);
+        }
+        return result;
     }
 
     /**
@@ -214,7 +239,21 @@ public class MathTools {
         // [ 0 0 0 1 ] [ 0 0 0 1 ]
         // yx = scaleX * sin(theta)
         // xx = scaleX * cos(theta)
-        return Math.toDegrees(Math.atan2(matrix.getMyx(), matrix.getMxx()));
+        return getRotation(matrix.getMxx(), matrix.getMyx());
+    }
+
+    /**
+     * Returns the 2D rotation in degrees of the matrix with the given first
+     * column.
+     *
+     * @param mxx
+     *            the xx element of the matrix
+     * @param myx
+     *            the yx element of the matrix
+     * @return the rotation about the Z axis in degrees
+     */
+    public static double getRotation(double mxx, double myx) {
+        return Math.toDegrees(Math.atan2(myx, mxx));
     }
 
     /**
@@ -229,8 +268,21 @@ public class MathTools {
         // [ yx yy yz ty ] [ Sx*s Sy*c ... ty ]
         // [ zx zy zz tz ] [ ... ... ... tz ]
         // [ 0 0 0 1 ] [ 0 0 0 1 ]
-        double theta = Math.toRadians(getRotation(matrix));
-        return matrix.getMxx() / Math.cos(theta);
+        return getScaleX(matrix.getMxx(), matrix.getMyx());
+    }
+
+    /**
+     * Returns the X scale of the matrix with the given first column.
+     *
+     * @param mxx
+     *            the xx element of the matrix
+     * @param myx
+     *            the yx element of the matrix
+     * @return the x scaling of the transformation matrix
+     */
+    public static double getScaleX(double mxx, double myx) {
+        double theta = Math.toRadians(getRotation(mxx, myx));
+        return mxx / Math.cos(theta);
     }
 
     /**
@@ -245,8 +297,23 @@ public class MathTools {
         // [ yx yy yz ty ] [ Sx*s Sy*c ... ty ]
         // [ zx zy zz tz ] [ ... ... ... tz ]
         // [ 0 0 0 1 ] [ 0 0 0 1 ]
-        double theta = Math.toRadians(getRotation(matrix));
-        return matrix.getMyy() / Math.cos(theta);
+        return getScaleY(matrix.getMxx(), matrix.getMyx(), matrix.getMyy());
+    }
+
+    /**
+     * Returns the Y scale of the matrix with the given elements.
+     *
+     * @param mxx
+     *            the xx element of the matrix
+     * @param myx
+     *            the yx element of the matrix
+     * @param myy
+     *            the yy element of the matrix
+     * @return the y-scale of the matrix
+     */
+    public static double getScaleY(double mxx, double myx, double myy) {
+        double theta = Math.toRadians(getRotation(mxx, myx));
+        return myy / Math.cos(theta);
     }
 
     /**
@@ -37,6 +37,24 @@ public class Orientation {
         return position.copy();
     }
 
+    /**
+     * Gets the x-component of the position, without copying it.
+     *
+     * @return x
+     */
+    public double getX() {
+        return position.getX();
+    }
+
+    /**
+     * Gets the y-component of the position, without copying it.
+     *
+     * @return y
+     */
+    public double getY() {
+        return position.getY();
+    }
+
     /**
      * Gets the rotation.
      *
@@ -55,6 +73,24 @@ public class Orientation {
         return scale.copy();
     }
 
+    /**
+     * Gets the x scale factor, without copying the scale.
+     *
+     * @return the x scale
+     */
+    public double getScaleX() {
+        return scale.getX();
+    }
+
+    /**
+     * Gets the y scale factor, without copying the scale.
+     *
+     * @return the y scale
+     */
+    public double getScaleY() {
+        return scale.getY();
+    }
+
     /**
      * Sets the position.
      *
@@ -98,6 +134,17 @@ public class Orientation {
         setScale(other.scale);
     }
 
+    /**
+     * Overwrites the position and scale objects of this orientation, rather
+     * than replacing them. Only safe on orientations that own their position
+     * and scale, such as those made by {@link VectorArena}.
+     */
+    void setInPlace(double x, double y, double rotation, double scaleX, double scaleY) {
+        position.set(x, y);
+        this.rotation = rotation;
+        scale.set(scaleX, scaleY);
+    }
+
     /**
      * Returns a copy of this Orientation.
      *
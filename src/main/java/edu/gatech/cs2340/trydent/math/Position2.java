@@ -0,0 +1,74 @@
+package edu.gatech.cs2340.trydent.math;
+
+/**
+ * A position in 2D, stored in plain fields. This is the allocation-free
+ * counterpart of {@link Position}; see {@link Vec2}.
+ */
+public class Position2 extends Vec2<Position2> {
+
+    /**
+     * Creates a new 2D position.
+     *
+     * @param x
+     *            x-component of the 2D position
+     * @param y
+     *            y-component of the 2D position
+     */
+    public Position2(double x, double y) {
+        super(x, y);
+    }
+
+    /**
+     * Creates a new 2D position initialized to (0,0).
+     */
+    public Position2() {
+        this(0, 0);
+    }
+
+    /**
+     * Creates a new position from the input vector (which can be a Position,
+     * Vector, etc).
+     *
+     * @param other
+     *            vector to extract the components from
+     */
+    public Position2(BaseVector<?> other) {
+        this(other.getX(), other.getY());
+    }
+
+    /**
+     * Creates a new position from the input vector (which can be another
+     * Position2, a Vector2, etc).
+     *
+     * @param other
+     *            vector to extract the components from
+     */
+    public Position2(Vec2<?> other) {
+        this(other.getX(), other.getY());
+    }
+
+    @Override
+    public Position2 copy() {
+        return new Position2(getX(), getY());
+    }
+
+    public Vector2 toVector() {
+        return new Vector2(getX(), getY());
+    }
+
+    /**
+     * Returns this position as a {@link Position}, for APIs that take
+     * BaseVectors.
+     *
+     * @return a new Position
+     */
+    public Position toPosition() {
+        return new Position(getX(), getY());
+    }
+
+    @Override
+    protected String getBrackets() {
+        return "()";
+    }
+
+}
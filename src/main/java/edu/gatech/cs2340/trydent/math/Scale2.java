@@ -0,0 +1,88 @@
+package edu.gatech.cs2340.trydent.math;
+
+/**
+ * Represents a scaling of a 2D vector, stored in plain fields. This is the
+ * allocation-free counterpart of {@link Scale}; see {@link Vec2}.
+ */
+public class Scale2 extends Vec2<Scale2> {
+
+    /**
+     * Creates a new scaling with the given scales for the x and y components.
+     *
+     * @param scaleX
+     *            - x scale factor (1.0 is no scaling)
+     * @param scaleY
+     *            - y scale factor (1.0 is no scaling)
+     */
+    public Scale2(double scaleX, double scaleY) {
+        super(scaleX, scaleY);
+    }
+
+    /**
+     * Creates a new scaling that scales x and y by the same amount.
+     *
+     * @param scale
+     *            - scale factor (1.0 is no scaling)
+     */
+    public Scale2(double scale) {
+        this(scale, scale);
+    }
+
+    /**
+     * Creates a new scale that defaults to &lt;1.0, 1.0&gt;, (ie no scaling).
+     */
+    public Scale2() {
+        this(1.0);
+    }
+
+    /**
+     * Creates a new scaling from the input vector (which can be a Scale).
+     *
+     * @param other
+     *            other vector to copy the x,y components of
+     */
+    public Scale2(BaseVector<?> other) {
+        this(other.getX(), other.getY());
+    }
+
+    /**
+     * Creates a new scaling from the input vector (which can be another
+     * Scale2).
+     *
+     * @param other
+     *            other vector to copy the x,y components of
+     */
+    public Scale2(Vec2<?> other) {
+        this(other.getX(), other.getY());
+    }
+
+    @Override
+    public Scale2 copy() {
+        return new Scale2(getX(), getY());
+    }
+
+    /**
+     * Returns a copy of the input vector scaled by this scaling. Use
+     * {@code vector.scale(scaling)} to scale in place instead.
+     *
+     * @param <T>
+     *            the type of the vector to scale (inferred from the argument)
+     * @param vector
+     *            vector to scale
+     * @return a copy of the original vector, scaled by this vector
+     */
+    public <T extends Vec2<T>> T applyTo(T vector) {
+        return vector.copy().scale(getX(), getY());
+    }
+
+    /**
+     * Returns this scaling as a {@link Scale}, for APIs that take
+     * BaseVectors.
+     *
+     * @return a new Scale
+     */
+    public Scale toScale() {
+        return new Scale(getX(), getY());
+    }
+
+}
@@ -0,0 +1,469 @@
+package edu.gatech.cs2340.trydent.math;
+
+/**
+ * <strong>Developers using this library should use the Position2, Vector2 and
+ * Scale2 sub-classes rather than using this class directly.</strong>
+ * <p>
+ * A two-component vector stored in two plain fields. This is the fast
+ * counterpart of {@link BaseVector} for code that does a lot of vector math
+ * every frame: no method allocates, there are no varargs, and no component
+ * counts need to be checked. The API is the same as BaseVector's, so
+ *
+ * <pre>
+ * Position2 myPosition = new Position2(3, 5).add(new Vector2(5, 7)).scale(2.0);
+ * </pre>
+ *
+ * works just like its BaseVector equivalent.
+ * <p>
+ * <strong>All mathematical methods in this class, unless expressly stated
+ * otherwise, are in-place (aka mutable), and return a reference to
+ * themselves.</strong>
+ * <p>
+ * Vec2s interoperate with BaseVectors: they can be built from, set from and
+ * added to one another, and each sub-class converts to its BaseVector
+ * equivalent.
+ *
+ * @param <T>
+ *            - generic type used for inheritance; developers using this library
+ *            need not worry about it.
+ */
+public abstract class Vec2<T extends Vec2<T>> {
+
+    private double x;
+    private double y;
+
+    /**
+     * Creates a new 2D vector.
+     *
+     * @param x
+     *            x-component
+     * @param y
+     *            y-component
+     */
+    protected Vec2(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Creates a copy of this vector.
+     *
+     * @return the copy
+     */
+    public abstract T copy();
+
+    @SuppressWarnings("unchecked")
+    private T self() {
+        return (T) this;
+    }
+
+    /**
+     * Returns the x-component.
+     *
+     * @return x
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-component.
+     *
+     * @return y
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Sets the x-component.
+     *
+     * @param v
+     *            the new value of x
+     */
+    public void setX(double v) {
+        x = v;
+    }
+
+    /**
+     * Sets the y-component.
+     *
+     * @param v
+     *            the new value of y
+     */
+    public void setY(double v) {
+        y = v;
+    }
+
+    /**
+     * Sets both components to 'value'.
+     *
+     * @param value
+     *            floating point value
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T fill(double value) {
+        x = value;
+        y = value;
+        return self();
+    }
+
+    /**
+     * Sets the components of this vector.
+     *
+     * @param x
+     *            the new value of x
+     * @param y
+     *            the new value of y
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return self();
+    }
+
+    /**
+     * Sets the components of this vector to the components of the other vector.
+     *
+     * @param vector
+     *            the other vector
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T set(Vec2<?> vector) {
+        return set(vector.x, vector.y);
+    }
+
+    /**
+     * Sets the components of this vector to the x and y components of a
+     * BaseVector.
+     *
+     * @param vector
+     *            the other vector
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T set(BaseVector<?> vector) {
+        return set(vector.getX(), vector.getY());
+    }
+
+    /**
+     * Adds (x, y) to this vector.
+     *
+     * @param x
+     *            - value to add to x
+     * @param y
+     *            - value to add to y
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T add(double x, double y) {
+        this.x += x;
+        this.y += y;
+        return self();
+    }
+
+    /**
+     * Adds the second vector to this vector. I.e.:
+     * <p>
+     * {@code this = this + other}
+     *
+     * @param other
+     *            - other vector
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T add(Vec2<?> other) {
+        return add(other.x, other.y);
+    }
+
+    /**
+     * Adds the x and y components of a BaseVector to this vector.
+     *
+     * @param other
+     *            - other vector
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T add(BaseVector<?> other) {
+        return add(other.getX(), other.getY());
+    }
+
+    /**
+     * Adds the second vector, scaled by 'scale', to this vector. I.e.:
+     * <p>
+     * this = this + (scale * other).
+     *
+     * @param scale
+     *            - scalar number
+     * @param other
+     *            - other vector
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T add(double scale, Vec2<?> other) {
+        return add(scale * other.x, scale * other.y);
+    }
+
+    /**
+     * Subtracts (x, y) from this vector.
+     *
+     * @param x
+     *            - value to subtract from x
+     * @param y
+     *            - value to subtract from y
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T subtract(double x, double y) {
+        this.x -= x;
+        this.y -= y;
+        return self();
+    }
+
+    /**
+     * Subtracts the second vector from this vector. I.e.:
+     * <p>
+     * {@code this = this - other}
+     *
+     * @param other
+     *            - other vector to subtract
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T subtract(Vec2<?> other) {
+        return subtract(other.x, other.y);
+    }
+
+    /**
+     * Subtracts the x and y components of a BaseVector from this vector.
+     *
+     * @param other
+     *            - other vector to subtract
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T subtract(BaseVector<?> other) {
+        return subtract(other.getX(), other.getY());
+    }
+
+    /**
+     * Subtracts the second vector, scaled by 'scale', from this vector. I.e.:
+     * <p>
+     * this = this - (scale * other).
+     *
+     * @param scale
+     *            scalar number
+     * @param other
+     *            other vector
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T subtract(double scale, Vec2<?> other) {
+        return subtract(scale * other.x, scale * other.y);
+    }
+
+    /**
+     * Scales both components by the same amount.
+     *
+     * @param scale
+     *            the value to multiply x and y by
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T scale(double scale) {
+        return scale(scale, scale);
+    }
+
+    /**
+     * Scales x and y by the given amounts.
+     *
+     * @param scaleX
+     *            the value to multiply x by
+     * @param scaleY
+     *            the value to multiply y by
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T scale(double scaleX, double scaleY) {
+        x *= scaleX;
+        y *= scaleY;
+        return self();
+    }
+
+    /**
+     * Scales the components of this vector by the components of the other
+     * vector.
+     *
+     * @param other
+     *            the vector to element-wise multiply the components of this
+     *            vector by
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T scale(Vec2<?> other) {
+        return scale(other.x, other.y);
+    }
+
+    /**
+     * Rotates this vector counter-clockwise.
+     * <p>
+     * (In the case of points, rotates about the origin).
+     *
+     * @param angle
+     *            amount to rotate by, in degrees.
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T rotate2D(double angle) {
+        double radians = Math.toRadians(angle);
+        double c = Math.cos(radians);
+        double s = Math.sin(radians);
+        return set(c * x - s * y, s * x + c * y);
+    }
+
+    /**
+     * Rotates this vector 90 counter-clockwise.
+     *
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T rotate90() {
+        return set(-y, x);
+    }
+
+    /**
+     * Returns the magnitude (aka length, aka norm) of this vector.
+     *
+     * @return the magnitude
+     */
+    public double magnitude() {
+        return Math.sqrt(magnitudeSquared());
+    }
+
+    /**
+     * Returns the squared magnitude (magnitude^2) of this vector.
+     *
+     * @return the squared magnitude
+     */
+    public double magnitudeSquared() {
+        return x * x + y * y;
+    }
+
+    /**
+     * Normalizes this vector (aka makes it unit length). The zero vector is
+     * left alone.
+     *
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T normalize() {
+        double m2 = magnitudeSquared();
+        if (m2 == 0)
+            return self(); // Can't normalize the 0-vector.
+        return scale(1.0 / Math.sqrt(m2));
+    }
+
+    /**
+     * Sets this vector to the linear interpolation between this vector and
+     * the other vector by an amount t.
+     *
+     * @param t
+     *            interpolation parameter (0 will give this vector, 1 will give
+     *            the other vector, 0.5 is the midpoint.)
+     * @param other
+     *            the other vector
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T lerp(double t, Vec2<?> other) {
+        return set((1.0 - t) * x + t * other.x, (1.0 - t) * y + t * other.y);
+    }
+
+    /**
+     * Projects this vector onto the given axis.
+     * <p>
+     * Mathematically, this method is {@code V = dot(V, axis) * axis} with the
+     * axis normalized.
+     *
+     * @param axis
+     *            the vector to project this vector onto
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T projectToAxis(Vec2<?> axis) {
+        double m2 = axis.magnitudeSquared();
+        if (m2 == 0)
+            return set(0, 0);
+        double d = dot(axis) / m2;
+        return set(d * axis.x, d * axis.y);
+    }
+
+    /**
+     * Removes the axis component of this vector.
+     * <p>
+     * Mathematically, this method is {@code V = V - dot(V, axis) * axis} with
+     * the axis normalized.
+     *
+     * @param axis
+     *            the vector to project this vector off of
+     * @return the reference to this vector for method chaining convenience
+     */
+    public T projectOffAxis(Vec2<?> axis) {
+        double m2 = axis.magnitudeSquared();
+        if (m2 == 0)
+            return self();
+        double d = dot(axis) / m2;
+        return subtract(d * axis.x, d * axis.y);
+    }
+
+    /**
+     * Returns the dot-product between this vector and (x, y).
+     *
+     * @param x
+     *            x-component of the other vector
+     * @param y
+     *            y-component of the other vector
+     * @return the dot-product
+     */
+    public double dot(double x, double y) {
+        return this.x * x + this.y * y;
+    }
+
+    /**
+     * Returns the dot-product between the two vectors.
+     *
+     * @param other
+     *            the other vector
+     * @return the dot-product
+     */
+    public double dot(Vec2<?> other) {
+        return dot(other.x, other.y);
+    }
+
+    /**
+     * Returns the distance between this vector and the other, treating both
+     * as points.
+     *
+     * @param other
+     *            the other vector
+     * @return the distance
+     */
+    public double distance(Vec2<?> other) {
+        double dx = other.x - x;
+        double dy = other.y - y;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Returns the open and close brackets for {@link #toString()}.
+     *
+     * @return two characters
+     */
+    protected String getBrackets() {
+        return "<>";
+    }
+
+    @Override
+    public String toString() {
+        String brackets = getBrackets();
+        StringBuffer sb = new StringBuffer();
+        sb.append(brackets.charAt(0));
+        appendComponent(sb, x);
+        sb.append(", ");
+        appendComponent(sb, y);
+        sb.append(brackets.charAt(1));
+        return sb.toString();
+    }
+
+    private static void appendComponent(StringBuffer sb, double value) {
+        if (Math.abs(value) < 1e-6)
+            sb.append("0.0");
+        else
+            sb.append(Math.round(value * 1.0e6) / (1.0e6));
+    }
+
+}
@@ -0,0 +1,81 @@
+package edu.gatech.cs2340.trydent.math;
+
+/**
+ * Represents a displacement or direction in 2D, stored in plain fields. This
+ * is the allocation-free counterpart of {@link Vector}; see {@link Vec2}.
+ */
+public class Vector2 extends Vec2<Vector2> {
+
+    /**
+     * Creates a new 2D vector pointing in the direction dx, dy.
+     *
+     * @param dx
+     *            x-direction
+     * @param dy
+     *            y-direction
+     */
+    public Vector2(double dx, double dy) {
+        super(dx, dy);
+    }
+
+    /**
+     * Creates a new vector pointing nowhere &lt;0, 0&gt;.
+     */
+    public Vector2() {
+        this(0, 0);
+    }
+
+    /**
+     * Creates a new vector from the input vector (which can be a Vector,
+     * Position, etc).
+     *
+     * @param other
+     *            other vector to copy the x,y components of
+     */
+    public Vector2(BaseVector<?> other) {
+        this(other.getX(), other.getY());
+    }
+
+    /**
+     * Creates a new vector from the input vector (which can be another
+     * Vector2, a Position2, etc).
+     *
+     * @param other
+     *            other vector to copy the x,y components of
+     */
+    public Vector2(Vec2<?> other) {
+        this(other.getX(), other.getY());
+    }
+
+    /**
+     * Creates a new vector pointing from the first position to the second
+     * position.
+     *
+     * @param from
+     *            - the first point (origin)
+     * @param to
+     *            - the second point (destination)
+     */
+    public Vector2(Position2 from, Position2 to) {
+        this(to.getX() - from.getX(), to.getY() - from.getY());
+    }
+
+    @Override
+    public Vector2 copy() {
+        return new Vector2(getX(), getY());
+    }
+
+    public Position2 toPosition() {
+        return new Position2(getX(), getY());
+    }
+
+    /**
+     * Returns this vector as a {@link Vector}, for APIs that take BaseVectors.
+     *
+     * @return a new Vector
+     */
+    public Vector toVector() {
+        return new Vector(getX(), getY());
+    }
+
+}
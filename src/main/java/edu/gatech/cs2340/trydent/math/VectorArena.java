@@ -0,0 +1,224 @@
+package edu.gatech.cs2340.trydent.math;
+
+import java.util.Arrays;
+
+/**
+ * A per-thread supply of scratch Positions, Vectors, Scales and Orientations
+ * for short-lived math, so that temporaries don't have to be allocated (and
+ * garbage collected) every frame.
+ * <p>
+ * Every object handed out by an arena is reused once the arena is reset,
+ * which happens automatically at the start of every frame. Scratch objects
+ * must therefore never be stored anywhere that outlives the current frame:
+ * {@link BaseVector#copy() copy()} them if they need to be kept. For example:
+ *
+ * <pre>
+ * VectorArena arena = VectorArena.current();
+ * Vector delta = arena.vector(velocity).scale(Time.getTimePassed());
+ * ball.translate(delta);
+ * </pre>
+ * <p>
+ * Each thread has its own arena, so arenas can be used from parallel
+ * behaviors too. Code that makes a lot of temporaries outside the engine's
+ * frame loop (or many in a single frame) can call {@link #reset()} itself,
+ * once nothing handed out by the arena is in use any more.
+ */
+public final class VectorArena {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final ThreadLocal<VectorArena> ARENAS = new ThreadLocal<VectorArena>() {
+        @Override
+        protected VectorArena initialValue() {
+            return new VectorArena();
+        }
+    };
+
+    // Bumped by the engine at the start of every frame; each arena resets
+    // itself the first time it is used in a new frame.
+    private static volatile long frame;
+
+    private long lastFrame = frame;
+
+    private Position[] positions = new Position[INITIAL_CAPACITY];
+    private Vector[] vectors = new Vector[INITIAL_CAPACITY];
+    private Scale[] scales = new Scale[INITIAL_CAPACITY];
+    private Orientation[] orientations = new Orientation[INITIAL_CAPACITY];
+    private int positionCount;
+    private int vectorCount;
+    private int scaleCount;
+    private int orientationCount;
+
+    private VectorArena() {
+    }
+
+    /**
+     * Returns the calling thread's arena.
+     *
+     * @return the arena
+     */
+    public static VectorArena current() {
+        return ARENAS.get();
+    }
+
+    /**
+     * Starts a new frame, invalidating every scratch object handed out so far
+     * on all threads. This is called by the engine; there should be no need
+     * to call it directly.
+     */
+    public static void advanceFrame() {
+        frame++;
+    }
+
+    /**
+     * Makes every object handed out by this arena available again.
+     */
+    public void reset() {
+        positionCount = 0;
+        vectorCount = 0;
+        scaleCount = 0;
+        orientationCount = 0;
+        lastFrame = frame;
+    }
+
+    /**
+     * Returns a scratch position.
+     *
+     * @param x
+     *            x-component
+     * @param y
+     *            y-component
+     * @return a position that is valid until the end of the frame
+     */
+    public Position position(double x, double y) {
+        checkFrame();
+        if (positionCount == positions.length)
+            positions = Arrays.copyOf(positions, positionCount * 2);
+        Position p = positions[positionCount];
+        if (p == null)
+            p = positions[positionCount] = new Position();
+        positionCount++;
+        return p.set(x, y);
+    }
+
+    /**
+     * Returns a scratch position with the x and y components of the given
+     * vector.
+     *
+     * @param other
+     *            vector to copy the components of
+     * @return a position that is valid until the end of the frame
+     */
+    public Position position(BaseVector<?> other) {
+        return position(other.getX(), other.getY());
+    }
+
+    /**
+     * Returns a scratch vector.
+     *
+     * @param dx
+     *            x-direction
+     * @param dy
+     *            y-direction
+     * @return a vector that is valid until the end of the frame
+     */
+    public Vector vector(double dx, double dy) {
+        checkFrame();
+        if (vectorCount == vectors.length)
+            vectors = Arrays.copyOf(vectors, vectorCount * 2);
+        Vector v = vectors[vectorCount];
+        if (v == null)
+            v = vectors[vectorCount] = new Vector();
+        vectorCount++;
+        return v.set(dx, dy);
+    }
+
+    /**
+     * Returns a scratch vector with the x and y components of the given
+     * vector.
+     *
+     * @param other
+     *            vector to copy the components of
+     * @return a vector that is valid until the end of the frame
+     */
+    public Vector vector(BaseVector<?> other) {
+        return vector(other.getX(), other.getY());
+    }
+
+    /**
+     * Returns a scratch scale.
+     *
+     * @param scaleX
+     *            x scale factor
+     * @param scaleY
+     *            y scale factor
+     * @return a scale that is valid until the end of the frame
+     */
+    public Scale scale(double scaleX, double scaleY) {
+        checkFrame();
+        if (scaleCount == scales.length)
+            scales = Arrays.copyOf(scales, scaleCount * 2);
+        Scale s = scales[scaleCount];
+        if (s == null)
+            s = scales[scaleCount] = new Scale();
+        scaleCount++;
+        return s.set(scaleX, scaleY);
+    }
+
+    /**
+     * Returns a scratch scale with the x and y components of the given
+     * vector.
+     *
+     * @param other
+     *            vector to copy the components of
+     * @return a scale that is valid until the end of the frame
+     */
+    public Scale scale(BaseVector<?> other) {
+        return scale(other.getX(), other.getY());
+    }
+
+    /**
+     * Returns a scratch orientation. Its position and scale belong to the
+     * orientation and are reused along with it.
+     *
+     * @param x
+     *            x-component of the position
+     * @param y
+     *            y-component of the position
+     * @param rotation
+     *            rotation in degrees
+     * @param scaleX
+     *            x scale factor
+     * @param scaleY
+     *            y scale factor
+     * @return an orientation that is valid until the end of the frame
+     */
+    public Orientation orientation(double x, double y, double rotation, double scaleX, double scaleY) {
+        checkFrame();
+        if (orientationCount == orientations.length)
+            orientations = Arrays.copyOf(orientations, orientationCount * 2);
+        Orientation o = orientations[orientationCount];
+        if (o == null)
+            o = orientations[orientationCount] = new Orientation(new Position(), 0, new Scale());
+        orientationCount++;
+        o.setInPlace(x, y, rotation, scaleX, scaleY);
+        return o;
+    }
+
+    /**
+     * Returns a scratch copy of the given orientation.
+     *
+     * @param other
+     *            the orientation to copy
+     * @return an orientation that is valid until the end of the frame
+     */
+    public Orientation orientation(Orientation other) {
+        return orientation(other.getX(), other.getY(), other.getRotation(), other.getScaleX(), other.getScaleY());
+    }
+
+    private void checkFrame() {
+        if (lastFrame != frame)
+            reset();
+    }
+
+}
@@ -9,6 +9,10 @@ import edu.gatech.cs2340.trydent.internal.TrydentInternalException;
  * functionality).
  */
 public class ArbitraryTiming implements SplineTimingHandler {
+    // How many spans transformTime(double, SpanTime) walks from the cursor
+    // (or findSpan(double, int) from the hint) before falling back to a binary search.
+    private static final int MAX_CURSOR_STEPS = 2;
+
     private double[] durations;
     private double[] times;
     private double totalDuration = 0;
@@ -33,10 +37,77 @@ public class ArbitraryTiming implements SplineTimingHandler {
 
     @Override
     public SpanTime transformTime(double time) {
+        time = clamp(time);
+        int index = findSpan(time);
+        return new SpanTime(index, (time - times[index]) / durations[index]);
+    }
+
+    @Override
+    public SpanTime transformTime(double time, SpanTime cursor) {
+        time = clamp(time);
+        int index = findSpanNear(time, cursor.getIndex());
+        return cursor.set(index, (time - times[index]) / durations[index]);
+    }
+
+    /**
+     * Finds the span containing the given time, starting the search at a span
+     * index from an earlier lookup, like
+     * {@link #transformTime(double, SpanTime)}. Nothing is written, so several
+     * threads can look up spans at once, each with its own hint. (Advanced
+     * functionality).
+     *
+     * @param time
+     *            the time; clamped to the total duration
+     * @param hint
+     *            the index of a span near the time, e.g. the last result
+     * @return the index of the span containing the time
+     */
+    public int findSpan(double time, int hint) {
+        return findSpanNear(clamp(time), hint);
+    }
+
+    /**
+     * Returns how far the given time is through a span, from 0 at its start
+     * to 1 at its end. (Advanced functionality).
+     *
+     * @param index
+     *            index of the span, e.g. from {@link #findSpan(double, int)}
+     * @param time
+     *            the time; clamped to the total duration
+     * @return the time relative to the span
+     */
+    public double getSpanTime(int index, double time) {
+        return (clamp(time) - times[index]) / durations[index];
+    }
+
+    private int findSpanNear(double time, int hint) {
+        int index = Math.max(0, Math.min(hint, times.length - 1));
+        // Usually the time is still in the hinted span, or has just moved on
+        // to the next one.
+        for (int steps = 0; steps < MAX_CURSOR_STEPS && time < times[index] && index > 0; steps++) {
+            index--;
+        }
+        for (int steps = 0; steps < MAX_CURSOR_STEPS && time > times[index] + durations[index]
+                && index < times.length - 1; steps++) {
+            index++;
+        }
+        if (time > times[index] + durations[index] || time < times[index])
+            index = findSpan(time);
+        return index;
+    }
+
+    private double clamp(double time) {
         if (time < 0)
-            time = 0;
+            return 0;
         if (time > totalDuration)
-            time = totalDuration;
+            return totalDuration;
+        return time;
+    }
+
+    /**
+     * Binary searches for the span containing the time.
+     */
+    private int findSpan(double time) {
         int left = 0;
         int right = times.length - 1;
         int index = (int) (time * (times.length - 1) / totalDuration);
@@ -70,6 +141,6 @@ public class ArbitraryTiming implements SplineTimingHandler {
                                 + ", left=" + left + ", right=" + right + ", index=" + index);
             }
         }
-        return new SpanTime(index, (time - times[index]) / durations[index]);
+        return index;
     }
 }
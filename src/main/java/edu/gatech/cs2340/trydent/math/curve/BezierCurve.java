@@ -0,0 +1,219 @@
+package edu.gatech.cs2340.trydent.math.curve;
+
+import edu.gatech.cs2340.trydent.TrydentException;
+import edu.gatech.cs2340.trydent.math.BaseVector;
+import edu.gatech.cs2340.trydent.math.MathTools;
+import edu.gatech.cs2340.trydent.math.VectorMismatchException;
+
+/**
+ * A Bezier curve over a fixed set of control points, prepared for sampling
+ * many times. (Advanced functionality).
+ * <p>
+ * {@link MathTools#bezier(double, BaseVector...)} takes O(n^2) time per
+ * sample for n control points. This class multiplies the binomial
+ * coefficients into the control points once, and then evaluates the
+ * Bernstein polynomial with a Horner scheme in O(n) per sample. Evenly spaced
+ * samples of curves up to cubics are taken by forward differencing, which
+ * costs a few additions per sample.
+ * <p>
+ * The control points are copied, so changing them afterwards does not change
+ * the curve.
+ *
+ * @param <P>
+ *            the type of the control points
+ */
+public class BezierCurve<P extends BaseVector<?>> extends Curve<P> {
+
+    // Highest degree sampled by forward differencing. Rounding errors grow
+    // quickly with the degree, so higher degrees are evaluated directly.
+    private static final int MAX_FORWARD_DIFFERENCING_DEGREE = 3;
+
+    private final P template;
+    private final int degree;
+    private final int components;
+    // weighted[c][i] = (degree choose i) * component c of point i.
+    private final double[][] weighted;
+
+    /**
+     * Creates a new Bezier curve of degree n-1 through n control points.
+     *
+     * @param points
+     *            one or more control points, all with the same number of
+     *            components
+     */
+    @SafeVarargs
+    public BezierCurve(P... points) {
+        if (points.length == 0)
+            throw new TrydentException("A Bezier curve needs at least one point.");
+        components = points[0].getComponentCount();
+        degree = points.length - 1;
+        weighted = new double[components][points.length];
+
+        double binomial = 1;
+        for (int i = 0; i < points.length; i++) {
+            if (points[i].getComponentCount() != components)
+                throw new VectorMismatchException("Number of components must be " + components + ", got "
+                        + points[i].getComponentCount());
+            for (int c = 0; c < components; c++) {
+                weighted[c][i] = binomial * points[i].getComponent(c);
+            }
+            binomial = binomial * (degree - i) / (i + 1);
+        }
+        @SuppressWarnings("unchecked")
+        P copy = (P) points[0].copy();
+        template = copy;
+    }
+
+    /**
+     * Returns the degree of this curve, which is one less than the number of
+     * control points.
+     *
+     * @return the degree
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    @Override
+    public P sample(double t) {
+        @SuppressWarnings("unchecked")
+        P result = (P) template.copy();
+        return sample(t, result);
+    }
+
+    /**
+     * Samples a point along this curve into an existing vector, without
+     * allocating.
+     *
+     * @param t
+     *            curve parameter, where t=0 returns the first point, and t=1
+     *            returns the last point.
+     * @param result
+     *            the vector to store the point in
+     * @return the result vector
+     */
+    public P sample(double t, P result) {
+        for (int c = 0; c < components; c++) {
+            result.setComponent(c, evaluate(weighted[c], t));
+        }
+        return result;
+    }
+
+    /**
+     * Samples one component of a point along this curve.
+     *
+     * @param t
+     *            curve parameter
+     * @param component
+     *            index of the component, e.g. 0 for x
+     * @return the component's value at t
+     */
+    public double sampleComponent(double t, int component) {
+        return evaluate(weighted[component], t);
+    }
+
+    /**
+     * Samples the x and y components of this curve at {@code count} evenly
+     * spaced parameters from t=0 to t=1 inclusive, into packed arrays (see
+     * {@link edu.gatech.cs2340.trydent.math.BatchMath BatchMath}).
+     *
+     * @param count
+     *            number of samples
+     * @param outX
+     *            array to store the x-components in
+     * @param outY
+     *            array to store the y-components in
+     */
+    public void sampleUniform(int count, double[] outX, double[] outY) {
+        if (components < 2)
+            throw new VectorMismatchException("Number of components must be at least 2, got " + components);
+        if (count < 0)
+            throw new TrydentException("Sample count must not be negative.");
+        if (outX.length < count || outY.length < count)
+            throw new VectorMismatchException("Need at least " + count + " elements.");
+        if (count == 0)
+            return;
+        if (count == 1) {
+            outX[0] = weighted[0][0];
+            outY[0] = weighted[1][0];
+            return;
+        }
+        sampleUniform(weighted[0], count, outX);
+        sampleUniform(weighted[1], count, outY);
+    }
+
+    private void sampleUniform(double[] w, int count, double[] out) {
+        double step = 1.0 / (count - 1);
+        if (degree > MAX_FORWARD_DIFFERENCING_DEGREE) {
+            for (int i = 0; i < count; i++) {
+                out[i] = evaluate(w, i * step);
+            }
+            return;
+        }
+
+        // Power basis coefficients a + b t + c t^2 + d t^3 of the curve.
+        double[] p = new double[MAX_FORWARD_DIFFERENCING_DEGREE + 1];
+        for (int k = 0; k <= degree; k++) {
+            // a_k = (degree choose k) * sum_i (-1)^(k-i) (k choose i) P_i;
+            // w already holds (degree choose i) P_i, and
+            // (degree choose k)(k choose i) = (degree choose i)(degree-i choose k-i).
+            double sum = 0;
+            double binomial = 1;
+            for (int i = k; i >= 0; i--) {
+                double sign = ((k - i) & 1) == 0 ? 1 : -1;
+                sum += sign * binomial * w[i];
+                binomial = binomial * (degree - i + 1) / (k - i + 1);
+            }
+            p[k] = sum;
+        }
+
+        double h = step;
+        double h2 = h * h;
+        double h3 = h2 * h;
+        double value = p[0];
+        double d1 = p[1] * h + p[2] * h2 + p[3] * h3;
+        double d2 = 2 * p[2] * h2 + 6 * p[3] * h3;
+        double d3 = 6 * p[3] * h3;
+        for (int i = 0; i < count - 1; i++) {
+            out[i] = value;
+            value += d1;
+            d1 += d2;
+            d2 += d3;
+        }
+        // Pin the end point exactly.
+        out[count - 1] = w[degree];
+    }
+
+    /**
+     * Evaluates sum_i w[i] (1-t)^(n-i) t^i with a Horner scheme in t/(1-t) or
+     * (1-t)/t, whichever is at most 1, which keeps it numerically stable.
+     */
+    private double evaluate(double[] w, double t) {
+        if (degree == 0)
+            return w[0];
+        double s = 1.0 - t;
+        double sum;
+        double power;
+        if (t <= 0.5) {
+            double ratio = t / s;
+            sum = w[degree];
+            for (int i = degree - 1; i >= 0; i--) {
+                sum = sum * ratio + w[i];
+            }
+            power = s;
+        } else {
+            double ratio = s / t;
+            sum = w[0];
+            for (int i = 1; i <= degree; i++) {
+                sum = sum * ratio + w[i];
+            }
+            power = t;
+        }
+        double scale = 1;
+        for (int i = 0; i < degree; i++) {
+            scale *= power;
+        }
+        return sum * scale;
+    }
+
+}
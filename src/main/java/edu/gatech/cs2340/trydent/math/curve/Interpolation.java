@@ -2,6 +2,7 @@ package edu.gatech.cs2340.trydent.math.curve;
 
 import edu.gatech.cs2340.trydent.math.BaseVector;
 import edu.gatech.cs2340.trydent.math.MathTools;
+import edu.gatech.cs2340.trydent.math.VectorArena;
 
 /**
  * Interpolation strategy interface.
@@ -47,7 +48,19 @@ public interface Interpolation<T> {
             BaseVector<?> p1 = points.get(0);
             BaseVector<?> p2 = points.get(1);
             BaseVector<?> p3 = points.get(2);
-            return MathTools.hermite(p1, p2.copy().subtract(p0).scale(0.5), p2, p3.copy().subtract(p1).scale(0.5), t);
+            return MathTools.hermite(p1, scratchCopy(p2).subtract(p0).scale(0.5), p2,
+                    scratchCopy(p3).subtract(p1).scale(0.5), t);
+        }
+
+        /**
+         * Returns a copy for a tangent, which is only needed for one call;
+         * 2D points are copied into the {@link VectorArena}, which only holds
+         * 2D vectors.
+         */
+        private BaseVector<?> scratchCopy(BaseVector<?> point) {
+            if (point.getComponentCount() != 2)
+                return point.copy();
+            return VectorArena.current().vector(point);
         }
     };
 
@@ -21,6 +21,22 @@ public class SpanTime {
         this.time = time;
     }
 
+    /**
+     * Sets the span and the position along it, so that a SpanTime can be
+     * reused as a cursor.
+     *
+     * @param index
+     *            - the index of the span in question
+     * @param time
+     *            - value between 0 and 1 indicating the position on the span.
+     * @return this span time
+     */
+    public SpanTime set(int index, double time) {
+        this.index = index;
+        this.time = time;
+        return this;
+    }
+
     /**
      * Returns the index of the span.
      *
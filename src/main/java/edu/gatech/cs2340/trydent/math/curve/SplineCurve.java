@@ -1,9 +1,20 @@
 package edu.gatech.cs2340.trydent.math.curve;
 
 import edu.gatech.cs2340.trydent.TrydentException;
+import edu.gatech.cs2340.trydent.math.BaseVector;
 
 /**
  * Represents a parametric spline of points. (Advanced functionality).
+ * <p>
+ * Splines of vectors can be <i>baked</i> with {@link #bake(int)}: the curve is
+ * sampled once into a table, and later samples just interpolate between
+ * neighboring table entries, which takes constant time and allocates nothing
+ * with {@link #sample(double, Object)}. Baking also measures the curve, so
+ * that it can be sampled by distance travelled with
+ * {@link #sampleByLength(double, Object)}. The table is rebuilt whenever the
+ * interpolation or index wrap mode changes (the time wrap mode is applied
+ * when looking values up); call {@link #invalidate()} after moving the points
+ * themselves.
  *
  * @param <P>
  *            the type of the control points of this spline
@@ -14,6 +25,16 @@ public class SplineCurve<P> extends Curve<P> {
     private Interpolation<P> interpolation;
     private SplineTimingHandler timing;
     private TimeWrapMode timeWrap;
+    // Reused by every sample; successive samples are usually close together.
+    private final SpanTime cursor = new SpanTime(0, 0);
+
+    // Baked tables, built lazily once bakeResolution > 0. Row c of a table
+    // holds component c at resolution + 1 evenly spaced parameters (by time
+    // for 'table', by arc length for 'lengthTable').
+    private int bakeResolution;
+    private double[][] table;
+    private double[][] lengthTable;
+    private double length;
 
     /**
      * Creates a new spline from the input points where the input points are
@@ -85,6 +106,7 @@ public class SplineCurve<P> extends Curve<P> {
      */
     public void setInterpolation(Interpolation<P> interpolation) {
         this.interpolation = interpolation;
+        invalidate();
     }
 
     /**
@@ -95,6 +117,7 @@ public class SplineCurve<P> extends Curve<P> {
      */
     public void setIndexWrap(IndexWrapMode handler) {
         this.pointStream.setBoundsHandler(handler);
+        invalidate();
     }
 
     /**
@@ -107,16 +130,183 @@ public class SplineCurve<P> extends Curve<P> {
         this.timeWrap = mode;
     }
 
+    /**
+     * Turns baking on (or off, for a resolution of 0). The table is built the
+     * next time the curve is sampled.
+     *
+     * @param resolution
+     *            number of table intervals; more gives a closer fit to the
+     *            curve
+     */
+    public void bake(int resolution) {
+        if (resolution < 0)
+            throw new TrydentException("Bake resolution must not be negative.");
+        bakeResolution = resolution;
+        invalidate();
+    }
+
+    /**
+     * Returns true if this spline samples from a baked table.
+     *
+     * @return whether baking is on
+     */
+    public boolean isBaked() {
+        return bakeResolution > 0;
+    }
+
+    /**
+     * Discards the baked table, so that it is rebuilt on the next sample.
+     * Call this after modifying the spline's points.
+     */
+    public void invalidate() {
+        table = null;
+        lengthTable = null;
+    }
+
+    /**
+     * Returns the length of the curve, measured along the baked table.
+     *
+     * @return the arc length
+     */
+    public double getLength() {
+        checkBaked();
+        return length;
+    }
+
     @Override
     public P sample(double t) {
-        // There is some subtle wrapping behavior occurring in this function.
-        // Our first step is to wrap the floating-point time value, so that
-        // our TimingHandler can correctly translate the time value to a span
-        // and a sub-time of that span. The TimingHandler requires its input
-        // to be between 0 and 1.
-        t = this.timeWrap.handle(t, 1.0);
+        if (isBaked()) {
+            checkBaked();
+            @SuppressWarnings("unchecked")
+            P result = (P) ((BaseVector<?>) pointStream.getAbsolute(0)).copy();
+            return lookup(table, this.timeWrap.handle(t, 1.0), result);
+        }
+        return sampleCurve(this.timeWrap.handle(t, 1.0));
+    }
 
-        SpanTime time = timing.transformTime(t);
+    /**
+     * Samples a point into an existing vector. On a baked spline this takes
+     * constant time and does not allocate.
+     *
+     * @param t
+     *            curve parameter, where t=0 returns the first point, and t=1
+     *            returns the last point.
+     * @param result
+     *            the vector to store the point in
+     * @return the result vector
+     */
+    public P sample(double t, P result) {
+        if (!isBaked()) {
+            vector(result).set(vector(sampleCurve(this.timeWrap.handle(t, 1.0))));
+            return result;
+        }
+        checkBaked();
+        return lookup(table, this.timeWrap.handle(t, 1.0), result);
+    }
+
+    /**
+     * Samples a baked spline by distance travelled rather than by time, so
+     * that evenly spaced values of {@code s} give evenly spaced points. Takes
+     * constant time and does not allocate.
+     *
+     * @param s
+     *            fraction of the curve's length, where s=0 returns the first
+     *            point, and s=1 returns the last point; wrapped by the time
+     *            wrap mode
+     * @param result
+     *            the vector to store the point in
+     * @return the result vector
+     */
+    public P sampleByLength(double s, P result) {
+        checkBaked();
+        return lookup(lengthTable, this.timeWrap.handle(s, 1.0), result);
+    }
+
+    private P lookup(double[][] rows, double t, P result) {
+        BaseVector<?> vector = vector(result);
+        double u = t * bakeResolution;
+        int i = (int) u;
+        if (i >= bakeResolution)
+            i = bakeResolution - 1;
+        else if (i < 0)
+            i = 0;
+        double f = u - i;
+        for (int c = 0; c < rows.length; c++) {
+            double[] row = rows[c];
+            vector.setComponent(c, row[i] + f * (row[i + 1] - row[i]));
+        }
+        return result;
+    }
+
+    private void checkBaked() {
+        if (!isBaked())
+            throw new TrydentException("This spline is not baked.");
+        if (table == null)
+            buildTables();
+    }
+
+    private void buildTables() {
+        int n = bakeResolution;
+        BaseVector<?> first = vector(sampleCurve(0));
+        int components = first.getComponentCount();
+        double[][] samples = new double[components][n + 1];
+        double[] distance = new double[n + 1];
+        for (int i = 0; i <= n; i++) {
+            BaseVector<?> point = i == 0 ? first : vector(sampleCurve(i / (double) n));
+            double step = 0;
+            for (int c = 0; c < components; c++) {
+                double value = point.getComponent(c);
+                samples[c][i] = value;
+                if (i > 0) {
+                    double delta = value - samples[c][i - 1];
+                    step += delta * delta;
+                }
+            }
+            if (i > 0)
+                distance[i] = distance[i - 1] + Math.sqrt(step);
+        }
+
+        // Resample at even distances, walking both tables in step.
+        double[][] byLength = new double[components][n + 1];
+        double total = distance[n];
+        int span = 0;
+        for (int j = 0; j <= n; j++) {
+            double target = total * j / n;
+            while (span < n - 1 && distance[span + 1] < target) {
+                span++;
+            }
+            double spanLength = distance[span + 1] - distance[span];
+            double f = spanLength > 0 ? (target - distance[span]) / spanLength : 0;
+            if (f > 1)
+                f = 1;
+            for (int c = 0; c < components; c++) {
+                double[] row = samples[c];
+                byLength[c][j] = row[span] + f * (row[span + 1] - row[span]);
+            }
+        }
+
+        length = total;
+        lengthTable = byLength;
+        table = samples;
+    }
+
+    private static BaseVector<?> vector(Object point) {
+        if (!(point instanceof BaseVector))
+            throw new TrydentException("Only splines of vectors can be baked or sampled into a result, not "
+                    + point.getClass().getSimpleName() + ".");
+        return (BaseVector<?>) point;
+    }
+
+    /**
+     * Samples the curve itself at a time between 0 and 1.
+     */
+    private P sampleCurve(double t) {
+        // There is some subtle wrapping behavior occurring in this function.
+        // The callers have already wrapped the floating-point time value, so
+        // that our TimingHandler can correctly translate the time value to a
+        // span and a sub-time of that span. The TimingHandler requires its
+        // input to be between 0 and 1.
+        SpanTime time = timing.transformTime(t, cursor);
         pointStream.seek(time.getIndex());
 
         // Next, the actual interpolation uses its IndexWrapMode to find the
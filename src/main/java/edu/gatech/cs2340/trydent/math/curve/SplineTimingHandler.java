@@ -7,4 +7,22 @@ package edu.gatech.cs2340.trydent.math.curve;
  */
 public interface SplineTimingHandler {
     SpanTime transformTime(double time);
+
+    /**
+     * Converts a time like {@link #transformTime(double)}, but stores the
+     * result in the given cursor instead of allocating one. The span the
+     * cursor already points at is used as a starting guess, which makes
+     * the conversion cheap when the time only moves a little between calls,
+     * as it does during an animation.
+     *
+     * @param time
+     *            the spline's global time, between 0 and 1
+     * @param cursor
+     *            the result of the previous call (or any SpanTime, to start)
+     * @return the cursor
+     */
+    default SpanTime transformTime(double time, SpanTime cursor) {
+        SpanTime result = transformTime(time);
+        return cursor.set(result.getIndex(), result.getTime());
+    }
 }
\ No newline at end of file
@@ -19,10 +19,17 @@ public class UniformTiming implements SplineTimingHandler {
 
     @Override
     public SpanTime transformTime(double t) {
+        return transformTime(t, new SpanTime(0, 0));
+    }
+
+    @Override
+    public SpanTime transformTime(double t, SpanTime cursor) {
+        // The span follows directly from the time, so the cursor's old value
+        // isn't needed.
         double spans = (pointCount - 1.0);
         int t0 = (int) (t * spans);
         int t1 = (int) ((t + 1) * spans);
         t = ((t * spans - t0) / (1.0 * t1 - t0)) * spans;
-        return new SpanTime(t0, t);
+        return cursor.set(t0, t);
     }
 }
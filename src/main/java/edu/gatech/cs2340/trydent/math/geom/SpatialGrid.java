@@ -0,0 +1,594 @@
+package edu.gatech.cs2340.trydent.math.geom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import edu.gatech.cs2340.trydent.TrydentException;
+
+/**
+ * Broad-phase spatial index that sorts axis-aligned boxes into a uniform grid
+ * of square cells.
+ * <p>
+ * Each item is stored in every cell its box touches, so region queries, ray
+ * casts and overlap tests only look at items near the area of interest.
+ * Moving an item with {@link #update} only touches the grid when the set of
+ * cells under its box changes. The cell size should be about the size of a
+ * typical item: much smaller and large items occupy many cells, much larger
+ * and cells hold many items that don't actually overlap.
+ * <p>
+ * Like {@link Rectangle#intersects(Rectangle)}, boxes that only touch count as
+ * overlapping. Items are compared by identity. Grids are not thread-safe.
+ *
+ * @param <T>
+ *            the type of items stored
+ */
+public class SpatialGrid<T> {
+
+    private final double cellSize;
+    private final double inverseCellSize;
+
+    private final CellMap<T> cells = new CellMap<>();
+    private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+
+    // Incremented for every query, to visit each entry once even if it spans
+    // several cells.
+    private int stamp;
+
+    /**
+     * Creates an empty grid.
+     *
+     * @param cellSize
+     *            width and height of a cell
+     */
+    public SpatialGrid(double cellSize) {
+        if (!(cellSize > 0) || Double.isInfinite(cellSize))
+            throw new TrydentException("Cell size must be positive (got " + cellSize + ").");
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1 / cellSize;
+    }
+
+    /**
+     * Returns the width and height of a cell.
+     *
+     * @return the cell size
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Returns the number of items in the grid.
+     *
+     * @return the item count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of cells holding at least one item. Cells are freed
+     * as soon as their last item leaves.
+     *
+     * @return the occupied cell count
+     */
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    /**
+     * Returns true if the item is in the grid.
+     *
+     * @param item
+     *            the item to look for
+     * @return whether the item has been inserted and not removed
+     */
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    /**
+     * Adds an item with the given box.
+     *
+     * @param item
+     *            the item to add; must not be in the grid already
+     * @param x
+     *            left edge
+     * @param y
+     *            top edge
+     * @param width
+     *            width of the box
+     * @param height
+     *            height of the box
+     */
+    public void insert(T item, double x, double y, double width, double height) {
+        if (entries.containsKey(item))
+            throw new TrydentException(item + " is already in the grid.");
+        Entry<T> entry = new Entry<>(item);
+        entry.setBounds(x, y, x + width, y + height);
+        entry.cx0 = cell(entry.minX);
+        entry.cy0 = cell(entry.minY);
+        entry.cx1 = cell(entry.maxX);
+        entry.cy1 = cell(entry.maxY);
+        entries.put(item, entry);
+        addToCells(entry);
+    }
+
+    /**
+     * Adds an item with the given box.
+     *
+     * @param item
+     *            the item to add; must not be in the grid already
+     * @param bounds
+     *            the box of the item
+     */
+    public void insert(T item, Rectangle bounds) {
+        insert(item, bounds.getLeft(), bounds.getTop(), bounds.getWidth(), bounds.getHeight());
+    }
+
+    /**
+     * Moves an item to a new box, inserting it if it isn't in the grid yet.
+     *
+     * @param item
+     *            the item to move
+     * @param x
+     *            left edge
+     * @param y
+     *            top edge
+     * @param width
+     *            width of the box
+     * @param height
+     *            height of the box
+     */
+    public void update(T item, double x, double y, double width, double height) {
+        Entry<T> entry = entries.get(item);
+        if (entry == null) {
+            insert(item, x, y, width, height);
+            return;
+        }
+        entry.setBounds(x, y, x + width, y + height);
+        int cx0 = cell(entry.minX);
+        int cy0 = cell(entry.minY);
+        int cx1 = cell(entry.maxX);
+        int cy1 = cell(entry.maxY);
+        if (cx0 == entry.cx0 && cy0 == entry.cy0 && cx1 == entry.cx1 && cy1 == entry.cy1)
+            return; // Still in the same cells, which is the common case.
+        removeFromCells(entry);
+        entry.cx0 = cx0;
+        entry.cy0 = cy0;
+        entry.cx1 = cx1;
+        entry.cy1 = cy1;
+        addToCells(entry);
+    }
+
+    /**
+     * Moves an item to a new box, inserting it if it isn't in the grid yet.
+     *
+     * @param item
+     *            the item to move
+     * @param bounds
+     *            the new box of the item
+     */
+    public void update(T item, Rectangle bounds) {
+        update(item, bounds.getLeft(), bounds.getTop(), bounds.getWidth(), bounds.getHeight());
+    }
+
+    /**
+     * Removes an item from the grid.
+     *
+     * @param item
+     *            the item to remove
+     * @return true if the item was removed, false if it wasn't in the grid
+     */
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null)
+            return false;
+        removeFromCells(entry);
+        return true;
+    }
+
+    /**
+     * Removes all items.
+     */
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    /**
+     * Calls the action for every item whose box overlaps the given region.
+     * Each item is visited once. The grid must not be changed by the action.
+     *
+     * @param x
+     *            left edge of the region
+     * @param y
+     *            top edge of the region
+     * @param width
+     *            width of the region
+     * @param height
+     *            height of the region
+     * @param action
+     *            action to call for each overlapping item
+     */
+    public void query(double x, double y, double width, double height, Consumer<? super T> action) {
+        double maxX = x + width;
+        double maxY = y + height;
+        int mark = ++stamp;
+        int cx1 = cell(maxX);
+        int cy1 = cell(maxY);
+        for (int cy = cell(y); cy <= cy1; cy++) {
+            for (int cx = cell(x); cx <= cx1; cx++) {
+                List<Entry<T>> list = cells.get(cx, cy);
+                if (list == null)
+                    continue;
+                for (int i = 0; i < list.size(); i++) {
+                    Entry<T> entry = list.get(i);
+                    if (entry.stamp != mark) {
+                        entry.stamp = mark;
+                        if (entry.overlaps(x, y, maxX, maxY))
+                            action.accept(entry.item);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns all items whose box overlaps the given region.
+     *
+     * @param region
+     *            the region to search
+     * @return a new list of overlapping items
+     */
+    public List<T> query(Rectangle region) {
+        final List<T> result = new ArrayList<>();
+        query(region.getLeft(), region.getTop(), region.getWidth(), region.getHeight(), new Consumer<T>() {
+            @Override
+            public void accept(T item) {
+                result.add(item);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Finds the first item hit by a ray, walking the grid cell by cell from
+     * the origin.
+     *
+     * @param originX
+     *            x coordinate the ray starts at
+     * @param originY
+     *            y coordinate the ray starts at
+     * @param directionX
+     *            x component of the ray direction (need not be normalized)
+     * @param directionY
+     *            y component of the ray direction
+     * @param maxDistance
+     *            how far to follow the ray; must be finite
+     * @param hitDistance
+     *            if not null, element 0 receives the distance from the origin
+     *            to the hit
+     * @return the nearest item hit, or null if nothing is hit within the
+     *         distance
+     */
+    public T raycast(double originX, double originY, double directionX, double directionY, double maxDistance,
+            double[] hitDistance) {
+        double length = Math.hypot(directionX, directionY);
+        if (length == 0)
+            throw new TrydentException("The ray direction cannot be zero.");
+        if (!(maxDistance >= 0) || Double.isInfinite(maxDistance))
+            throw new TrydentException("The ray distance must be finite and non-negative (got " + maxDistance + ").");
+        double dx = directionX / length;
+        double dy = directionY / length;
+        // Reciprocals for the slab tests; infinite on axis-aligned rays.
+        double invDx = 1 / dx;
+        double invDy = 1 / dy;
+
+        int cx = cell(originX);
+        int cy = cell(originY);
+        int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+        int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+        // Distance along the ray to the next vertical / horizontal cell
+        // boundary, and between boundaries.
+        double nextX = stepX == 0 ? Double.POSITIVE_INFINITY
+                : ((stepX > 0 ? cx + 1 : cx) * cellSize - originX) * invDx;
+        double nextY = stepY == 0 ? Double.POSITIVE_INFINITY
+                : ((stepY > 0 ? cy + 1 : cy) * cellSize - originY) * invDy;
+        double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : cellSize * Math.abs(invDx);
+        double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : cellSize * Math.abs(invDy);
+
+        int mark = ++stamp;
+        T best = null;
+        double bestDistance = maxDistance;
+        double cellEntry = 0;
+        while (cellEntry <= bestDistance) {
+            List<Entry<T>> list = cells.get(cx, cy);
+            if (list != null) {
+                for (int i = 0; i < list.size(); i++) {
+                    Entry<T> entry = list.get(i);
+                    if (entry.stamp == mark)
+                        continue;
+                    entry.stamp = mark;
+                    double t = entry.intersectRay(originX, originY, invDx, invDy);
+                    if (t >= 0 && t <= bestDistance) {
+                        best = entry.item;
+                        bestDistance = t;
+                    }
+                }
+            }
+            // Anything hit beyond this cell might still be beaten by an item
+            // in a later cell, so keep walking until the cells start past the
+            // best hit.
+            if (nextX < nextY) {
+                cellEntry = nextX;
+                nextX += deltaX;
+                cx += stepX;
+            } else {
+                cellEntry = nextY;
+                nextY += deltaY;
+                cy += stepY;
+            }
+        }
+        if (best != null && hitDistance != null)
+            hitDistance[0] = bestDistance;
+        return best;
+    }
+
+    /**
+     * Calls the action once for every pair of items whose boxes overlap. The
+     * grid must not be changed by the action.
+     *
+     * @param action
+     *            action to call with both items of each overlapping pair
+     */
+    public void forEachOverlappingPair(BiConsumer<? super T, ? super T> action) {
+        cells.forEachCell(new CellVisitor<T>() {
+            @Override
+            public void visit(int cx, int cy, List<Entry<T>> list) {
+                for (int i = 0; i < list.size(); i++) {
+                    Entry<T> a = list.get(i);
+                    for (int j = i + 1; j < list.size(); j++) {
+                        Entry<T> b = list.get(j);
+                        if (!a.overlaps(b.minX, b.minY, b.maxX, b.maxY))
+                            continue;
+                        // Pairs sharing several cells are only reported by
+                        // the cell holding the top-left corner of their
+                        // overlap.
+                        if (cell(Math.max(a.minX, b.minX)) == cx && cell(Math.max(a.minY, b.minY)) == cy)
+                            action.accept(a.item, b.item);
+                    }
+                }
+            }
+        });
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private void addToCells(Entry<T> entry) {
+        for (int cy = entry.cy0; cy <= entry.cy1; cy++) {
+            for (int cx = entry.cx0; cx <= entry.cx1; cx++) {
+                cells.getOrCreate(cx, cy).add(entry);
+            }
+        }
+    }
+
+    private void removeFromCells(Entry<T> entry) {
+        for (int cy = entry.cy0; cy <= entry.cy1; cy++) {
+            for (int cx = entry.cx0; cx <= entry.cx1; cx++) {
+                List<Entry<T>> list = cells.get(cx, cy);
+                // Swap-remove; order within a cell doesn't matter.
+                int last = list.size() - 1;
+                for (int i = 0; i <= last; i++) {
+                    if (list.get(i) == entry) {
+                        list.set(i, list.get(last));
+                        list.remove(last);
+                        break;
+                    }
+                }
+                // Free emptied cells, so that items roaming the world don't
+                // leave a trail of cells behind.
+                if (list.isEmpty())
+                    cells.remove(cx, cy);
+            }
+        }
+    }
+
+    /**
+     * An item and its box, along with the range of cells it occupies.
+     */
+    private static final class Entry<T> {
+        final T item;
+        double minX, minY, maxX, maxY;
+        int cx0, cy0, cx1, cy1;
+        int stamp;
+
+        Entry(T item) {
+            this.item = item;
+        }
+
+        void setBounds(double minX, double minY, double maxX, double maxY) {
+            this.minX = Math.min(minX, maxX);
+            this.minY = Math.min(minY, maxY);
+            this.maxX = Math.max(minX, maxX);
+            this.maxY = Math.max(minY, maxY);
+        }
+
+        boolean overlaps(double otherMinX, double otherMinY, double otherMaxX, double otherMaxY) {
+            return minX <= otherMaxX && otherMinX <= maxX && minY <= otherMaxY && otherMinY <= maxY;
+        }
+
+        /**
+         * Slab test; returns the distance along the ray at which it enters
+         * this box, 0 if it starts inside, or -1 if it misses.
+         */
+        double intersectRay(double ox, double oy, double invDx, double invDy) {
+            double tNear = Double.NEGATIVE_INFINITY;
+            double tFar = Double.POSITIVE_INFINITY;
+            // A ray parallel to an axis only hits if it runs between the two
+            // edges across that axis.
+            if (Double.isInfinite(invDx)) {
+                if (ox < minX || ox > maxX)
+                    return -1;
+            } else {
+                double t1 = (minX - ox) * invDx;
+                double t2 = (maxX - ox) * invDx;
+                tNear = Math.min(t1, t2);
+                tFar = Math.max(t1, t2);
+            }
+            if (Double.isInfinite(invDy)) {
+                if (oy < minY || oy > maxY)
+                    return -1;
+            } else {
+                double t1 = (minY - oy) * invDy;
+                double t2 = (maxY - oy) * invDy;
+                tNear = Math.max(tNear, Math.min(t1, t2));
+                tFar = Math.min(tFar, Math.max(t1, t2));
+            }
+            if (tFar < 0 || tNear > tFar)
+                return -1;
+            return Math.max(0, tNear);
+        }
+    }
+
+    private interface CellVisitor<T> {
+        void visit(int cx, int cy, List<Entry<T>> list);
+    }
+
+    /**
+     * Open-addressing hash map from cell coordinates to the entries in the
+     * cell, so lookups don't box their keys. Empty cells are removed, and
+     * their lists are kept for reuse so that items moving back and forth
+     * across a cell edge don't create garbage.
+     */
+    private static final class CellMap<T> {
+        private static final int INITIAL_CAPACITY = 256;
+        private static final int MAX_SPARE_LISTS = 64;
+
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private int size;
+        private final List<List<Entry<T>>> spareLists = new ArrayList<>();
+
+        private static long key(int cx, int cy) {
+            return ((long) cx << 32) | (cy & 0xffffffffL);
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Entry<T>> get(int cx, int cy) {
+            long key = key(cx, cy);
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask);; i = (i + 1) & mask) {
+                Object value = values[i];
+                if (value == null)
+                    return null;
+                if (keys[i] == key)
+                    return (List<Entry<T>>) value;
+            }
+        }
+
+        List<Entry<T>> getOrCreate(int cx, int cy) {
+            List<Entry<T>> list = get(cx, cy);
+            if (list == null) {
+                if ((size + 1) * 2 > keys.length)
+                    resize();
+                if (spareLists.isEmpty())
+                    list = new ArrayList<>(4);
+                else
+                    list = spareLists.remove(spareLists.size() - 1);
+                put(key(cx, cy), list);
+                size++;
+            }
+            return list;
+        }
+
+        /**
+         * Removes an empty cell. Later entries of its probe run are shifted
+         * back into the hole, so lookups never need tombstones.
+         */
+        @SuppressWarnings("unchecked")
+        void remove(int cx, int cy) {
+            long key = key(cx, cy);
+            int mask = keys.length - 1;
+            int hole = slot(key, mask);
+            while (true) {
+                if (values[hole] == null)
+                    return;
+                if (keys[hole] == key)
+                    break;
+                hole = (hole + 1) & mask;
+            }
+            if (spareLists.size() < MAX_SPARE_LISTS)
+                spareLists.add((List<Entry<T>>) values[hole]);
+            for (int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+                // An entry may only move back if the hole lies between its
+                // home slot and where it is now.
+                int home = slot(keys[i], mask);
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = keys[i];
+                    values[hole] = values[i];
+                    hole = i;
+                }
+            }
+            values[hole] = null;
+            size--;
+        }
+
+        /**
+         * Returns the number of cells holding at least one entry.
+         */
+        int size() {
+            return size;
+        }
+
+        private void put(long key, Object value) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Object[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null)
+                    put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void forEachCell(CellVisitor<T> visitor) {
+            for (int i = 0; i < keys.length; i++) {
+                Object value = values[i];
+                if (value != null) {
+                    List<Entry<T>> list = (List<Entry<T>>) value;
+                    if (list.size() > 1)
+                        visitor.visit((int) (keys[i] >> 32), (int) keys[i], list);
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package edu.gatech.cs2340.trydent.physics;
+
+import java.util.Arrays;
+
+import edu.gatech.cs2340.trydent.GameObject;
+
+/**
+ * The contacts found during one step of a {@link PhysicsWorld}, stored in
+ * parallel arrays. The arrays are reused from step to step, so a batch is only
+ * valid while it is being delivered to a {@link ContactListener}.
+ * <p>
+ * Each contact is between body A, which was moving, and body B, which it ran
+ * into. The normal points from B towards A.
+ */
+public final class ContactBatch {
+
+    private final PhysicsWorld world;
+
+    private int size;
+    private int[] bodyA = new int[16];
+    private int[] bodyB = new int[16];
+    private double[] normalX = new double[16];
+    private double[] normalY = new double[16];
+
+    ContactBatch(PhysicsWorld world) {
+        this.world = world;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void add(int a, int b, double nx, double ny) {
+        if (size == bodyA.length) {
+            int capacity = size * 2;
+            bodyA = Arrays.copyOf(bodyA, capacity);
+            bodyB = Arrays.copyOf(bodyB, capacity);
+            normalX = Arrays.copyOf(normalX, capacity);
+            normalY = Arrays.copyOf(normalY, capacity);
+        }
+        bodyA[size] = a;
+        bodyB[size] = b;
+        normalX[size] = nx;
+        normalY[size] = ny;
+        size++;
+    }
+
+    /**
+     * Returns the world the contacts happened in.
+     *
+     * @return the physics world
+     */
+    public PhysicsWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Returns the number of contacts.
+     *
+     * @return the contact count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id of the moving body of a contact.
+     *
+     * @param contact
+     *            index of the contact
+     * @return the body id
+     */
+    public int getBodyA(int contact) {
+        return bodyA[contact];
+    }
+
+    /**
+     * Returns the id of the body that was run into.
+     *
+     * @param contact
+     *            index of the contact
+     * @return the body id
+     */
+    public int getBodyB(int contact) {
+        return bodyB[contact];
+    }
+
+    /**
+     * Returns the x component of the contact normal, pointing from body B
+     * towards body A.
+     *
+     * @param contact
+     *            index of the contact
+     * @return the normal's x component
+     */
+    public double getNormalX(int contact) {
+        return normalX[contact];
+    }
+
+    /**
+     * Returns the y component of the contact normal, pointing from body B
+     * towards body A.
+     *
+     * @param contact
+     *            index of the contact
+     * @return the normal's y component
+     */
+    public double getNormalY(int contact) {
+        return normalY[contact];
+    }
+
+    /**
+     * Returns the GameObject linked to body A, if any.
+     *
+     * @param contact
+     *            index of the contact
+     * @return the linked object, or null
+     */
+    public GameObject getGameObjectA(int contact) {
+        return world.getGameObject(bodyA[contact]);
+    }
+
+    /**
+     * Returns the GameObject linked to body B, if any.
+     *
+     * @param contact
+     *            index of the contact
+     * @return the linked object, or null
+     */
+    public GameObject getGameObjectB(int contact) {
+        return world.getGameObject(bodyB[contact]);
+    }
+
+}
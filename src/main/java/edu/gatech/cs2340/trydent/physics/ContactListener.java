@@ -0,0 +1,17 @@
+package edu.gatech.cs2340.trydent.physics;
+
+/**
+ * Receives the contacts of a physics step, all at once.
+ */
+public interface ContactListener {
+
+    /**
+     * Called once after every step that produced contacts. The batch is only
+     * valid for the duration of the call.
+     *
+     * @param contacts
+     *            the contacts of the step
+     */
+    void onContacts(ContactBatch contacts);
+
+}
@@ -0,0 +1,936 @@
+package edu.gatech.cs2340.trydent.physics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.gatech.cs2340.trydent.ContinuousEvent;
+import edu.gatech.cs2340.trydent.GameObject;
+import edu.gatech.cs2340.trydent.Time;
+import edu.gatech.cs2340.trydent.TrydentException;
+import edu.gatech.cs2340.trydent.UpdatePhase;
+import edu.gatech.cs2340.trydent.entity.Archetype;
+import edu.gatech.cs2340.trydent.math.Position;
+
+/**
+ * A world of axis-aligned box bodies, stepped by the engine in the
+ * {@link UpdatePhase#PHYSICS} phase.
+ * <p>
+ * Bodies are identified by int ids and stored in an {@link Archetype}, so a
+ * step works on primitive arrays only. Bodies come in three states:
+ * <ul>
+ * <li><b>awake</b> bodies are moved by their velocity and gravity. Their
+ * motion is swept against the resting bodies, so fast bodies cannot tunnel
+ * through thin walls even at low frame rates.</li>
+ * <li><b>sleeping</b> bodies have been (almost) still for a while. They are not
+ * moved and cost nothing until something runs into them or their velocity is
+ * set, which wakes them up.</li>
+ * <li><b>static</b> bodies never move, e.g. walls and bricks. Like sleeping
+ * bodies, they are only looked at when an awake body comes near them.</li>
+ * </ul>
+ * Awake bodies are resolved against each other after they have moved, by
+ * pushing overlapping pairs apart.
+ * <p>
+ * Contacts are collected during the step and delivered to the
+ * {@link ContactListener}s in one {@link ContactBatch} afterwards, so
+ * listeners can safely remove bodies or destroy objects.
+ * <p>
+ * A body can be linked to a GameObject, whose position then follows the
+ * body's center. Bodies linked to destroyed objects are removed when the world
+ * next comes across them. Move linked bodies through the world, not the
+ * object, or the world will overwrite the change.
+ */
+public class PhysicsWorld {
+
+    private static final int AWAKE = 0;
+    private static final int SLEEPING = 1;
+    private static final int STATIC = 2;
+
+    // How far bodies are kept apart after a swept hit, so the next sweep does
+    // not start out overlapping.
+    private static final double SKIN = 1e-6;
+    // Hits per body per step; motion left over after that is dropped.
+    private static final int MAX_HITS = 4;
+
+    private final Archetype bodies;
+    private final int xColumn;
+    private final int yColumn;
+    private final int halfWidthColumn;
+    private final int halfHeightColumn;
+    private final int vxColumn;
+    private final int vyColumn;
+    private final int inverseMassColumn;
+    private final int restitutionColumn;
+    private final int stillTimeColumn;
+    private final int stateColumn;
+
+    // Ids of awake bodies.
+    private int[] active = new int[16];
+    private int activeCount;
+
+    // Ids of sleeping and static bodies, sorted by the left edge of their box.
+    private int[] resting = new int[16];
+    private double[] restingMinX = new double[16];
+    private int restingCount;
+    private double restingMaxWidth;
+    private boolean restingDirty;
+
+    // Scratch space for sorting the awake bodies.
+    private int[] sortedActive = new int[16];
+    private double[] sortedMinX = new double[16];
+
+    private double gravityX;
+    private double gravityY;
+    private double sleepSpeed = 1;
+    private double sleepDelay = 0.5;
+
+    private final ContactBatch contacts = new ContactBatch(this);
+    private final List<ContactListener> listeners = new ArrayList<>();
+    private int[] pendingRemovals = new int[4];
+    private int pendingRemovalCount;
+
+    private final double[] hit = new double[3];
+
+    private ContinuousEvent stepper;
+
+    /**
+     * Creates a new physics world without gravity, which is stepped every
+     * frame from now on.
+     */
+    public PhysicsWorld() {
+        bodies = new Archetype("x", "y", "halfWidth", "halfHeight", "vx", "vy", "inverseMass", "restitution",
+                "stillTime", "state");
+        xColumn = bodies.getColumnIndex("x");
+        yColumn = bodies.getColumnIndex("y");
+        halfWidthColumn = bodies.getColumnIndex("halfWidth");
+        halfHeightColumn = bodies.getColumnIndex("halfHeight");
+        vxColumn = bodies.getColumnIndex("vx");
+        vyColumn = bodies.getColumnIndex("vy");
+        inverseMassColumn = bodies.getColumnIndex("inverseMass");
+        restitutionColumn = bodies.getColumnIndex("restitution");
+        stillTimeColumn = bodies.getColumnIndex("stillTime");
+        stateColumn = bodies.getColumnIndex("state");
+        setAutoStep(true);
+    }
+
+    /**
+     * Sets whether the world steps itself every frame, by the frame's
+     * {@link Time#getTimePassed() time passed}. Turn this off to call
+     * {@link #step(double)} yourself.
+     *
+     * @param autoStep
+     *            whether to step automatically
+     */
+    public void setAutoStep(boolean autoStep) {
+        if (autoStep && stepper == null) {
+            stepper = new ContinuousEvent(UpdatePhase.PHYSICS) {
+                @Override
+                public void onUpdate() {
+                    step(Time.getTimePassed());
+                }
+            };
+        } else if (!autoStep && stepper != null) {
+            stepper.stop();
+            stepper = null;
+        }
+    }
+
+    /**
+     * Sets the acceleration applied to all awake bodies.
+     *
+     * @param x
+     *            x component, in units per second squared
+     * @param y
+     *            y component, in units per second squared
+     */
+    public void setGravity(double x, double y) {
+        gravityX = x;
+        gravityY = y;
+    }
+
+    /**
+     * Sets when bodies fall asleep: after moving slower than
+     * {@code speed} for {@code delay} seconds. A delay of infinity keeps
+     * bodies awake.
+     *
+     * @param speed
+     *            the speed below which a body counts as still
+     * @param delay
+     *            seconds a body must be still before it sleeps
+     */
+    public void setSleepThreshold(double speed, double delay) {
+        if (speed < 0 || delay < 0)
+            throw new TrydentException("Sleep threshold must not be negative.");
+        sleepSpeed = speed;
+        sleepDelay = delay;
+    }
+
+    /**
+     * Adds a listener for the contacts of each step.
+     *
+     * @param listener
+     *            the listener to add
+     */
+    public void addContactListener(ContactListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a contact listener.
+     *
+     * @param listener
+     *            the listener to remove
+     */
+    public void removeContactListener(ContactListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Creates a moving body.
+     *
+     * @param x
+     *            x coordinate of the center
+     * @param y
+     *            y coordinate of the center
+     * @param halfWidth
+     *            half the width of the box
+     * @param halfHeight
+     *            half the height of the box
+     * @param mass
+     *            the mass; must be positive
+     * @return the id of the new body
+     */
+    public int createBody(double x, double y, double halfWidth, double halfHeight, double mass) {
+        if (!(mass > 0))
+            throw new TrydentException("Body mass must be positive; use createStaticBody for immovable bodies.");
+        return addBody(bodies.create(), x, y, halfWidth, halfHeight, 1 / mass, AWAKE);
+    }
+
+    /**
+     * Creates a moving body linked to a GameObject, centered on the object's
+     * position.
+     *
+     * @param object
+     *            the object to move with the body
+     * @param halfWidth
+     *            half the width of the box
+     * @param halfHeight
+     *            half the height of the box
+     * @param mass
+     *            the mass; must be positive
+     * @return the id of the new body
+     */
+    public int createBody(GameObject object, double halfWidth, double halfHeight, double mass) {
+        if (!(mass > 0))
+            throw new TrydentException("Body mass must be positive; use createStaticBody for immovable bodies.");
+        Position position = object.getPosition();
+        return addBody(bodies.create(object), position.getX(), position.getY(), halfWidth, halfHeight, 1 / mass,
+                AWAKE);
+    }
+
+    /**
+     * Creates a body that never moves.
+     *
+     * @param x
+     *            x coordinate of the center
+     * @param y
+     *            y coordinate of the center
+     * @param halfWidth
+     *            half the width of the box
+     * @param halfHeight
+     *            half the height of the box
+     * @return the id of the new body
+     */
+    public int createStaticBody(double x, double y, double halfWidth, double halfHeight) {
+        return addBody(bodies.create(), x, y, halfWidth, halfHeight, 0, STATIC);
+    }
+
+    /**
+     * Creates a body that never moves, linked to a GameObject and centered on
+     * the object's position. The body is removed when the object is
+     * destroyed.
+     *
+     * @param object
+     *            the object the body belongs to
+     * @param halfWidth
+     *            half the width of the box
+     * @param halfHeight
+     *            half the height of the box
+     * @return the id of the new body
+     */
+    public int createStaticBody(GameObject object, double halfWidth, double halfHeight) {
+        Position position = object.getPosition();
+        return addBody(bodies.create(object), position.getX(), position.getY(), halfWidth, halfHeight, 0, STATIC);
+    }
+
+    /**
+     * Removes a body from the world. A linked GameObject is left alone.
+     *
+     * @param id
+     *            the id of a body
+     */
+    public void removeBody(int id) {
+        if (state(id) == AWAKE) {
+            for (int i = 0; i < activeCount; i++) {
+                if (active[i] == id) {
+                    active[i] = active[--activeCount];
+                    break;
+                }
+            }
+        } else {
+            restingDirty = true;
+        }
+        bodies.destroy(id);
+    }
+
+    /**
+     * Returns true if the id belongs to a body in this world.
+     *
+     * @param id
+     *            a body id
+     * @return whether the body exists
+     */
+    public boolean isAlive(int id) {
+        return bodies.isAlive(id);
+    }
+
+    /**
+     * Returns the number of bodies in the world.
+     *
+     * @return the body count
+     */
+    public int getBodyCount() {
+        return bodies.size();
+    }
+
+    /**
+     * Returns the GameObject linked to a body.
+     *
+     * @param id
+     *            the id of a body
+     * @return the linked object, or null
+     */
+    public GameObject getGameObject(int id) {
+        return bodies.getGameObject(bodies.getRow(id));
+    }
+
+    /**
+     * Returns the x coordinate of a body's center.
+     *
+     * @param id
+     *            the id of a body
+     * @return the x coordinate
+     */
+    public double getX(int id) {
+        return bodies.get(id, xColumn);
+    }
+
+    /**
+     * Returns the y coordinate of a body's center.
+     *
+     * @param id
+     *            the id of a body
+     * @return the y coordinate
+     */
+    public double getY(int id) {
+        return bodies.get(id, yColumn);
+    }
+
+    /**
+     * Moves a body without sweeping, e.g. to respawn it. A sleeping body is
+     * woken up.
+     *
+     * @param id
+     *            the id of a body
+     * @param x
+     *            new x coordinate of the center
+     * @param y
+     *            new y coordinate of the center
+     */
+    public void setPosition(int id, double x, double y) {
+        bodies.set(id, xColumn, x);
+        bodies.set(id, yColumn, y);
+        if (state(id) == STATIC)
+            restingDirty = true;
+        else
+            wake(id);
+        GameObject object = getGameObject(id);
+        if (object != null && !object.isDestroyed())
+            object.setPosition(x, y);
+    }
+
+    /**
+     * Returns the x component of a body's velocity.
+     *
+     * @param id
+     *            the id of a body
+     * @return the velocity's x component
+     */
+    public double getVelocityX(int id) {
+        return bodies.get(id, vxColumn);
+    }
+
+    /**
+     * Returns the y component of a body's velocity.
+     *
+     * @param id
+     *            the id of a body
+     * @return the velocity's y component
+     */
+    public double getVelocityY(int id) {
+        return bodies.get(id, vyColumn);
+    }
+
+    /**
+     * Sets a body's velocity, waking it up. Static bodies cannot be given a
+     * velocity.
+     *
+     * @param id
+     *            the id of a body
+     * @param vx
+     *            x component, in units per second
+     * @param vy
+     *            y component, in units per second
+     */
+    public void setVelocity(int id, double vx, double vy) {
+        checkMovable(id);
+        bodies.set(id, vxColumn, vx);
+        bodies.set(id, vyColumn, vy);
+        wake(id);
+    }
+
+    /**
+     * Applies an instantaneous impulse to a body, changing its velocity by
+     * the impulse divided by its mass, and wakes it up.
+     *
+     * @param id
+     *            the id of a body
+     * @param x
+     *            x component of the impulse
+     * @param y
+     *            y component of the impulse
+     */
+    public void applyImpulse(int id, double x, double y) {
+        checkMovable(id);
+        double inverseMass = bodies.get(id, inverseMassColumn);
+        bodies.set(id, vxColumn, bodies.get(id, vxColumn) + x * inverseMass);
+        bodies.set(id, vyColumn, bodies.get(id, vyColumn) + y * inverseMass);
+        wake(id);
+    }
+
+    /**
+     * Sets how bouncy a body is: 0 stops dead on impact, 1 bounces back with
+     * full speed. A contact uses the larger restitution of its two bodies.
+     *
+     * @param id
+     *            the id of a body
+     * @param restitution
+     *            the restitution, between 0 and 1
+     */
+    public void setRestitution(int id, double restitution) {
+        if (restitution < 0 || restitution > 1)
+            throw new TrydentException("Restitution must be between 0 and 1.");
+        bodies.set(id, restitutionColumn, restitution);
+    }
+
+    /**
+     * Returns true if a body is static.
+     *
+     * @param id
+     *            the id of a body
+     * @return whether the body never moves
+     */
+    public boolean isStatic(int id) {
+        return state(id) == STATIC;
+    }
+
+    /**
+     * Returns true if a body is sleeping.
+     *
+     * @param id
+     *            the id of a body
+     * @return whether the body is asleep
+     */
+    public boolean isSleeping(int id) {
+        return state(id) == SLEEPING;
+    }
+
+    /**
+     * Wakes a sleeping body up. Does nothing to awake or static bodies.
+     *
+     * @param id
+     *            the id of a body
+     */
+    public void wake(int id) {
+        if (state(id) != SLEEPING)
+            return;
+        bodies.set(id, stateColumn, AWAKE);
+        bodies.set(id, stillTimeColumn, 0);
+        addActive(id);
+        restingDirty = true;
+    }
+
+    /**
+     * Advances the simulation: applies gravity, moves the awake bodies,
+     * resolves their contacts, puts still bodies to sleep, moves linked
+     * GameObjects and finally notifies the contact listeners.
+     *
+     * @param seconds
+     *            the time to simulate
+     */
+    public void step(double seconds) {
+        contacts.clear();
+        if (seconds > 0 && activeCount > 0) {
+            if (restingDirty)
+                sortResting();
+            double[] vx = bodies.getColumn(vxColumn);
+            double[] vy = bodies.getColumn(vyColumn);
+            int count = activeCount;
+            for (int i = 0; i < count; i++) {
+                int row = bodies.getRow(active[i]);
+                vx[row] += gravityX * seconds;
+                vy[row] += gravityY * seconds;
+            }
+            // Bodies woken up by a hit are appended to the active list, but
+            // only start moving next step.
+            for (int i = 0; i < count; i++) {
+                if (!isLinkedToDestroyed(active[i]))
+                    move(active[i], seconds);
+            }
+            resolveActivePairs(count);
+            updateSleep(seconds);
+        }
+        for (int i = 0; i < pendingRemovalCount; i++) {
+            if (bodies.isAlive(pendingRemovals[i]))
+                removeBody(pendingRemovals[i]);
+        }
+        pendingRemovalCount = 0;
+        syncObjects();
+
+        if (contacts.size() > 0) {
+            for (ContactListener listener : new ArrayList<>(listeners)) {
+                listener.onContacts(contacts);
+            }
+        }
+    }
+
+    /**
+     * Stops stepping this world every frame.
+     */
+    public void stop() {
+        setAutoStep(false);
+    }
+
+    private int addBody(int id, double x, double y, double halfWidth, double halfHeight, double inverseMass,
+            int state) {
+        if (!(halfWidth >= 0) || !(halfHeight >= 0)) {
+            bodies.destroy(id);
+            throw new TrydentException("Body size must not be negative.");
+        }
+        int row = bodies.getRow(id);
+        bodies.getColumn(xColumn)[row] = x;
+        bodies.getColumn(yColumn)[row] = y;
+        bodies.getColumn(halfWidthColumn)[row] = halfWidth;
+        bodies.getColumn(halfHeightColumn)[row] = halfHeight;
+        bodies.getColumn(inverseMassColumn)[row] = inverseMass;
+        bodies.getColumn(stateColumn)[row] = state;
+        if (state == AWAKE)
+            addActive(id);
+        else
+            restingDirty = true;
+        return id;
+    }
+
+    private int state(int id) {
+        return (int) bodies.get(id, stateColumn);
+    }
+
+    private void checkMovable(int id) {
+        if (state(id) == STATIC)
+            throw new TrydentException("Static bodies cannot move.");
+    }
+
+    private void addActive(int id) {
+        if (activeCount == active.length)
+            active = Arrays.copyOf(active, activeCount * 2);
+        active[activeCount++] = id;
+    }
+
+    private boolean isLinkedToDestroyed(int id) {
+        GameObject object = bodies.getGameObject(bodies.getRow(id));
+        if (object == null || !object.isDestroyed())
+            return false;
+        for (int i = 0; i < pendingRemovalCount; i++) {
+            if (pendingRemovals[i] == id)
+                return true;
+        }
+        if (pendingRemovalCount == pendingRemovals.length)
+            pendingRemovals = Arrays.copyOf(pendingRemovals, pendingRemovalCount * 2);
+        pendingRemovals[pendingRemovalCount++] = id;
+        return true;
+    }
+
+    /**
+     * Moves an awake body by its velocity, stopping at and bouncing off the
+     * first resting body in its way, up to {@link #MAX_HITS} times.
+     */
+    private void move(int id, double seconds) {
+        double[] x = bodies.getColumn(xColumn);
+        double[] y = bodies.getColumn(yColumn);
+        double[] halfWidth = bodies.getColumn(halfWidthColumn);
+        double[] halfHeight = bodies.getColumn(halfHeightColumn);
+        double[] vx = bodies.getColumn(vxColumn);
+        double[] vy = bodies.getColumn(vyColumn);
+        int row = bodies.getRow(id);
+        double hw = halfWidth[row];
+        double hh = halfHeight[row];
+
+        double remaining = seconds;
+        for (int hits = 0; hits < MAX_HITS && remaining > 0; hits++) {
+            double dx = vx[row] * remaining;
+            double dy = vy[row] * remaining;
+            if (dx == 0 && dy == 0)
+                return;
+            double minX = x[row] - hw + Math.min(dx, 0);
+            double maxX = x[row] + hw + Math.max(dx, 0);
+            double minY = y[row] - hh + Math.min(dy, 0);
+            double maxY = y[row] + hh + Math.max(dy, 0);
+
+            // The resting bodies overlapping the swept box; the list is sorted
+            // by left edge, so only a slice of it needs to be looked at.
+            int first = lowerBound(restingMinX, restingCount, minX - restingMaxWidth);
+            double bestTime = Double.POSITIVE_INFINITY;
+            int bestId = -1;
+            double bestNormalX = 0;
+            double bestNormalY = 0;
+            for (int i = first; i < restingCount && restingMinX[i] <= maxX; i++) {
+                int other = resting[i];
+                if (!bodies.isAlive(other) || isLinkedToDestroyed(other))
+                    continue;
+                int otherRow = bodies.getRow(other);
+                double ohw = halfWidth[otherRow];
+                double ohh = halfHeight[otherRow];
+                double ox = x[otherRow];
+                double oy = y[otherRow];
+                if (ox + ohw < minX || ox - ohw > maxX || oy + ohh < minY || oy - ohh > maxY)
+                    continue;
+                if (sweep(x[row], y[row], dx, dy, ox, oy, hw + ohw, hh + ohh) && hit[0] < bestTime) {
+                    bestTime = hit[0];
+                    bestId = other;
+                    bestNormalX = hit[1];
+                    bestNormalY = hit[2];
+                }
+            }
+
+            if (bestId < 0) {
+                x[row] += dx;
+                y[row] += dy;
+                return;
+            }
+            if (bestTime < 0) {
+                // Started out overlapping: push out by the penetration depth.
+                x[row] -= bestNormalX * bestTime - bestNormalX * SKIN;
+                y[row] -= bestNormalY * bestTime - bestNormalY * SKIN;
+                bestTime = 0;
+            } else {
+                x[row] += dx * bestTime + bestNormalX * SKIN;
+                y[row] += dy * bestTime + bestNormalY * SKIN;
+            }
+            bounce(row, bodies.getRow(bestId), bestNormalX, bestNormalY);
+            if (state(bestId) == SLEEPING)
+                wake(bestId);
+            contacts.add(id, bestId, bestNormalX, bestNormalY);
+            remaining *= 1 - bestTime;
+        }
+    }
+
+    /**
+     * Sweeps a point from (x, y) by (dx, dy) against a box centered on (ox,
+     * oy) with the given half extents, which are those of both bodies added
+     * together. On a hit, stores the fraction of the motion before impact and
+     * the surface normal in {@link #hit}. If the point starts inside the box,
+     * the stored time is minus the depth along the normal.
+     */
+    private boolean sweep(double x, double y, double dx, double dy, double ox, double oy, double hw,
+            double hh) {
+        double offsetX = x - ox;
+        double offsetY = y - oy;
+        double depthX = hw - Math.abs(offsetX);
+        double depthY = hh - Math.abs(offsetY);
+        if (depthX > SKIN && depthY > SKIN) {
+            if (depthX < depthY) {
+                hit[1] = offsetX < 0 ? -1 : 1;
+                hit[2] = 0;
+                hit[0] = -depthX;
+            } else {
+                hit[1] = 0;
+                hit[2] = offsetY < 0 ? -1 : 1;
+                hit[0] = -depthY;
+            }
+            return dx * hit[1] + dy * hit[2] < 0 || hit[0] < -SKIN;
+        }
+
+        double enterX;
+        double exitX;
+        if (dx == 0) {
+            if (depthX <= 0)
+                return false;
+            enterX = Double.NEGATIVE_INFINITY;
+            exitX = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (-hw - offsetX) / dx;
+            double t2 = (hw - offsetX) / dx;
+            enterX = Math.min(t1, t2);
+            exitX = Math.max(t1, t2);
+        }
+        double enterY;
+        double exitY;
+        if (dy == 0) {
+            if (depthY <= 0)
+                return false;
+            enterY = Double.NEGATIVE_INFINITY;
+            exitY = Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (-hh - offsetY) / dy;
+            double t2 = (hh - offsetY) / dy;
+            enterY = Math.min(t1, t2);
+            exitY = Math.max(t1, t2);
+        }
+
+        double enter = Math.max(enterX, enterY);
+        double exit = Math.min(exitX, exitY);
+        if (enter > exit || enter > 1 || exit <= 0)
+            return false;
+        if (enterX > enterY) {
+            hit[1] = dx > 0 ? -1 : 1;
+            hit[2] = 0;
+        } else {
+            hit[1] = 0;
+            hit[2] = dy > 0 ? -1 : 1;
+        }
+        hit[0] = Math.max(enter, 0);
+        return true;
+    }
+
+    /**
+     * Applies the impulse between two bodies along the contact normal, which
+     * points from the second body to the first. Static bodies have an inverse
+     * mass of 0 and are not affected.
+     */
+    private void bounce(int row, int otherRow, double normalX, double normalY) {
+        double[] vx = bodies.getColumn(vxColumn);
+        double[] vy = bodies.getColumn(vyColumn);
+        double[] inverseMass = bodies.getColumn(inverseMassColumn);
+        double[] restitution = bodies.getColumn(restitutionColumn);
+
+        double approach = (vx[row] - vx[otherRow]) * normalX + (vy[row] - vy[otherRow]) * normalY;
+        double totalInverseMass = inverseMass[row] + inverseMass[otherRow];
+        if (approach >= 0 || totalInverseMass == 0)
+            return;
+        double impulse = -(1 + Math.max(restitution[row], restitution[otherRow])) * approach / totalInverseMass;
+        vx[row] += impulse * inverseMass[row] * normalX;
+        vy[row] += impulse * inverseMass[row] * normalY;
+        vx[otherRow] -= impulse * inverseMass[otherRow] * normalX;
+        vy[otherRow] -= impulse * inverseMass[otherRow] * normalY;
+    }
+
+    /**
+     * Finds the overlapping pairs among the first {@code count} awake bodies
+     * by sorting them along x, pushes each pair apart in proportion to their
+     * inverse masses and bounces them. Bodies waiting to be removed are left
+     * out.
+     */
+    private void resolveActivePairs(int count) {
+        if (sortedActive.length < count) {
+            sortedActive = new int[active.length];
+            sortedMinX = new double[active.length];
+        }
+        double[] x = bodies.getColumn(xColumn);
+        double[] y = bodies.getColumn(yColumn);
+        double[] halfWidth = bodies.getColumn(halfWidthColumn);
+        double[] halfHeight = bodies.getColumn(halfHeightColumn);
+        double[] inverseMass = bodies.getColumn(inverseMassColumn);
+        int sorted = 0;
+        for (int i = 0; i < count; i++) {
+            int id = active[i];
+            // Bodies linked to destroyed objects are removed before the
+            // listeners run, so they must not show up in any contact.
+            if (!bodies.isAlive(id) || isLinkedToDestroyed(id))
+                continue;
+            int row = bodies.getRow(id);
+            sortedActive[sorted] = id;
+            sortedMinX[sorted] = x[row] - halfWidth[row];
+            sorted++;
+        }
+        sort(sortedMinX, sortedActive, 0, sorted - 1);
+
+        for (int i = 0; i < sorted; i++) {
+            int a = bodies.getRow(sortedActive[i]);
+            for (int j = i + 1; j < sorted; j++) {
+                int b = bodies.getRow(sortedActive[j]);
+                double offsetX = x[a] - x[b];
+                double offsetY = y[a] - y[b];
+                double depthX = halfWidth[a] + halfWidth[b] - Math.abs(offsetX);
+                if (x[b] - halfWidth[b] > x[a] + halfWidth[a])
+                    break;
+                double depthY = halfHeight[a] + halfHeight[b] - Math.abs(offsetY);
+                if (depthX <= 0 || depthY <= 0)
+                    continue;
+                double normalX = 0;
+                double normalY = 0;
+                double depth;
+                if (depthX < depthY) {
+                    normalX = offsetX < 0 ? -1 : 1;
+                    depth = depthX;
+                } else {
+                    normalY = offsetY < 0 ? -1 : 1;
+                    depth = depthY;
+                }
+                double share = inverseMass[a] / (inverseMass[a] + inverseMass[b]);
+                x[a] += normalX * depth * share;
+                y[a] += normalY * depth * share;
+                x[b] -= normalX * depth * (1 - share);
+                y[b] -= normalY * depth * (1 - share);
+                bounce(a, b, normalX, normalY);
+                contacts.add(sortedActive[i], sortedActive[j], normalX, normalY);
+            }
+        }
+    }
+
+    /**
+     * Puts bodies that have been still long enough to sleep and drops them
+     * from the active list. Their linked objects are moved here, since
+     * {@link #syncObjects()} only moves the active bodies.
+     */
+    private void updateSleep(double seconds) {
+        double[] vx = bodies.getColumn(vxColumn);
+        double[] vy = bodies.getColumn(vyColumn);
+        double[] stillTime = bodies.getColumn(stillTimeColumn);
+        double[] state = bodies.getColumn(stateColumn);
+        double limit = sleepSpeed * sleepSpeed;
+        int kept = 0;
+        for (int i = 0; i < activeCount; i++) {
+            int id = active[i];
+            int row = bodies.getRow(id);
+            if (vx[row] * vx[row] + vy[row] * vy[row] < limit) {
+                stillTime[row] += seconds;
+                if (stillTime[row] >= sleepDelay) {
+                    vx[row] = 0;
+                    vy[row] = 0;
+                    state[row] = SLEEPING;
+                    restingDirty = true;
+                    syncObject(row);
+                    continue;
+                }
+            } else {
+                stillTime[row] = 0;
+            }
+            active[kept++] = id;
+        }
+        activeCount = kept;
+    }
+
+    private void syncObjects() {
+        for (int i = 0; i < activeCount; i++) {
+            syncObject(bodies.getRow(active[i]));
+        }
+    }
+
+    private void syncObject(int row) {
+        GameObject object = bodies.getGameObject(row);
+        if (object != null && !object.isDestroyed())
+            object.setPosition(bodies.getColumn(xColumn)[row], bodies.getColumn(yColumn)[row]);
+    }
+
+    private void sortResting() {
+        double[] x = bodies.getColumn(xColumn);
+        double[] halfWidth = bodies.getColumn(halfWidthColumn);
+        double[] state = bodies.getColumn(stateColumn);
+        int size = bodies.size();
+        if (resting.length < size) {
+            resting = new int[Math.max(size, resting.length * 2)];
+            restingMinX = new double[resting.length];
+        }
+        restingCount = 0;
+        restingMaxWidth = 0;
+        for (int row = 0; row < size; row++) {
+            if (state[row] == AWAKE)
+                continue;
+            resting[restingCount] = bodies.getId(row);
+            restingMinX[restingCount] = x[row] - halfWidth[row];
+            restingMaxWidth = Math.max(restingMaxWidth, 2 * halfWidth[row]);
+            restingCount++;
+        }
+        sort(restingMinX, resting, 0, restingCount - 1);
+        restingDirty = false;
+    }
+
+    private static int lowerBound(double[] keys, int size, double key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Sorts {@code keys[low..high]} ascending, moving the ids along with
+     * them.
+     */
+    private static void sort(double[] keys, int[] ids, int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            double pivot = median(keys[low], keys[mid], keys[high]);
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot)
+                    i++;
+                while (keys[j] > pivot)
+                    j--;
+                if (i <= j) {
+                    swap(keys, ids, i++, j--);
+                }
+            }
+            // Recurse into the smaller half, loop on the larger one.
+            if (j - low < high - i) {
+                sort(keys, ids, low, j);
+                low = i;
+            } else {
+                sort(keys, ids, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            double key = keys[i];
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= low && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            ids[j + 1] = id;
+        }
+    }
+
+    private static double median(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void swap(double[] keys, int[] ids, int i, int j) {
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+}
@@ -0,0 +1,5 @@
+/**
+ * A simple rigid-body physics layer for axis-aligned boxes, stepped by the
+ * engine every frame.
+ */
+package edu.gatech.cs2340.trydent.physics;
@@ -15,6 +15,7 @@ import edu.gatech.cs2340.trydent.Time;
 import edu.gatech.cs2340.trydent.TrydentEngine;
 import edu.gatech.cs2340.trydent.math.Position;
 import edu.gatech.cs2340.trydent.math.Vector;
+import edu.gatech.cs2340.trydent.math.VectorArena;
 import edu.gatech.cs2340.trydent.math.geom.Rectangle;
 
 /**
@@ -126,14 +127,16 @@ public class BreakoutExample extends ContinuousEvent {
                 }
                 lastPaddle = paddlePos;
 
-                Vector delta = velocity.copy().scale(Time.getTimePassed());
+                Vector delta = VectorArena.current().vector(velocity).scale(Time.getTimePassed());
                 g.translate(delta);
 
-                Rectangle bounds = g.getFeature(Rectangle.class);
-                bounds.setCenter(ball.getPosition());
+                // The Rectangle features are local to their objects, so move
+                // copies of them into the scene.
+                Rectangle bounds = g.getFeature(Rectangle.class).copy();
+                bounds.moveBy(ball.getPosition());
 
-                Rectangle paddleBounds = paddle.getFeature(Rectangle.class);
-                paddleBounds.setCenter(paddle.getPosition());
+                Rectangle paddleBounds = paddle.getFeature(Rectangle.class).copy();
+                paddleBounds.moveBy(paddle.getPosition());
 
                 if (bounds.intersects(paddleBounds)) {
                     velocity.setY(-Math.abs(velocity.getY()));
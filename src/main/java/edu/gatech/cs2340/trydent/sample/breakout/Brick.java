@@ -21,8 +21,8 @@ public class Brick extends Behavior {
     }
 
     public Rectangle getBounds() {
-        Rectangle r = getGameObject().getFeature(Rectangle.class);
-        r.setTopLeft(getGameObject().getPosition());
+        Rectangle r = getGameObject().getFeature(Rectangle.class).copy();
+        r.moveBy(getGameObject().getPosition());
         return r;
     }
 
@@ -0,0 +1,403 @@
+package edu.gatech.cs2340.trydent.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.gatech.cs2340.trydent.GameObject;
+import edu.gatech.cs2340.trydent.Time;
+import edu.gatech.cs2340.trydent.TrydentEngine;
+import edu.gatech.cs2340.trydent.animation.Animation;
+import edu.gatech.cs2340.trydent.animation.AnimationEvent;
+import edu.gatech.cs2340.trydent.animation.AnimationListener;
+import edu.gatech.cs2340.trydent.animation.AnimationMixer;
+import edu.gatech.cs2340.trydent.animation.KeyframeAnimation;
+import edu.gatech.cs2340.trydent.animation.Pose;
+import edu.gatech.cs2340.trydent.animation.PoseCache;
+import edu.gatech.cs2340.trydent.math.MathTools;
+import edu.gatech.cs2340.trydent.math.Orientation;
+import edu.gatech.cs2340.trydent.math.Position;
+import edu.gatech.cs2340.trydent.math.curve.IndexWrapMode;
+import edu.gatech.cs2340.trydent.math.curve.Interpolation;
+import edu.gatech.cs2340.trydent.math.curve.TimeWrapMode;
+
+/**
+ * Tests for playing animations on GameObjects through a headless engine, and
+ * for blending them. The engine is stepped at a fixed frame rate, so every
+ * frame advances the clock by exactly the same time.
+ */
+public class AnimationTest extends TestUtil {
+
+    // Length of a frame; every frame runs exactly one fixed step.
+    private static final double STEP = 0.01;
+
+    /**
+     * Moves from x = 0 to x = 100 * seconds at 100 units per second.
+     */
+    private static KeyframeAnimation slide(double seconds) {
+        return KeyframeAnimation.create().setInterpolation(Interpolation.STRAIGHT).setPosition(new Position(0, 0))
+                .addKeyframe(seconds).setPosition(new Position(100 * seconds, 0)).addKeyframe().build();
+    }
+
+    /**
+     * Moves along x and turns at constant speeds forever, counting its
+     * samples.
+     */
+    private static final class Clip implements Animation {
+        final double x, speed, rotation, turnSpeed;
+        final boolean threadSafe;
+        final AtomicInteger samples = new AtomicInteger();
+
+        Clip(double x, double speed, double rotation, double turnSpeed, boolean threadSafe) {
+            this.x = x;
+            this.speed = speed;
+            this.rotation = rotation;
+            this.turnSpeed = turnSpeed;
+            this.threadSafe = threadSafe;
+        }
+
+        static Clip still(double x, double rotation) {
+            return new Clip(x, 0, rotation, 0, true);
+        }
+
+        @Override
+        public double getDuration() {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        public Orientation sample(double time) {
+            return sample(time, new Pose()).toOrientation();
+        }
+
+        @Override
+        public Pose sample(double time, Pose result) {
+            samples.incrementAndGet();
+            return result.set(x + speed * time, 0, rotation + turnSpeed * time, 1, 1);
+        }
+
+        @Override
+        public boolean isThreadSafe() {
+            return threadSafe;
+        }
+
+        @Override
+        public void setIndexWrap(IndexWrapMode mode) {
+        }
+
+        @Override
+        public void setTimeWrap(TimeWrapMode mode) {
+        }
+    }
+
+    /**
+     * Returns the distance between two angles in degrees, the short way
+     * around.
+     */
+    private static double angleBetween(double a, double b) {
+        double difference = MathTools.wrapAngle(a - b);
+        return Math.min(difference, 360 - difference);
+    }
+
+    /**
+     * Runs frames of exactly one fixed step each.
+     */
+    @Before
+    public void useFixedSteps() {
+        TrydentEngine.setHeadlessFrameRate(1 / STEP);
+        Time.setFixedTimeStep(STEP);
+        TrydentEngine.step(1);
+    }
+
+    /**
+     * Records the events of an object's animations by name.
+     */
+    private static class Recorder implements AnimationListener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void animationEnded(AnimationEvent event) {
+            events.add("ended");
+        }
+
+        @Override
+        public void animationInterrupted(AnimationEvent event) {
+            events.add("interrupted");
+        }
+
+        @Override
+        public void animationLooped(AnimationEvent event) {
+            events.add("looped");
+        }
+
+        @Override
+        public void animationPaused(AnimationEvent event) {
+            events.add("paused");
+        }
+
+        @Override
+        public void animationStarted(AnimationEvent event) {
+            events.add("started");
+        }
+
+        @Override
+        public void animationStopped(AnimationEvent event) {
+            events.add("stopped");
+        }
+
+        @Override
+        public void animationUnpaused(AnimationEvent event) {
+            events.add("unpaused");
+        }
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        KeyframeAnimation slide = slide(100);
+        GameObject[] objects = new GameObject[6];
+        for (int i = 0; i < objects.length; i++) {
+            objects[i] = new GameObject("object" + i);
+            objects[i].loopAnimation(slide);
+        }
+        TrydentEngine.step(3);
+
+        // Removing objects from the middle moves others into their slots,
+        // which must keep playing.
+        objects[1].stopAnimation();
+        objects[2].destroy();
+        objects[4].setAnimationPaused(true);
+        double[] stoppedAt = new double[objects.length];
+        for (int i = 0; i < objects.length; i++) {
+            stoppedAt[i] = objects[i].getLocalPosition().getX();
+        }
+        TrydentEngine.step(3);
+        for (int i : new int[] { 0, 3, 5 }) {
+            assertTrue("object" + i + " stopped", objects[i].getLocalPosition().getX() > stoppedAt[i]);
+            assertEquals(objects[0].getLocalPosition().getX(), objects[i].getLocalPosition().getX(), 1e-9);
+        }
+        assertEquals(stoppedAt[1], objects[1].getLocalPosition().getX(), 0);
+        assertEquals(stoppedAt[4], objects[4].getLocalPosition().getX(), 0);
+
+        // Playing twice doesn't add an object twice, and stopped objects can
+        // start again.
+        objects[1].loopAnimation(slide);
+        objects[1].loopAnimation(slide);
+        TrydentEngine.step(3);
+        assertTrue(objects[1].getLocalPosition().getX() > 0);
+        assertTrue(objects[1].getLocalPosition().getX() < objects[0].getLocalPosition().getX());
+    }
+
+    @Test
+    public void testPauseShiftsStartTime() {
+        GameObject object = new GameObject();
+        Recorder recorder = new Recorder();
+        object.addAnimationListener(recorder);
+        object.playAnimation(slide(100));
+        TrydentEngine.step(5);
+
+        object.setAnimationPaused(true);
+        double pausedX = object.getLocalPosition().getX();
+        TrydentEngine.step(20);
+        assertEquals(pausedX, object.getLocalPosition().getX(), 0);
+
+        // The time spent paused doesn't count.
+        object.setAnimationPaused(false);
+        TrydentEngine.step(1);
+        assertEquals(pausedX + 100 * STEP, object.getLocalPosition().getX(), 1e-9);
+        assertEquals("[started, paused, unpaused]", recorder.events.toString());
+    }
+
+    @Test
+    public void testListenerRestartsAnimation() {
+        final GameObject object = new GameObject();
+        final GameObject other = new GameObject();
+        final KeyframeAnimation first = slide(0.02);
+        final KeyframeAnimation second = slide(100);
+        final List<String> ends = new ArrayList<>();
+        final double[] otherStoppedAt = new double[1];
+        object.addAnimationListener(new Recorder() {
+            @Override
+            public void animationEnded(AnimationEvent event) {
+                ends.add(event.animation == first ? "first ended" : "second ended");
+                // Restarts this object and one that may come later in the
+                // same frame's batch.
+                if (event.animation == first) {
+                    object.playAnimation(second);
+                    other.stopAnimation();
+                    otherStoppedAt[0] = other.getLocalPosition().getX();
+                }
+            }
+        });
+        object.playAnimation(first);
+        other.loopAnimation(second);
+        TrydentEngine.step(20);
+
+        // The new animation isn't ended by the frame that ended the old one,
+        // and the stopped object isn't moved again, not even by the rest of
+        // that frame.
+        assertEquals("[first ended]", ends.toString());
+        assertTrue(otherStoppedAt[0] > 0);
+        assertEquals(otherStoppedAt[0], other.getLocalPosition().getX(), 0);
+        double x = object.getLocalPosition().getX();
+        TrydentEngine.step(3);
+        assertTrue(object.getLocalPosition().getX() > x);
+        assertTrue(object.getLocalPosition().getX() < 100);
+        assertEquals(otherStoppedAt[0], other.getLocalPosition().getX(), 0);
+    }
+
+    @Test
+    public void testObjectsShareClip() {
+        // Objects at different points of the same clip each keep their own
+        // place in it.
+        KeyframeAnimation clip = KeyframeAnimation.create().setInterpolation(Interpolation.STRAIGHT)
+                .setPosition(new Position(0, 0)).addKeyframe(1).setPosition(new Position(10, 0)).addKeyframe(1)
+                .setPosition(new Position(10, 10)).addKeyframe(1).setPosition(new Position(0, 10)).addKeyframe()
+                .build();
+        Pose early = new Pose();
+        Pose late = new Pose();
+        for (int i = 0; i < 100; i++) {
+            double t = i * 0.01;
+            clip.sample(t, early);
+            clip.sample(t + 2, late);
+            assertEquals(10 * t, early.getX(), 1e-9);
+            assertEquals(0, early.getY(), 1e-9);
+            assertEquals(10 - 10 * t, late.getX(), 1e-9);
+            assertEquals(10, late.getY(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testMixerCrossFade() {
+        Clip idle = Clip.still(0, 0);
+        Clip run = Clip.still(100, 0);
+        AnimationMixer mixer = new AnimationMixer();
+        mixer.play(idle);
+        Pose pose = new Pose();
+        assertEquals(0, mixer.sample(0, pose).getX(), 1e-9);
+
+        // The weights move linearly across the fade, and the faded clip is
+        // dropped once the fade is over.
+        mixer.crossFade(run, 1);
+        for (int i = 0; i <= 4; i++) {
+            double t = i * 0.25;
+            mixer.sample(t, pose);
+            assertEquals(1 - t, mixer.getWeight(idle), 1e-9);
+            assertEquals(t, mixer.getWeight(run), 1e-9);
+            assertEquals(100 * t, pose.getX(), 1e-9);
+        }
+        assertFalse(mixer.isPlaying(idle));
+        assertEquals(1, mixer.getClipCount());
+
+        // Fading back in the middle of a fade starts from the current weight.
+        mixer.crossFade(idle, 1);
+        mixer.sample(1.5, pose);
+        mixer.crossFade(run, 1);
+        mixer.sample(2, pose);
+        assertEquals(0.25, mixer.getWeight(idle), 1e-9);
+        assertEquals(0.75, mixer.getWeight(run), 1e-9);
+        assertEquals(75, pose.getX(), 1e-9);
+    }
+
+    @Test
+    public void testMixerBlendsRotationShortWay() {
+        AnimationMixer mixer = new AnimationMixer();
+        mixer.setWeight(Clip.still(0, 350), 1);
+        Clip other = Clip.still(0, 10);
+        mixer.setWeight(other, 1);
+        Pose pose = new Pose();
+        assertEquals(0, angleBetween(0, mixer.sample(0, pose).getRotation()), 1e-9);
+
+        // 350 + 0.75 * 20, rather than the long way round through 180.
+        mixer.setWeight(other, 3);
+        assertEquals(0, angleBetween(5, mixer.sample(0, pose).getRotation()), 1e-9);
+    }
+
+    @Test
+    public void testMixerAddsAdditiveClips() {
+        AnimationMixer mixer = new AnimationMixer();
+        mixer.play(Clip.still(100, 90));
+        Pose pose = new Pose();
+        mixer.sample(1, pose);
+
+        // Only the change since the clip's first frame is added, scaled by
+        // the weight, from the time it is added; its turn from 350 to 10
+        // counts as 20 degrees.
+        Clip recoil = new Clip(5, 10, 350, 20, true);
+        mixer.addAdditive(recoil, 0.5);
+        assertEquals(100, mixer.sample(1, pose).getX(), 1e-9);
+        assertEquals(90, pose.getRotation(), 1e-9);
+        mixer.sample(2, pose);
+        assertEquals(105, pose.getX(), 1e-9);
+        assertEquals(0, pose.getY(), 1e-9);
+        assertEquals(100, pose.getRotation(), 1e-9);
+
+        // Replacing the blended clips leaves additive ones playing.
+        mixer.play(Clip.still(0, 0));
+        assertEquals(5, mixer.sample(2, pose).getX(), 1e-9);
+        mixer.stop(recoil);
+        assertEquals(0, mixer.sample(3, pose).getX(), 1e-9);
+    }
+
+    @Test
+    public void testPoseCacheHits() {
+        Clip clip = new Clip(0, 10, 0, 0, true);
+        PoseCache cache = new PoseCache(clip);
+        Pose first = new Pose();
+        Pose second = new Pose();
+        cache.sample(0.5, first);
+        cache.sample(0.5, second);
+        assertEquals(1, clip.samples.get());
+        assertEquals(5, second.getX(), 1e-9);
+        assertEquals(first.toString(), second.toString());
+
+        cache.sample(0.75, second);
+        assertEquals(2, clip.samples.get());
+        assertEquals(7.5, second.getX(), 1e-9);
+        cache.sample(0.5, first);
+        assertEquals(2, clip.samples.get());
+
+        // Changing the wrap modes through the cache forgets the samples.
+        cache.setTimeWrap(TimeWrapMode.CLAMP);
+        cache.sample(0.5, first);
+        assertEquals(3, clip.samples.get());
+        cache.clear();
+        cache.sample(0.5, first);
+        assertEquals(4, clip.samples.get());
+    }
+
+    @Test
+    public void testMixerSampledOncePerFrame() {
+        // Enough thread-safe animations to sample on the pool.
+        KeyframeAnimation slide = slide(100);
+        for (int i = 0; i < 2100; i++) {
+            new GameObject().loopAnimation(slide);
+        }
+        // Each mixer drops its only unsafe clip while being sampled, which
+        // makes it thread-safe in the middle of the frame.
+        Clip shared = Clip.still(0, 0);
+        int mixers = 10;
+        for (int i = 0; i < mixers; i++) {
+            AnimationMixer mixer = new AnimationMixer();
+            mixer.play(shared);
+            Clip unsafe = new Clip(0, 0, 0, 0, false);
+            mixer.setWeight(unsafe, 1);
+            mixer.fadeOut(unsafe, 0);
+            new GameObject().playAnimation(mixer);
+        }
+        for (int i = 0; i < 5; i++) {
+            int before = shared.samples.get();
+            TrydentEngine.step(1);
+            assertTrue("sampled " + (shared.samples.get() - before) + " times",
+                    shared.samples.get() - before <= mixers);
+        }
+        assertTrue(shared.samples.get() > 0);
+    }
+
+}
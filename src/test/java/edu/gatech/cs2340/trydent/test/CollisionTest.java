@@ -0,0 +1,186 @@
+package edu.gatech.cs2340.trydent.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.gatech.cs2340.trydent.CollisionIndex;
+import edu.gatech.cs2340.trydent.GameObject;
+import edu.gatech.cs2340.trydent.TrydentEngine;
+import edu.gatech.cs2340.trydent.math.Scale;
+import edu.gatech.cs2340.trydent.math.geom.Rectangle;
+import edu.gatech.cs2340.trydent.math.geom.SpatialGrid;
+
+/**
+ * Tests for the spatial grid and the GameObject collision index.
+ */
+public class CollisionTest extends TestUtil {
+
+    @Test
+    public void testGridQuery() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("a", 0, 0, 5, 5);
+        grid.insert("b", 25, 25, 30, 5);
+        grid.insert("c", 100, 100, 1, 1);
+
+        assertEquals(3, grid.size());
+        assertEquals("[a]", grid.query(new Rectangle(-5, -5, 6, 6)).toString());
+        assertEquals("[b]", grid.query(new Rectangle(50, 28, 1, 1)).toString());
+        // Boxes that only touch count as overlapping.
+        assertEquals("[a]", grid.query(new Rectangle(5, 5, 1, 1)).toString());
+        assertTrue(grid.query(new Rectangle(10, 10, 10, 10)).isEmpty());
+    }
+
+    @Test
+    public void testGridUpdateAndRemove() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("a", 0, 0, 5, 5);
+        grid.update("a", 40, 40, 5, 5);
+        assertTrue(grid.query(new Rectangle(0, 0, 5, 5)).isEmpty());
+        assertEquals("[a]", grid.query(new Rectangle(42, 42, 1, 1)).toString());
+
+        // Updating an unknown item inserts it.
+        grid.update("b", 0, 0, 1, 1);
+        assertTrue(grid.contains("b"));
+        assertTrue(grid.remove("a"));
+        assertFalse(grid.remove("a"));
+        assertFalse(grid.contains("a"));
+        assertEquals(1, grid.size());
+    }
+
+    @Test
+    public void testGridFreesEmptyCells() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("a", 0, 0, 5, 5);
+        grid.insert("b", 0, 0, 15, 5);
+        assertEquals(2, grid.getCellCount());
+
+        // Walk an item across many cells; only the cells under it stay.
+        for (int i = 0; i < 1000; i++) {
+            grid.update("a", i * 10 + 1, 1, 5, 5);
+        }
+        assertEquals(3, grid.getCellCount());
+        assertEquals("[a]", grid.query(new Rectangle(9992, 2, 1, 1)).toString());
+
+        grid.remove("a");
+        assertEquals(2, grid.getCellCount());
+        grid.remove("b");
+        assertEquals(0, grid.getCellCount());
+    }
+
+    @Test
+    public void testGridFreesCellsInCrowdedTable() {
+        // Many cells in a small area collide in the table, so removing cells
+        // has to keep the probe runs of the others intact.
+        SpatialGrid<String> grid = new SpatialGrid<>(1);
+        // Items are compared by identity, so keep the instances.
+        String[] items = new String[400];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = Integer.toString(i);
+            grid.insert(items[i], i % 20 + 0.5, i / 20 + 0.5, 0, 0);
+        }
+        assertEquals(400, grid.getCellCount());
+        for (int i = 0; i < items.length; i += 2) {
+            grid.remove(items[i]);
+        }
+        assertEquals(200, grid.getCellCount());
+        for (int i = 0; i < items.length; i++) {
+            List<String> hits = grid.query(new Rectangle(i % 20 + 0.25, i / 20 + 0.25, 0.5, 0.5));
+            assertEquals(i % 2 == 0 ? "[]" : "[" + i + "]", hits.toString());
+        }
+    }
+
+    @Test
+    public void testGridRaycast() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        grid.insert("near", 30, -5, 5, 10);
+        grid.insert("far", 60, -5, 5, 10);
+        grid.insert("off", 45, 20, 5, 5);
+
+        double[] distance = new double[1];
+        assertEquals("near", grid.raycast(0, 0, 1, 0, 100, distance));
+        assertEquals(30, distance[0], 1e-9);
+        assertEquals("far", grid.raycast(100, 0, -1, 0, 100, distance));
+        assertEquals(35, distance[0], 1e-9);
+        assertNull(grid.raycast(0, 0, 1, 0, 20, null));
+        assertNull(grid.raycast(0, 0, 0, 1, 100, null));
+    }
+
+    @Test
+    public void testGridOverlappingPairs() {
+        SpatialGrid<String> grid = new SpatialGrid<>(10);
+        // a and b share several cells but must be reported once.
+        grid.insert("a", 0, 0, 25, 25);
+        grid.insert("b", 5, 5, 25, 25);
+        grid.insert("c", 100, 100, 5, 5);
+        final List<String> pairs = new ArrayList<>();
+        grid.forEachOverlappingPair((x, y) -> pairs.add(x.compareTo(y) < 0 ? x + y : y + x));
+        assertEquals("[ab]", pairs.toString());
+    }
+
+    @Test
+    public void testIndexFollowsObjects() {
+        CollisionIndex index = new CollisionIndex(10);
+
+        GameObject a = new GameObject("a");
+        a.addFeature(new Rectangle(-5, -5, 10, 10));
+        a.setPosition(100, 100);
+        GameObject b = new GameObject("b");
+        b.addFeature(new Rectangle(0, 0, 10, 10));
+        index.refresh();
+        assertEquals(2, index.size());
+
+        // The Rectangle is local, so a's box is centered on its position.
+        assertEquals("[" + a + "]", index.query(new Rectangle(94, 94, 2, 2)).toString());
+        assertTrue(index.query(new Rectangle(-5, -5, 2, 2)).isEmpty());
+
+        // Moving a parent moves the boxes of its children.
+        GameObject parent = new GameObject("parent");
+        b.setParent(parent);
+        index.refresh();
+        parent.setPosition(50, 0);
+        parent.setScale(new Scale(2, 2));
+        index.refresh();
+        assertEquals("[" + b + "]", index.query(new Rectangle(68, 18, 1, 1)).toString());
+        assertTrue(index.query(new Rectangle(5, 5, 1, 1)).isEmpty());
+
+        // Changing the Rectangle itself is picked up too.
+        a.getFeature(Rectangle.class).setWidth(100);
+        index.refresh();
+        assertEquals("[" + a + "]", index.query(new Rectangle(190, 100, 1, 1)).toString());
+
+        a.destroy();
+        b.removeFeature(b.getFeature(Rectangle.class));
+        index.refresh();
+        assertEquals(0, index.size());
+        assertTrue(index.query(new Rectangle(-1000, -1000, 2000, 2000)).isEmpty());
+
+        index.stop();
+    }
+
+    @Test
+    public void testIndexRefreshesEveryFrame() {
+        CollisionIndex index = new CollisionIndex(10);
+        GameObject a = new GameObject("a");
+        a.addFeature(new Rectangle(0, 0, 4, 4));
+        TrydentEngine.step(2);
+        assertEquals(1, index.size());
+
+        a.setPosition(30, 30);
+        // Reading the transform cleans the world matrix, which must not hide
+        // the move from the index.
+        a.getPosition();
+        TrydentEngine.step(1);
+        assertEquals("[" + a + "]", index.query(new Rectangle(31, 31, 1, 1)).toString());
+        assertEquals("[]", index.query(new Rectangle(1, 1, 1, 1)).toString());
+
+        index.stop();
+    }
+
+}
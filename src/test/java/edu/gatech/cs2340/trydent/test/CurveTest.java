@@ -0,0 +1,315 @@
+package edu.gatech.cs2340.trydent.test;
+
+import static edu.gatech.cs2340.trydent.test.TestUtil.stringEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.gatech.cs2340.trydent.TrydentException;
+import edu.gatech.cs2340.trydent.math.BaseVector;
+import edu.gatech.cs2340.trydent.math.MathTools;
+import edu.gatech.cs2340.trydent.math.Position;
+import edu.gatech.cs2340.trydent.math.VectorMismatchException;
+import edu.gatech.cs2340.trydent.math.curve.ArbitraryTiming;
+import edu.gatech.cs2340.trydent.math.curve.BezierCurve;
+import edu.gatech.cs2340.trydent.math.curve.IndexWrapMode;
+import edu.gatech.cs2340.trydent.math.curve.Interpolation;
+import edu.gatech.cs2340.trydent.math.curve.SpanTime;
+import edu.gatech.cs2340.trydent.math.curve.SplineCurve;
+import edu.gatech.cs2340.trydent.math.curve.TimeWrapMode;
+import edu.gatech.cs2340.trydent.math.curve.UniformTiming;
+
+/**
+ * Tests for splines and their interpolation strategies.
+ */
+public class CurveTest {
+
+    /**
+     * A vector with three components, which the vector arena can't hold.
+     */
+    private static final class Vector3 extends BaseVector<Vector3> {
+        Vector3(double x, double y, double z) {
+            super(3);
+            set(x, y, z);
+        }
+
+        @Override
+        public Vector3 copy() {
+            return new Vector3(getComponent(0), getComponent(1), getComponent(2));
+        }
+    }
+
+    @Test
+    public void testSmoothInterpolation() {
+        Position[] points = { new Position(0, 0), new Position(1, 0), new Position(2, 1), new Position(3, 1) };
+        SplineCurve<BaseVector<?>> spline = new SplineCurve<BaseVector<?>>(Interpolation.SMOOTH,
+                IndexWrapMode.CLAMP, points);
+        stringEquals("(1.5, 0.5)", spline.sample(0.5));
+        stringEquals("(0.0, 0.0)", spline.sample(0));
+    }
+
+    @Test
+    public void testSmoothInterpolationIn3D() {
+        Vector3[] points = { new Vector3(0, 0, 0), new Vector3(1, 0, 1), new Vector3(2, 1, 2),
+                new Vector3(3, 1, 3) };
+        SplineCurve<BaseVector<?>> spline = new SplineCurve<BaseVector<?>>(Interpolation.SMOOTH,
+                IndexWrapMode.CLAMP, points);
+        stringEquals("<1.5, 0.5, 1.5>", spline.sample(0.5));
+        stringEquals("<0.0, 0.0, 0.0>", spline.sample(0));
+    }
+
+    private static SplineCurve<BaseVector<?>> spline(Interpolation<BaseVector<?>> interpolation, Position... points) {
+        return new SplineCurve<BaseVector<?>>(interpolation, IndexWrapMode.CLAMP, points);
+    }
+
+    @Test
+    public void testBakedSamplesMatchCurve() {
+        SplineCurve<BaseVector<?>> baked = spline(Interpolation.SMOOTH, new Position(0, 0), new Position(4, 8),
+                new Position(10, 2), new Position(16, 12));
+        SplineCurve<BaseVector<?>> exact = spline(Interpolation.SMOOTH, new Position(0, 0), new Position(4, 8),
+                new Position(10, 2), new Position(16, 12));
+        assertFalse(baked.isBaked());
+        baked.bake(512);
+        assertTrue(baked.isBaked());
+
+        Position result = new Position();
+        for (int i = 0; i < 100; i++) {
+            double t = i / 100.0;
+            BaseVector<?> expected = exact.sample(t);
+            assertTrue(baked.sample(t, result) == result);
+            assertEquals(expected.getComponent(0), result.getX(), 1e-3);
+            assertEquals(expected.getComponent(1), result.getY(), 1e-3);
+            BaseVector<?> allocated = baked.sample(t);
+            assertEquals(result.getX(), allocated.getComponent(0), 0);
+            assertEquals(result.getY(), allocated.getComponent(1), 0);
+        }
+    }
+
+    @Test
+    public void testBakedLength() {
+        SplineCurve<BaseVector<?>> spline = spline(Interpolation.STRAIGHT, new Position(0, 0), new Position(10, 0),
+                new Position(10, 10));
+        spline.bake(64);
+        assertEquals(20, spline.getLength(), 1e-9);
+
+        spline.bake(0);
+        assertFalse(spline.isBaked());
+        try {
+            spline.getLength();
+            assertTrue("Expected an exception for an unbaked spline!", false);
+        } catch (TrydentException e) {
+        }
+    }
+
+    @Test
+    public void testSampleByLengthIsEvenlySpaced() {
+        // The second span is ten times as long as the first, so sampling by
+        // time bunches up the points on the first span.
+        SplineCurve<BaseVector<?>> spline = spline(Interpolation.STRAIGHT, new Position(0, 0), new Position(1, 0),
+                new Position(11, 0));
+        spline.bake(100);
+        Position result = new Position();
+        assertEquals(1, spline.sample(0.5, result).getX(), 1e-9);
+        for (int i = 0; i < 10; i++) {
+            spline.sampleByLength(i / 10.0, result);
+            assertEquals(1.1 * i, result.getX(), 1e-9);
+            assertEquals(0, result.getY(), 1e-9);
+        }
+
+        SplineCurve<BaseVector<?>> curved = spline(Interpolation.SMOOTH, new Position(0, 0), new Position(1, 5),
+                new Position(9, 3), new Position(10, 10));
+        curved.bake(1000);
+        curved.setTimeWrap(TimeWrapMode.CLAMP);
+        // Measure the curve between evenly spaced values of s in small steps,
+        // since the chord between them cuts the corners.
+        Position previous = new Position();
+        curved.sampleByLength(0, previous);
+        double step = curved.getLength() / 10;
+        for (int i = 0; i < 10; i++) {
+            double travelled = 0;
+            for (int j = 1; j <= 50; j++) {
+                curved.sampleByLength((i + j / 50.0) / 10, result);
+                travelled += result.copy().subtract(previous).magnitude();
+                previous.set(result);
+            }
+            assertEquals(step, travelled, step * 0.01);
+        }
+    }
+
+    @Test
+    public void testBakeInvalidation() {
+        Position middle = new Position(5, 0);
+        SplineCurve<BaseVector<?>> spline = spline(Interpolation.STRAIGHT, new Position(0, 0), middle,
+                new Position(10, 0));
+        spline.bake(64);
+        Position result = new Position();
+        assertEquals(10, spline.getLength(), 1e-9);
+
+        // Changing the interpolation rebuilds the table.
+        spline.setInterpolation(Interpolation.SMOOTH);
+        assertTrue(spline.isBaked());
+        assertEquals(10, spline.getLength(), 1e-3);
+
+        // So does changing the index wrap; the table then picks up the moved
+        // point too.
+        spline.setInterpolation(Interpolation.STRAIGHT);
+        assertEquals(10, spline.getLength(), 1e-9);
+        middle.setY(5);
+        assertEquals(10, spline.getLength(), 1e-9);
+        spline.setIndexWrap(IndexWrapMode.WRAP);
+        assertEquals(2 * Math.sqrt(50), spline.getLength(), 1e-9);
+        assertEquals(5, spline.sample(0.5, result).getY(), 1e-9);
+
+        // Moving a point is only picked up once the spline is invalidated.
+        middle.setY(10);
+        assertEquals(5, spline.sample(0.5, result).getY(), 1e-9);
+        spline.invalidate();
+        assertEquals(10, spline.sample(0.5, result).getY(), 1e-9);
+        assertEquals(2 * Math.sqrt(125), spline.getLength(), 1e-9);
+    }
+
+    @Test
+    public void testBezierCurveMatchesMathTools() {
+        Random random = new Random(2340);
+        for (int degree = 0; degree <= 6; degree++) {
+            Position[] points = new Position[degree + 1];
+            for (int i = 0; i < points.length; i++) {
+                points[i] = new Position(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100);
+            }
+            BezierCurve<Position> curve = new BezierCurve<>(points);
+            assertEquals(degree, curve.getDegree());
+
+            int count = 33;
+            double[] x = new double[count];
+            double[] y = new double[count];
+            curve.sampleUniform(count, x, y);
+            Position result = new Position();
+            for (int i = 0; i < count; i++) {
+                double t = i / (count - 1.0);
+                Position expected = MathTools.bezier(t, points);
+                assertEquals(expected.getX(), curve.sample(t).getX(), 1e-9);
+                assertEquals(expected.getY(), curve.sample(t, result).getY(), 1e-9);
+                assertEquals(expected.getY(), curve.sampleComponent(t, 1), 1e-9);
+                assertEquals("degree " + degree + ", t=" + t, expected.getX(), x[i], 1e-9);
+                assertEquals("degree " + degree + ", t=" + t, expected.getY(), y[i], 1e-9);
+            }
+            // Off the curve's ends, too.
+            for (double t : new double[] { -0.5, 1.25 }) {
+                assertEquals(MathTools.bezier(t, points).getX(), curve.sample(t).getX(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testBezierCurveIn3D() {
+        Vector3[] points = { new Vector3(0, 0, 0), new Vector3(1, 2, 3), new Vector3(4, 0, -2) };
+        BezierCurve<Vector3> curve = new BezierCurve<>(points);
+        for (int i = 0; i <= 10; i++) {
+            double t = i / 10.0;
+            Vector3 expected = MathTools.bezier(t, points);
+            Vector3 actual = curve.sample(t);
+            for (int c = 0; c < 3; c++) {
+                assertEquals(expected.getComponent(c), actual.getComponent(c), 1e-9);
+            }
+        }
+
+        // The curve keeps its own copy of the points.
+        points[1].set(100, 100, 100);
+        assertEquals(1, curve.sample(0.5).getComponent(1), 1e-9);
+        try {
+            curve.sampleUniform(2, new double[2], new double[1]);
+            assertTrue("Expected vector mismatch exception!", false);
+        } catch (VectorMismatchException e) {
+        }
+        try {
+            new BezierCurve<Position>();
+            assertTrue("Expected an exception for a curve without points!", false);
+        } catch (TrydentException e) {
+        }
+    }
+
+    /**
+     * Returns times that move forward in small steps from 0 to the total,
+     * then back again, then jump around at random, a little past both ends
+     * too.
+     */
+    private static double[] lookupTimes(Random random, double total) {
+        int steps = 400;
+        double[] times = new double[3 * steps];
+        for (int i = 0; i < steps; i++) {
+            times[i] = total * (i + random.nextDouble()) / steps;
+            times[2 * steps - 1 - i] = times[i];
+            times[2 * steps + i] = total * (random.nextDouble() * 1.2 - 0.1);
+        }
+        return times;
+    }
+
+    /** Finds the span containing the time with a binary search over the span starts. */
+    private static int binarySearchSpan(double[] starts, double time) {
+        int index = Arrays.binarySearch(starts, time);
+        if (index < 0)
+            index = -index - 2;
+        return Math.max(0, Math.min(index, starts.length - 1));
+    }
+
+    @Test
+    public void testArbitraryTimingCursorMatchesBinarySearch() {
+        Random random = new Random(2340);
+        double[] durations = new double[20];
+        double[] starts = new double[durations.length];
+        double total = 0;
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = 0.1 + 2 * random.nextDouble();
+            starts[i] = total;
+            total += durations[i];
+        }
+        ArbitraryTiming timing = new ArbitraryTiming(durations);
+
+        SpanTime cursor = new SpanTime(0, 0);
+        int hint = durations.length - 1;
+        for (double time : lookupTimes(random, total)) {
+            int expected = binarySearchSpan(starts, time);
+            double clamped = Math.max(0, Math.min(time, total));
+            double spanTime = (clamped - starts[expected]) / durations[expected];
+
+            assertTrue(timing.transformTime(time, cursor) == cursor);
+            assertEquals("time " + time, expected, cursor.getIndex());
+            assertEquals(spanTime, cursor.getTime(), 1e-9);
+            SpanTime allocated = timing.transformTime(time);
+            assertEquals(expected, allocated.getIndex());
+            assertEquals(spanTime, allocated.getTime(), 1e-9);
+            hint = timing.findSpan(time, hint);
+            assertEquals(expected, hint);
+            assertEquals(spanTime, timing.getSpanTime(hint, time), 1e-9);
+        }
+    }
+
+    @Test
+    public void testUniformTimingCursorMatchesBinarySearch() {
+        int points = 9;
+        double[] starts = new double[points - 1];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = i / (points - 1.0);
+        }
+        UniformTiming timing = new UniformTiming(points);
+
+        Random random = new Random(2340);
+        SpanTime cursor = new SpanTime(0, 0);
+        for (double time : lookupTimes(random, 1)) {
+            // Uniform timings don't clamp.
+            if (time < 0 || time >= 1)
+                continue;
+            int expected = binarySearchSpan(starts, time);
+            timing.transformTime(time, cursor);
+            assertEquals("time " + time, expected, cursor.getIndex());
+            assertEquals((time - starts[expected]) * (points - 1), cursor.getTime(), 1e-9);
+            assertEquals(expected, timing.transformTime(time).getIndex());
+        }
+    }
+
+}
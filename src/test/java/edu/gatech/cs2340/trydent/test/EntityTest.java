@@ -0,0 +1,149 @@
+package edu.gatech.cs2340.trydent.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import edu.gatech.cs2340.trydent.GameObject;
+import edu.gatech.cs2340.trydent.TrydentException;
+import edu.gatech.cs2340.trydent.entity.Archetype;
+import edu.gatech.cs2340.trydent.entity.EntityHandle;
+
+/**
+ * Tests for storing entities in archetypes and reaching them through handles.
+ */
+public class EntityTest extends TestUtil {
+
+    /** Asserts that the archetype holds the given ids in this row order. */
+    private static void assertRows(Archetype archetype, int... ids) {
+        assertEquals(ids.length, archetype.size());
+        for (int row = 0; row < ids.length; row++) {
+            assertEquals(ids[row], archetype.getId(row));
+            assertEquals(row, archetype.getRow(ids[row]));
+        }
+    }
+
+    @Test
+    public void testCreateAndDestroy() {
+        Archetype archetype = new Archetype("x", "y");
+        assertEquals(2, archetype.getColumnCount());
+        int x = archetype.getColumnIndex("x");
+        int y = archetype.getColumnIndex("y");
+        stringEquals("y", archetype.getColumnName(y));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, archetype.create());
+            archetype.set(i, x, 10 * i);
+            archetype.set(i, y, -i);
+        }
+        assertRows(archetype, 0, 1, 2, 3);
+
+        // The last row moves into the freed one, with all its columns.
+        archetype.destroy(1);
+        assertRows(archetype, 0, 3, 2);
+        assertFalse(archetype.isAlive(1));
+        assertEquals(30, archetype.getColumn(x)[1], 0);
+        assertEquals(-3, archetype.getColumn(y)[1], 0);
+        assertEquals(20, archetype.get(2, x), 0);
+
+        // Freed ids are handed out again, with cleared components.
+        assertEquals(1, archetype.create());
+        assertRows(archetype, 0, 3, 2, 1);
+        assertEquals(0, archetype.get(1, x), 0);
+
+        archetype.destroyInOrder(0);
+        assertRows(archetype, 3, 2, 1);
+        assertEquals(30, archetype.get(3, x), 0);
+        assertEquals(-2, archetype.getColumn(y)[1], 0);
+        archetype.destroy(1);
+        assertRows(archetype, 3, 2);
+
+        try {
+            archetype.get(0, x);
+            assertTrue("Expected an exception for a destroyed entity!", false);
+        } catch (TrydentException e) {
+        }
+        try {
+            archetype.getColumnIndex("z");
+            assertTrue("Expected an exception for a missing column!", false);
+        } catch (TrydentException e) {
+        }
+    }
+
+    @Test
+    public void testStaleHandles() {
+        Archetype archetype = new Archetype("health");
+        GameObject first = new GameObject("first");
+        GameObject second = new GameObject("second");
+        int firstId = archetype.create(first);
+        int secondId = archetype.create(second);
+        EntityHandle handle = first.getFeature(EntityHandle.class);
+        assertSame(archetype, handle.getArchetype());
+        assertEquals(firstId, handle.getId());
+
+        handle.set(0, 5);
+        assertEquals(5, archetype.get(firstId, 0), 0);
+
+        // Destroying the entity unlinks the object, and moves the object of
+        // the last row along with its data.
+        archetype.destroy(firstId);
+        assertFalse(first.hasFeature(EntityHandle.class));
+        assertFalse(handle.isAlive());
+        assertSame(second, archetype.getGameObject(archetype.getRow(secondId)));
+
+        // The handle stays stale even once its id is reused.
+        assertEquals(firstId, archetype.create());
+        assertTrue(archetype.isAlive(firstId));
+        assertFalse(handle.isAlive());
+        assertNull(archetype.getGameObject(archetype.getRow(firstId)));
+        try {
+            handle.get(0);
+            assertTrue("Expected an exception for a stale handle!", false);
+        } catch (TrydentException e) {
+        }
+
+        // Entities of destroyed objects are cleaned up on request.
+        EntityHandle secondHandle = second.getFeature(EntityHandle.class);
+        second.destroy();
+        assertTrue(secondHandle.isAlive());
+        assertEquals(1, archetype.removeDestroyed());
+        assertFalse(secondHandle.isAlive());
+        assertRows(archetype, firstId);
+    }
+
+    @Test
+    public void testColumnsGrow() {
+        Archetype archetype = new Archetype("value");
+        double[] before = archetype.getColumn(0);
+        int count = 300;
+        for (int i = 0; i < count; i++) {
+            archetype.set(archetype.create(), 0, i);
+        }
+        assertEquals(count, archetype.size());
+        double[] column = archetype.getColumn(0);
+        assertTrue(column != before && column.length >= count);
+        for (int row = 0; row < count; row++) {
+            assertEquals(archetype.getId(row), column[row], 0);
+        }
+
+        // Destroying and creating again reuses ids rather than growing them.
+        for (int id = 0; id < count; id += 2) {
+            archetype.destroy(id);
+        }
+        for (int i = 0; i < count / 2; i++) {
+            int id = archetype.create();
+            assertTrue(id < count);
+            archetype.set(id, 0, id);
+        }
+        column = archetype.getColumn(0);
+        for (int row = 0; row < count; row++) {
+            assertEquals(archetype.getId(row), column[row], 0);
+        }
+        assertEquals(count, archetype.create());
+    }
+
+}
@@ -0,0 +1,228 @@
+package edu.gatech.cs2340.trydent.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.gatech.cs2340.trydent.GameObject;
+import edu.gatech.cs2340.trydent.TrydentException;
+
+/**
+ * Tests for adding, finding and removing the features of game objects.
+ */
+public class FeatureTest extends TestUtil {
+
+    private interface Named {
+        String getName();
+    }
+
+    private static class Part implements Named {
+        private final String name;
+
+        Part(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static class Wheel extends Part implements Comparable<Wheel> {
+        Wheel(String name) {
+            super(name);
+        }
+
+        @Override
+        public int compareTo(Wheel other) {
+            return getName().compareTo(other.getName());
+        }
+    }
+
+    private static class Motor {
+    }
+
+    /** Returns the sorted names of the given objects. */
+    private static List<String> names(Iterable<GameObject> objects) {
+        List<String> names = new ArrayList<>();
+        for (GameObject object : objects) {
+            names.add(object.getName());
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private static GameObject object(String name, Object... features) {
+        GameObject object = new GameObject(name);
+        for (Object feature : features) {
+            object.addFeature(feature);
+        }
+        return object;
+    }
+
+    private static <T> List<T> list(Iterable<T> items) {
+        List<T> list = new ArrayList<>();
+        for (T item : items) {
+            list.add(item);
+        }
+        return list;
+    }
+
+    @Test
+    public void testFeaturesFoundBySupertype() {
+        GameObject car = new GameObject("car");
+        Part body = new Part("body");
+        Wheel wheel = new Wheel("wheel");
+        car.addFeature(body);
+        car.addFeature(wheel);
+
+        assertSame(wheel, car.getFeature(Wheel.class));
+        assertSame(body, car.getFeature(Part.class));
+        assertSame(wheel, car.getFeature(Comparable.class));
+        assertTrue(car.hasFeature(Named.class));
+        assertFalse(car.hasFeature(Runnable.class));
+        assertNull(car.getFeature(String.class));
+
+        stringEquals("[body, wheel]", list(car.getFeatures(Part.class)));
+        stringEquals("[body, wheel]", list(car.getFeatures(Named.class)));
+        stringEquals("[body, wheel]", list(car.getFeatures(Object.class)));
+        stringEquals("[wheel]", list(car.getFeatures(Comparable.class)));
+        stringEquals("[]", list(car.getFeatures(Runnable.class)));
+
+        // Removing a feature takes it out under every type it was found by.
+        car.removeFeature(wheel);
+        stringEquals("[body]", list(car.getFeatures(Named.class)));
+        assertNull(car.getFeature(Comparable.class));
+        car.removeAllFeatures(Named.class);
+        assertFalse(car.hasFeature(Object.class));
+    }
+
+    @Test
+    public void testFeaturesViewIsLive() {
+        GameObject car = new GameObject("car");
+        car.addFeature(new Part("a"));
+        Iterable<Part> parts = car.getFeatures(Part.class);
+        assertSame(parts, car.getFeatures(Part.class));
+
+        car.addFeature(new Wheel("b"));
+        stringEquals("[a, b]", list(parts));
+        car.removeAllFeatures(Part.class);
+        stringEquals("[]", list(parts));
+    }
+
+    @Test
+    public void testChangeFeaturesWhileIterating() {
+        GameObject car = new GameObject("car");
+        for (String name : new String[] { "a", "b", "c" }) {
+            car.addFeature(new Part(name));
+        }
+
+        // Each iteration sees the features as they were when it started.
+        List<String> seen = new ArrayList<>();
+        for (Part part : car.getFeatures(Part.class)) {
+            seen.add(part.getName());
+            car.removeFeature(part);
+            car.addFeature(new Part(part.getName() + "2"));
+        }
+        stringEquals("[a, b, c]", seen);
+        stringEquals("[a2, b2, c2]", list(car.getFeatures(Part.class)));
+
+        Iterator<Part> parts = car.getFeatures(Part.class).iterator();
+        parts.next();
+        try {
+            parts.remove();
+            assertTrue("Expected the view to be read-only!", false);
+        } catch (UnsupportedOperationException e) {
+        }
+        assertEquals(3, list(car.getFeatures(Part.class)).size());
+    }
+
+    @Test
+    public void testQueryWithAndWithout() {
+        object("body", new Part("body"));
+        object("wheel", new Wheel("wheel"));
+        object("car", new Part("car"), new Motor());
+        object("motor", new Motor());
+        object("spare", new Wheel("a"), new Wheel("b"));
+
+        stringEquals("[body, car, spare, wheel]", names(GameObject.findAllWithFeature(Part.class)));
+        stringEquals("[body, car, spare, wheel]", names(GameObject.query().with(Named.class)));
+        stringEquals("[car]", names(GameObject.query().with(Part.class).with(Motor.class)));
+        stringEquals("[body, car]", names(GameObject.query().with(Named.class).without(Comparable.class)));
+        stringEquals("[motor]", names(GameObject.query().with(Motor.class).without(Part.class)));
+        stringEquals("[body]", names(GameObject.query().with(Part.class).without(Motor.class)
+                .without(Wheel.class)));
+        assertEquals(2, GameObject.query().with(Motor.class).count());
+        assertEquals(0, GameObject.query().with(Runnable.class).count());
+        stringEquals("[car, motor]", names(GameObject.query().with(Motor.class).toList()));
+
+        try {
+            GameObject.query().without(Motor.class).count();
+            assertTrue("Expected an exception for a query without required types!", false);
+        } catch (TrydentException e) {
+        }
+    }
+
+    @Test
+    public void testIndexFollowsRemovals() {
+        GameObject a = object("a", new Part("a"));
+        GameObject b = object("b", new Part("b"));
+        GameObject c = object("c", new Wheel("c1"), new Wheel("c2"));
+        List<GameObject> parts = GameObject.findAllWithFeature(Part.class);
+
+        // Destroying a moves c into a's place in the index, and removing
+        // c's features must then find it there.
+        a.destroy();
+        stringEquals("[b, c]", names(parts));
+        c.removeFeature(c.getFeature(Wheel.class));
+        stringEquals("[b, c]", names(parts));
+        c.removeAllFeatures(Part.class);
+        stringEquals("[b]", names(parts));
+        assertEquals(0, GameObject.query().with(Comparable.class).count());
+
+        // Destroyed objects keep their features, but aren't indexed again.
+        assertTrue(a.hasFeature(Part.class));
+        a.addFeature(new Motor());
+        assertEquals(0, GameObject.query().with(Motor.class).count());
+
+        c.addFeature(new Part("c3"));
+        b.removeFeature(b.getFeature(Part.class));
+        stringEquals("[c]", names(parts));
+        c.destroy();
+        assertTrue(parts.isEmpty());
+    }
+
+    @Test
+    public void testIndexClearedWhenEngineStops() {
+        GameObject old = object("old", new Part("old"));
+        List<GameObject> parts = GameObject.findAllWithFeature(Part.class);
+        assertEquals(1, parts.size());
+
+        stopEngine();
+        assertTrue(parts.isEmpty());
+        startEngine();
+        object("new", new Part("new"));
+        stringEquals("[new]", names(parts));
+
+        // Objects of the last run no longer take part in the index.
+        old.removeAllFeatures(Part.class);
+        old.destroy();
+        stringEquals("[new]", names(GameObject.query().with(Part.class)));
+    }
+
+}
@@ -4,12 +4,15 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
 import edu.gatech.cs2340.trydent.ContinuousEvent;
 import edu.gatech.cs2340.trydent.Time;
 import edu.gatech.cs2340.trydent.TrydentEngine;
+import edu.gatech.cs2340.trydent.UpdatePhase;
 import edu.gatech.cs2340.trydent.internal.TrydentInternalException;
 
 /**
@@ -304,4 +307,81 @@ public class LifecycleTest {
         assertTrue("Expected \"" + expected + "\", got \"" + text + "\"", text.equals(expected));
     }
 
+    @Test
+    public void testLifecycleSignals() throws Exception {
+        final List<String> messages = new LinkedList<String>();
+
+        new ContinuousEvent() {
+            @Override
+            public void onUpdate() {
+                TrydentEngine.quit();
+            }
+        };
+
+        CompletableFuture<Void> stopped = TrydentEngine.whenStopped();
+        stopped.thenRun(() -> messages.add("stopped"));
+
+        TrydentEngine.start();
+        TrydentEngine.whenFirstFrame().get(5, TimeUnit.SECONDS);
+
+        assertTrue("Engine did not stop in time", TrydentEngine.waitUntilEngineStops(5, TimeUnit.SECONDS));
+        assertTrue("Stop signal should be complete", stopped.isDone());
+        assertTrue("Stopped engine should report started", TrydentEngine.whenStarted().isDone());
+
+        String text = messages.toString();
+        String expected = "[stopped]";
+
+        assertTrue("Expected \"" + expected + "\", got \"" + text + "\"", text.equals(expected));
+    }
+
+    @Test
+    public void testPhaseOrder() {
+        final List<String> messages = new LinkedList<String>();
+
+        new ContinuousEvent(UpdatePhase.LATE_UPDATE) {
+            @Override
+            public void onUpdate() {
+                messages.add("late");
+                TrydentEngine.quit();
+            }
+        };
+        new ContinuousEvent(UpdatePhase.UPDATE, 5) {
+            @Override
+            public void onUpdate() {
+                messages.add("update5");
+            }
+        };
+        new ContinuousEvent() {
+            @Override
+            public void onUpdate() {
+                messages.add("update0");
+            }
+        };
+        new ContinuousEvent(UpdatePhase.UPDATE, -1) {
+            @Override
+            public void onUpdate() {
+                messages.add("update-1");
+            }
+        };
+        new ContinuousEvent(UpdatePhase.PRE_INPUT) {
+            @Override
+            public void onUpdate() {
+                messages.add("preInput");
+            }
+        };
+
+        TrydentEngine.start();
+
+        try {
+            TrydentEngine.waitUntilEngineStops();
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+
+        String text = messages.toString();
+        String expected = "[preInput, update-1, update0, update5, late]";
+
+        assertTrue("Expected \"" + expected + "\", got \"" + text + "\"", text.equals(expected));
+    }
+
 }
@@ -2,15 +2,27 @@ package edu.gatech.cs2340.trydent.test;
 
 import static edu.gatech.cs2340.trydent.test.TestUtil.objectEquals;
 import static edu.gatech.cs2340.trydent.test.TestUtil.stringEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 import org.junit.Test;
 
+import edu.gatech.cs2340.trydent.math.BatchMath;
 import edu.gatech.cs2340.trydent.math.IllegalComponentException;
 import edu.gatech.cs2340.trydent.math.MathTools;
+import edu.gatech.cs2340.trydent.math.Orientation;
 import edu.gatech.cs2340.trydent.math.Position;
+import edu.gatech.cs2340.trydent.math.Position2;
 import edu.gatech.cs2340.trydent.math.Scale;
 import edu.gatech.cs2340.trydent.math.Vector;
+import edu.gatech.cs2340.trydent.math.Vector2;
+import edu.gatech.cs2340.trydent.math.VectorArena;
 import edu.gatech.cs2340.trydent.math.VectorMismatchException;
 
 public class MathTest {
@@ -262,4 +274,120 @@ public class MathTest {
         }
     }
 
+    @Test
+    public void testVec2() {
+        stringEquals("(3.0, 5.0)", new Position2(1.0, 2.0).add(new Vector2(2.0, 3.0)));
+        stringEquals("<2.0, -1.0>", new Vector2(3.0, 1.0).subtract(1.0, 2.0));
+        stringEquals("(1.0, 1.0)", new Position2(0.25, 0.5).scale(4, 2));
+        stringEquals("(-5.0, 8.0)", new Position2(8.0, 5.0).rotate90());
+        stringEquals("(-5.0, 2.0)", new Position2(5.0, -2.0).rotate2D(180));
+        stringEquals("<0.0, 1.0>", new Vector2(0.0, 100.0).normalize());
+        stringEquals("<3.0, 0.0>", new Vector2(3.0, 4.0).projectToAxis(new Vector2(2.0, 0.0)));
+        stringEquals("<0.0, 4.0>", new Vector2(3.0, 4.0).projectOffAxis(new Vector2(2.0, 0.0)));
+        stringEquals("11.0", new Vector2(1.0, 2.0).dot(3.0, 4.0));
+
+        // Interoperating with BaseVectors.
+        stringEquals("(6.0, 8.0)", new Position2(new Vector(1.0, 2.0)).add(new Vector(5.0, 6.0)));
+        stringEquals("(1.5, 2.5)", new Position(1.0, 2.0).add(0.5, 0.5).set(new Position2(1.5, 2.5)));
+        objectEquals(new Vector(4.0, 7.0).toString(), new Vector2(4.0, 7.0).toVector().toString());
+    }
+
+    @Test
+    public void testBatchMath() {
+        double[] x = { 1.0, 0.0, 3.0 };
+        double[] y = { 0.0, -2.0, 4.0 };
+        double[] outX = new double[3];
+        double[] outY = new double[3];
+
+        BatchMath.lerp(x, y, 0.5, outX, 3);
+        stringEquals("[0.5, -1.0, 3.5]", Arrays.toString(outX));
+
+        BatchMath.rotate2D(x, y, 90, outX, outY, 3);
+        for (int i = 0; i < 3; i++) {
+            stringEquals(new Vector(x[i], y[i]).rotate90().toString(), new Vector(outX[i], outY[i]));
+        }
+
+        BatchMath.normalize(x, y, outX, outY, 3);
+        stringEquals("<0.6, 0.8>", new Vector(outX[2], outY[2]));
+
+        BatchMath.hermite(x, y, y, x, 0.25, outX, 3);
+        for (int i = 0; i < 3; i++) {
+            objectEquals(MathTools.hermite(x[i], y[i], y[i], x[i], 0.25), outX[i]);
+        }
+
+        boolean[] overlaps = new boolean[3];
+        int count = BatchMath.overlaps(new double[] { 0, 5, 10 }, new double[] { 0, 5, 10 },
+                new double[] { 2, 7, 12 }, new double[] { 2, 7, 12 }, 2, 2, 6, 6, overlaps, 3);
+        objectEquals(2, count);
+        stringEquals("[true, true, false]", Arrays.toString(overlaps));
+
+        try {
+            BatchMath.lerp(x, y, 0.5, new double[2], 3);
+            assertTrue("Expected vector mismatch exception!", false);
+        } catch (VectorMismatchException e) {
+        }
+    }
+
+    @Test
+    public void testVectorArenaReusesPerFrame() {
+        VectorArena.advanceFrame();
+        VectorArena arena = VectorArena.current();
+        assertSame(arena, VectorArena.current());
+
+        // Within a frame, every scratch object is a different one, even once
+        // the arena has grown.
+        Set<Object> handedOut = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        Vector first = arena.vector(1, 2);
+        handedOut.add(first);
+        for (int i = 0; i < 40; i++) {
+            handedOut.add(arena.vector(i, i));
+            handedOut.add(arena.position(i, i));
+        }
+        objectEquals(81, handedOut.size());
+        stringEquals("<1.0, 2.0>", first);
+
+        // The next frame hands the same objects out again.
+        VectorArena.advanceFrame();
+        Vector again = arena.vector(3, 4);
+        assertSame(first, again);
+        stringEquals("<3.0, 4.0>", first);
+        Scale scale = arena.scale(2, 3);
+        Orientation orientation = arena.orientation(1, 2, 90, 2, 3);
+        arena.reset();
+        assertSame(scale, arena.scale(4, 5));
+        assertSame(orientation, arena.orientation(new Orientation(new Position(5, 6), 45, new Scale(1, 1))));
+        stringEquals("(5.0, 6.0)", orientation.getPosition());
+        objectEquals(45.0, orientation.getRotation());
+        assertSame(first, arena.vector(0, 0));
+    }
+
+    @Test
+    public void testVectorArenaPerThread() throws InterruptedException {
+        VectorArena.advanceFrame();
+        final VectorArena arena = VectorArena.current();
+        final Vector mine = arena.vector(1, 1);
+        final Object[] theirs = new Object[3];
+        Thread other = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                VectorArena otherArena = VectorArena.current();
+                theirs[0] = otherArena;
+                theirs[1] = otherArena.vector(2, 2);
+                VectorArena.advanceFrame();
+                // A new frame resets every thread's arena.
+                theirs[2] = otherArena.vector(3, 3);
+            }
+        });
+        other.start();
+        other.join();
+
+        assertNotSame(arena, theirs[0]);
+        assertNotSame(mine, theirs[1]);
+        assertSame(theirs[1], theirs[2]);
+        // The other thread's objects are left alone, and this thread's arena
+        // saw the new frame too.
+        stringEquals("<1.0, 1.0>", mine);
+        assertSame(mine, arena.vector(4, 4));
+    }
+
 }
@@ -0,0 +1,155 @@
+package edu.gatech.cs2340.trydent.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import edu.gatech.cs2340.trydent.Behavior;
+import edu.gatech.cs2340.trydent.GameObject;
+import edu.gatech.cs2340.trydent.ParallelBehavior;
+import edu.gatech.cs2340.trydent.TrydentEngine;
+import edu.gatech.cs2340.trydent.UpdatePhase;
+import edu.gatech.cs2340.trydent.math.geom.Rectangle;
+
+/**
+ * Tests for running parallel behaviors in waves and committing their changes.
+ */
+public class ParallelTest extends TestUtil {
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<String>());
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger mostRunning = new AtomicInteger();
+    private final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+    /**
+     * A behavior that logs its updates and commits, and keeps track of how
+     * many recording behaviors update at the same time.
+     */
+    private class Recorder extends ParallelBehavior {
+        private final String name;
+
+        Recorder(String name, GameObject object) {
+            super(object);
+            this.name = name;
+        }
+
+        @Override
+        public void onUpdate() {
+            int now = running.incrementAndGet();
+            mostRunning.accumulateAndGet(now, Math::max);
+            log.add(name);
+            threads.add(Thread.currentThread());
+            // Give overlapping updates a chance to show.
+            long end = System.nanoTime() + 200000;
+            while (System.nanoTime() < end) {
+            }
+            running.decrementAndGet();
+            commit(() -> log.add("commit " + name));
+        }
+    }
+
+    @Test
+    public void testSharedObjectRunsInOrder() {
+        GameObject shared = new GameObject("shared");
+        for (int i = 0; i < 8; i++) {
+            new Recorder("" + i, shared);
+        }
+        TrydentEngine.step(1);
+        log.clear();
+        threads.clear();
+        mostRunning.set(0);
+
+        // Without declarations, behaviors of one object each get their own
+        // wave, and a wave of one runs on the engine thread.
+        TrydentEngine.step(1);
+        stringEquals("[0, 1, 2, 3, 4, 5, 6, 7]", log.subList(0, 8));
+        assertEquals(1, mostRunning.get());
+        for (Thread thread : threads) {
+            assertSame(Thread.currentThread(), thread);
+        }
+    }
+
+    @Test
+    public void testDeclaredWritesSplitWaves() {
+        List<Recorder> recorders = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            recorders.add(new Recorder("" + i, new GameObject("object " + i)));
+        }
+        // 0, 2 and 4 share a feature type, so they run one after the other;
+        // 3 also writes to 4's object, so 4 waits for it too.
+        recorders.get(0).declareWrites(Rectangle.class);
+        recorders.get(2).declareWrites(Rectangle.class, recorders.get(2).getGameObject());
+        recorders.get(3).declareWrites(recorders.get(4).getGameObject());
+        recorders.get(4).declareWrites(Rectangle.class, recorders.get(4).getGameObject());
+        TrydentEngine.step(1);
+        log.clear();
+        threads.clear();
+
+        TrydentEngine.step(1);
+        List<String> updates = new ArrayList<>(log.subList(0, 6));
+        assertTrue(updates.indexOf("0") < updates.indexOf("2"));
+        assertTrue(updates.indexOf("2") < updates.indexOf("4"));
+        assertTrue(updates.indexOf("3") < updates.indexOf("4"));
+        // 4 is alone in the last wave.
+        assertEquals("4", updates.get(5));
+        assertSame(Thread.currentThread(), threads.get(5));
+
+        // Thread-safe behaviors ignore their declarations.
+        for (Recorder recorder : recorders) {
+            recorder.declareWrites(Rectangle.class);
+        }
+        recorders.get(5).setThreadSafe(true);
+        TrydentEngine.step(1);
+        log.clear();
+        TrydentEngine.step(1);
+        stringEquals("[0, 1, 2, 3, 4]", withoutItem(log.subList(0, 6), "5"));
+    }
+
+    @Test
+    public void testCommitsRunAfterBucket() {
+        for (int i = 0; i < 4; i++) {
+            new Recorder("" + i, new GameObject("object " + i));
+        }
+        final GameObject mover = new GameObject("mover");
+        new ParallelBehavior(mover) {
+            @Override
+            public void onUpdate() {
+                log.add("mover");
+                commit(() -> {
+                    mover.setPosition(mover.getPosition().getX() + 1, 0);
+                    // Committed actions can commit more.
+                    commit(() -> log.add("commit mover " + mover.getPosition().getX()));
+                });
+            }
+        };
+        new Behavior(mover, UpdatePhase.UPDATE, 1) {
+            @Override
+            public void onUpdate() {
+                log.add("next priority");
+            }
+        };
+        TrydentEngine.step(1);
+        log.clear();
+
+        TrydentEngine.step(1);
+        assertEquals(11, log.size());
+        for (String update : log.subList(0, 5)) {
+            assertTrue(update, !update.startsWith("commit"));
+        }
+        stringEquals("[commit 0, commit 1, commit 2, commit 3, commit mover 2.0, next priority]", log.subList(5, 11));
+    }
+
+    private static List<String> withoutItem(List<String> items, String item) {
+        List<String> rest = new ArrayList<>(items);
+        rest.remove(item);
+        return rest;
+    }
+
+}
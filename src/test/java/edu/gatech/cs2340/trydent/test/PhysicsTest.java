@@ -0,0 +1,218 @@
+package edu.gatech.cs2340.trydent.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.gatech.cs2340.trydent.GameObject;
+import edu.gatech.cs2340.trydent.physics.ContactBatch;
+import edu.gatech.cs2340.trydent.physics.ContactListener;
+import edu.gatech.cs2340.trydent.physics.PhysicsWorld;
+
+/**
+ * Tests for stepping a physics world and delivering its contacts.
+ */
+public class PhysicsTest extends TestUtil {
+
+    private static PhysicsWorld newWorld() {
+        PhysicsWorld world = new PhysicsWorld();
+        world.setAutoStep(false);
+        return world;
+    }
+
+    /**
+     * Records the contacts of every step as "a-b:nx,ny" strings, resolving
+     * the linked objects as it goes.
+     */
+    private static final class Recorder implements ContactListener {
+        final List<String> contacts = new ArrayList<>();
+
+        @Override
+        public void onContacts(ContactBatch batch) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.getGameObjectA(i);
+                batch.getGameObjectB(i);
+                contacts.add(batch.getBodyA(i) + "-" + batch.getBodyB(i) + ":" + (int) batch.getNormalX(i) + ","
+                        + (int) batch.getNormalY(i));
+            }
+        }
+    }
+
+    @Test
+    public void testSweptHitDoesNotTunnel() {
+        PhysicsWorld world = newWorld();
+        int wall = world.createStaticBody(100, 0, 0.5, 50);
+        int ball = world.createBody(0, 0, 2, 2, 1);
+        world.setRestitution(ball, 1);
+        world.setVelocity(ball, 10000, 0);
+        Recorder recorder = new Recorder();
+        world.addContactListener(recorder);
+
+        // The ball would move 1000 units in one step, far past the wall.
+        world.step(0.1);
+        assertTrue("ball went through the wall: x = " + world.getX(ball), world.getX(ball) < 100);
+        assertEquals(-10000, world.getVelocityX(ball), 1e-6);
+        assertEquals("[" + ball + "-" + wall + ":-1,0]", recorder.contacts.toString());
+    }
+
+    @Test
+    public void testSweptHitStopsAtNearestBody() {
+        PhysicsWorld world = newWorld();
+        int far = world.createStaticBody(50, 0, 1, 10);
+        int near = world.createStaticBody(20, 0, 1, 10);
+        int ball = world.createBody(0, 0, 1, 1, 1);
+        world.setVelocity(ball, 1000, 0);
+        Recorder recorder = new Recorder();
+        world.addContactListener(recorder);
+
+        world.step(0.1);
+        assertEquals(18, world.getX(ball), 1e-3);
+        assertEquals(0, world.getVelocityX(ball), 1e-9);
+        assertEquals("[" + ball + "-" + near + ":-1,0]", recorder.contacts.toString());
+        assertFalse(recorder.contacts.toString().contains("-" + far + ":"));
+    }
+
+    @Test
+    public void testSleepAndWake() {
+        PhysicsWorld world = newWorld();
+        world.setGravity(0, 100);
+        world.createStaticBody(0, 100, 50, 5);
+        int box = world.createBody(0, 0, 5, 5, 1);
+        for (int i = 0; i < 120; i++) {
+            world.step(1 / 60.0);
+        }
+        assertTrue(world.isSleeping(box));
+        assertEquals(90, world.getY(box), 1e-3);
+
+        // Sleeping bodies stay put, even under gravity.
+        world.step(1 / 60.0);
+        assertEquals(90, world.getY(box), 1e-3);
+
+        world.setVelocity(box, 0, -50);
+        assertFalse(world.isSleeping(box));
+        world.step(1 / 60.0);
+        assertTrue(world.getY(box) < 90);
+    }
+
+    @Test
+    public void testObjectFollowsBodyToRest() {
+        PhysicsWorld world = newWorld();
+        world.setGravity(0, 100);
+        world.createStaticBody(0, 100, 50, 5);
+        GameObject crate = new GameObject("crate");
+        int box = world.createBody(crate, 5, 5, 1);
+        // Slower than the sleep speed, so the box keeps creeping along the
+        // floor until the step it falls asleep in.
+        world.setVelocity(box, 0.5, 0);
+        for (int i = 0; i < 120 && !world.isSleeping(box); i++) {
+            world.step(1 / 60.0);
+        }
+        assertTrue(world.isSleeping(box));
+        assertTrue(world.getX(box) > 0);
+        assertEquals(90, world.getY(box), 1e-3);
+        assertEquals(world.getX(box), crate.getPosition().getX(), 1e-9);
+        assertEquals(world.getY(box), crate.getPosition().getY(), 1e-9);
+
+        // The object stays where the body went to sleep.
+        world.step(1 / 60.0);
+        assertEquals(world.getX(box), crate.getPosition().getX(), 1e-9);
+    }
+
+    @Test
+    public void testHitWakesSleepingBody() {
+        PhysicsWorld world = newWorld();
+        int sleeper = world.createBody(100, 0, 5, 5, 1);
+        for (int i = 0; i < 60; i++) {
+            world.step(0.02);
+        }
+        assertTrue(world.isSleeping(sleeper));
+
+        int ball = world.createBody(0, 0, 5, 5, 1);
+        world.setVelocity(ball, 200, 0);
+        for (int i = 0; i < 30 && world.isSleeping(sleeper); i++) {
+            world.step(0.02);
+        }
+        assertFalse(world.isSleeping(sleeper));
+        // Equal masses without restitution share the ball's momentum.
+        assertEquals(100, world.getVelocityX(sleeper), 1e-6);
+        assertEquals(100, world.getVelocityX(ball), 1e-6);
+    }
+
+    @Test
+    public void testOverlappingBodiesArePushedApart() {
+        PhysicsWorld world = newWorld();
+        int a = world.createBody(0, 0, 5, 5, 1);
+        int b = world.createBody(8, 0, 5, 5, 1);
+        Recorder recorder = new Recorder();
+        world.addContactListener(recorder);
+        world.step(0.01);
+        assertEquals(-1, world.getX(a), 1e-9);
+        assertEquals(9, world.getX(b), 1e-9);
+        assertEquals(1, recorder.contacts.size());
+    }
+
+    @Test
+    public void testDestroyedObjectsLeaveDuringStep() {
+        PhysicsWorld world = newWorld();
+        GameObject first = new GameObject("first");
+        first.setPosition(0, 0);
+        GameObject second = new GameObject("second");
+        second.setPosition(8, 0);
+        GameObject wallObject = new GameObject("wall");
+        wallObject.setPosition(30, 0);
+        int a = world.createBody(first, 5, 5, 1);
+        int b = world.createBody(second, 5, 5, 1);
+        int wall = world.createStaticBody(wallObject, 1, 30);
+        int ball = world.createBody(0, 20, 1, 1, 1);
+        Recorder recorder = new Recorder();
+        world.addContactListener(recorder);
+
+        // Overlapping awake bodies and a swept hit against a static body
+        // whose objects are destroyed must not produce contacts, since the
+        // bodies are gone by the time listeners run.
+        second.destroy();
+        wallObject.destroy();
+        world.setVelocity(ball, 1000, 0);
+        world.step(0.1);
+        assertFalse(world.isAlive(b));
+        assertFalse(world.isAlive(wall));
+        assertTrue(world.isAlive(a));
+        assertEquals(2, world.getBodyCount());
+        for (String contact : recorder.contacts) {
+            assertFalse(contact, contact.startsWith(b + "-") || contact.contains("-" + b + ":"));
+            assertFalse(contact, contact.contains("-" + wall + ":"));
+        }
+        // Nothing was left to push the first body or stop the ball.
+        assertEquals(0, world.getX(a), 1e-9);
+        assertEquals(100, world.getX(ball), 1e-9);
+    }
+
+    @Test
+    public void testListenerMayRemoveBodies() {
+        PhysicsWorld world = newWorld();
+        final int wall = world.createStaticBody(20, 0, 1, 10);
+        int ball = world.createBody(0, 0, 1, 1, 1);
+        world.setVelocity(ball, 1000, 0);
+        world.addContactListener(new ContactListener() {
+            @Override
+            public void onContacts(ContactBatch contacts) {
+                for (int i = 0; i < contacts.size(); i++) {
+                    PhysicsWorld w = contacts.getWorld();
+                    if (w.isAlive(contacts.getBodyB(i)))
+                        w.removeBody(contacts.getBodyB(i));
+                }
+            }
+        });
+        world.step(0.1);
+        assertFalse(world.isAlive(wall));
+        world.setVelocity(ball, 1000, 0);
+        world.step(0.1);
+        assertTrue(world.getX(ball) > 20);
+    }
+
+}
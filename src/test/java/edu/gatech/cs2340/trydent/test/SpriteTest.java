@@ -0,0 +1,149 @@
+package edu.gatech.cs2340.trydent.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+import org.junit.Test;
+
+import edu.gatech.cs2340.trydent.SpriteAtlas;
+import edu.gatech.cs2340.trydent.SpriteBatch;
+import edu.gatech.cs2340.trydent.TrydentException;
+import edu.gatech.cs2340.trydent.math.geom.Rectangle;
+
+/**
+ * Tests for packing sprite atlases and drawing sprite batches.
+ */
+public class SpriteTest extends TestUtil {
+
+    private static SpriteAtlas atlas(int... sizes) {
+        Image[] images = new Image[sizes.length / 2];
+        for (int i = 0; i < images.length; i++) {
+            images[i] = new WritableImage(sizes[2 * i], sizes[2 * i + 1]);
+        }
+        return new SpriteAtlas(images);
+    }
+
+    private static void assertBounds(double left, double top, double right, double bottom, Rectangle bounds) {
+        assertEquals(left, bounds.getLeft(), 1e-9);
+        assertEquals(top, bounds.getTop(), 1e-9);
+        assertEquals(right, bounds.getRight(), 1e-9);
+        assertEquals(bottom, bounds.getBottom(), 1e-9);
+    }
+
+    @Test
+    public void testAtlasPacking() {
+        int[] sizes = { 10, 30, 20, 10, 30, 20, 5, 5, 12, 30, 1, 1 };
+        SpriteAtlas atlas = atlas(sizes);
+        Image image = atlas.getImage();
+        assertEquals(6, atlas.getFrameCount());
+
+        for (int i = 0; i < atlas.getFrameCount(); i++) {
+            assertEquals(sizes[2 * i], atlas.getFrameWidth(i), 0);
+            assertEquals(sizes[2 * i + 1], atlas.getFrameHeight(i), 0);
+            assertTrue(atlas.getFrameX(i) >= 0 && atlas.getFrameY(i) >= 0);
+            assertTrue(atlas.getFrameX(i) + atlas.getFrameWidth(i) <= image.getWidth());
+            assertTrue(atlas.getFrameY(i) + atlas.getFrameHeight(i) <= image.getHeight());
+            // Frames are at least a pixel apart.
+            for (int j = 0; j < i; j++) {
+                boolean apart = atlas.getFrameX(i) >= atlas.getFrameX(j) + atlas.getFrameWidth(j) + 1
+                        || atlas.getFrameX(j) >= atlas.getFrameX(i) + atlas.getFrameWidth(i) + 1
+                        || atlas.getFrameY(i) >= atlas.getFrameY(j) + atlas.getFrameHeight(j) + 1
+                        || atlas.getFrameY(j) >= atlas.getFrameY(i) + atlas.getFrameHeight(i) + 1;
+                assertTrue("frames " + j + " and " + i + " touch", apart);
+            }
+        }
+
+        // The rows aim for the width of a square atlas, 41 pixels here. The
+        // tallest frames share the first shelf, and each new shelf starts a
+        // pixel below the tallest frame of the last.
+        assertEquals(0, atlas.getFrameY(0), 0);
+        assertEquals(11, atlas.getFrameX(4), 0);
+        assertEquals(0, atlas.getFrameY(4), 0);
+        assertEquals(31, atlas.getFrameY(2), 0);
+        for (int i : new int[] { 1, 3, 5 }) {
+            assertEquals(52, atlas.getFrameY(i), 0);
+        }
+        assertEquals(30, image.getWidth(), 0);
+        assertEquals(62, image.getHeight(), 0);
+    }
+
+    @Test
+    public void testAtlasChecksFrames() {
+        SpriteAtlas atlas = atlas(4, 4, 2, 2);
+        assertEquals(2, atlas.getFrameCount());
+        try {
+            atlas.getFrameX(2);
+            assertTrue("Expected an exception for a missing frame!", false);
+        } catch (TrydentException e) {
+        }
+        try {
+            new SpriteAtlas(new Image[0]);
+            assertTrue("Expected an exception for an empty atlas!", false);
+        } catch (TrydentException e) {
+        }
+    }
+
+    @Test
+    public void testBatchKeepsDrawingOrder() {
+        SpriteBatch batch = new SpriteBatch(atlas(10, 10), 100, 100);
+        int[] ids = new int[6];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = batch.add(0, i, 0);
+        }
+
+        batch.remove(ids[1]);
+        batch.remove(ids[4]);
+        assertFalse(batch.isAlive(ids[1]));
+        assertEquals(4, batch.getSpriteCount());
+        int[] left = { 0, 2, 3, 5 };
+        for (int i = 0; i < left.length; i++) {
+            assertEquals(ids[left[i]], batch.getSpriteId(i));
+            assertEquals(left[i], batch.getX(batch.getSpriteId(i)), 0);
+        }
+
+        // New sprites go on top, even when they reuse a removed sprite's id.
+        int top = batch.add(0, 50, 50);
+        assertEquals(top, batch.getSpriteId(4));
+        batch.clear();
+        assertEquals(0, batch.getSpriteCount());
+    }
+
+    @Test
+    public void testBatchBoundsAndCulling() {
+        SpriteBatch batch = new SpriteBatch(atlas(10, 20), 100, 100);
+
+        int plain = batch.add(0, 50, 50);
+        assertBounds(50, 50, 60, 70, batch.getBounds(plain));
+
+        // Sprites turn and scale about their top-left corner.
+        int turned = batch.add(0, 50, 50);
+        batch.setRotation(turned, 90);
+        batch.setScale(turned, 2, 1);
+        assertBounds(30, 50, 50, 70, batch.getBounds(turned));
+        int flipped = batch.add(0, 5, 50);
+        batch.setScale(flipped, -1, 1);
+        assertBounds(-5, 50, 5, 70, batch.getBounds(flipped));
+        assertEquals(3, batch.draw());
+
+        // Sprites entirely off the canvas aren't drawn, rotated or not.
+        int right = batch.add(0, 101, 0);
+        int mirrored = batch.add(0, -1, 0);
+        batch.setScale(mirrored, -1, 1);
+        int spun = batch.add(0, 150, 50);
+        batch.setRotation(spun, 180);
+        assertBounds(140, 30, 150, 50, batch.getBounds(spun));
+        assertEquals(3, batch.draw());
+
+        // Turning a sprite can bring it onto the canvas.
+        batch.setPosition(right, 105, 0);
+        batch.setRotation(right, 90);
+        assertEquals(4, batch.draw());
+        batch.setCanvasSize(200, 100);
+        assertEquals(5, batch.draw());
+    }
+
+}
@@ -2,12 +2,47 @@ package edu.gatech.cs2340.trydent.test;
 
 import static org.junit.Assert.assertTrue;
 
+import org.junit.After;
+import org.junit.Before;
+
+import edu.gatech.cs2340.trydent.Time;
+import edu.gatech.cs2340.trydent.TrydentEngine;
+
 /**
  * Utility class for unit tests, with methods that provide more verbose output
  * when test-cases fail.
+ * <p>
+ * Test classes that need a running engine extend this class: each of their
+ * tests then runs on a headless engine that has run one frame, and the
+ * engine is stopped afterwards even if the test fails, so that it doesn't
+ * leak into later tests.
  */
 public class TestUtil {
 
+    /**
+     * Starts a headless engine and runs its first frame.
+     */
+    @Before
+    public void startEngine() {
+        TrydentEngine.setHeadless(true);
+        TrydentEngine.step(1);
+    }
+
+    /**
+     * Stops the engine, and resets the clock settings tests may have changed.
+     */
+    @After
+    public void stopEngine() {
+        if (TrydentEngine.isRunning()) {
+            TrydentEngine.quit();
+            TrydentEngine.step(1);
+        }
+        TrydentEngine.setHeadlessFrameRate(0);
+        Time.setFixedTimeStep(0);
+        Time.setMaxStepsPerFrame(5);
+        Time.setFrameBudget(0);
+    }
+
     /**
      * Asserts that two strings are equal.
      *
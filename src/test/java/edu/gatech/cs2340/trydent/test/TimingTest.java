@@ -2,13 +2,36 @@ package edu.gatech.cs2340.trydent.test;
 
 
 import static edu.gatech.cs2340.trydent.test.TestUtil.objectEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
 
+import edu.gatech.cs2340.trydent.ContinuousEvent;
+import edu.gatech.cs2340.trydent.FrameTime;
+import edu.gatech.cs2340.trydent.Time;
+import edu.gatech.cs2340.trydent.TrydentEngine;
+import edu.gatech.cs2340.trydent.TrydentException;
 import edu.gatech.cs2340.trydent.math.curve.IndexWrapMode;
 import edu.gatech.cs2340.trydent.math.curve.TimeWrapMode;
 
-public class TimingTest {
+public class TimingTest extends TestUtil {
+
+    /**
+     * Records the time step seen by every update.
+     */
+    private static final class StepRecorder extends ContinuousEvent {
+        final List<Double> steps = new ArrayList<>();
+
+        @Override
+        public void onUpdate() {
+            steps.add(Time.getTimePassed());
+        }
+    }
 
     @Test
     public void testIndexClamp() {
@@ -97,4 +120,196 @@ public class TimingTest {
         objectEquals(7.0, m.handle(17.0 + 10.0*11.0, 10.0));
     }
 
+    @Test
+    public void testFixedStepsPerFrame() {
+        StepRecorder recorder = new StepRecorder();
+        TrydentEngine.setHeadlessFrameRate(60);
+        Time.setFixedTimeStep(1 / 120.0);
+        TrydentEngine.step(1);
+        int before = recorder.steps.size();
+        double start = Time.getTime();
+
+        // Each frame takes exactly two steps; updates see the step length.
+        for (int i = 1; i <= 10; i++) {
+            TrydentEngine.step(1);
+            assertEquals(before + 2 * i, recorder.steps.size());
+        }
+        for (int i = before; i < recorder.steps.size(); i++) {
+            assertEquals(Time.getFixedTimeStep(), recorder.steps.get(i), 0);
+        }
+        assertEquals(20 * Time.getFixedTimeStep(), Time.getTime() - start, 1e-9);
+
+        // Frames shorter than a step run no updates at all.
+        TrydentEngine.setHeadlessFrameRate(300);
+        Time.setFixedTimeStep(1 / 100.0);
+        before = recorder.steps.size();
+        TrydentEngine.step(3);
+        assertEquals(before, recorder.steps.size());
+        TrydentEngine.step(1);
+        assertEquals(before + 1, recorder.steps.size());
+    }
+
+    @Test
+    public void testMaxStepsDropsExcessTime() {
+        StepRecorder recorder = new StepRecorder();
+        // Frames of 0.1 seconds need three or more steps of 0.03 seconds.
+        TrydentEngine.setHeadlessFrameRate(10);
+        Time.setFixedTimeStep(0.03);
+        Time.setMaxStepsPerFrame(2);
+        TrydentEngine.step(1);
+        int before = recorder.steps.size();
+        double start = Time.getTime();
+        double realStart = Time.getRealTimeSinceStartup();
+
+        for (int i = 1; i <= 5; i++) {
+            TrydentEngine.step(1);
+            assertEquals(before + 2 * i, recorder.steps.size());
+        }
+        // The game falls behind real time instead of running more steps.
+        assertEquals(5 * 0.06, Time.getTime() - start, 1e-9);
+        assertEquals(5 * 0.1, Time.getRealTimeSinceStartup() - realStart, 1e-9);
+        assertTrue(Time.getInterpolationAlpha() >= 0 && Time.getInterpolationAlpha() < 1);
+    }
+
+    @Test
+    public void testInterpolationAlpha() {
+        TrydentEngine.setHeadlessFrameRate(60);
+        Time.setFixedTimeStep(0.007);
+        Time.setMaxStepsPerFrame(5);
+        TrydentEngine.step(1);
+        double start = Time.getTime() + Time.getInterpolationAlpha() * Time.getFixedTimeStep();
+
+        boolean between = false;
+        for (int i = 1; i <= 100; i++) {
+            TrydentEngine.step(1);
+            double alpha = Time.getInterpolationAlpha();
+            assertTrue("alpha = " + alpha, alpha >= 0 && alpha < 1);
+            between |= alpha > 0;
+            // The steps run plus the part of a step still to come add up to
+            // the time of the frames.
+            double simulated = Time.getTime() + alpha * Time.getFixedTimeStep();
+            assertEquals(i / 60.0, simulated - start, 1e-6);
+        }
+        assertTrue(between);
+
+        // Variable time steps are always fully up to date.
+        Time.setFixedTimeStep(0);
+        TrydentEngine.step(1);
+        assertEquals(1, Time.getInterpolationAlpha(), 0);
+    }
+
+    @Test
+    public void testClockResolution() {
+        // Empty headless frames take far less than a millisecond, which a
+        // millisecond clock would report as no time at all.
+        double shortest = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 20; i++) {
+            TrydentEngine.step(1);
+            assertTrue(Time.getRealTimePassed() > 0);
+            shortest = Math.min(shortest, Time.getRealTimePassed());
+        }
+        assertTrue("shortest frame: " + shortest, shortest < 0.001);
+    }
+
+    @Test
+    public void testSnapshotsStayUnchanged() {
+        TrydentEngine.setHeadlessFrameRate(10);
+        Time.setFixedTimeStep(0.03);
+        TrydentEngine.step(1);
+        FrameTime kept = Time.getFrame();
+        String before = kept.toString();
+        double time = kept.getTime();
+
+        // Several frames of several fixed steps each publish new snapshots.
+        TrydentEngine.step(3);
+        assertTrue(Time.getFrame() != kept);
+        assertTrue(Time.getTime() > time);
+        assertEquals(before, kept.toString());
+        assertEquals(time, kept.getTime(), 0);
+    }
+
+    @Test
+    public void testSmoothedTimePassed() {
+        TrydentEngine.setHeadlessFrameRate(100);
+        TrydentEngine.step(200);
+        assertEquals(0.01, Time.getTimePassed(), 1e-9);
+        assertEquals(0.01, Time.getSmoothedTimePassed(), 1e-9);
+
+        // A longer frame only moves the average a tenth of the way.
+        TrydentEngine.setHeadlessFrameRate(50);
+        TrydentEngine.step(1);
+        assertEquals(0.02, Time.getTimePassed(), 1e-9);
+        assertEquals(0.011, Time.getSmoothedTimePassed(), 1e-9);
+
+        // The smoothed step is in game time, like the raw one.
+        Time.setTimeRate(0.5);
+        TrydentEngine.step(1);
+        assertEquals(0.01, Time.getTimePassed(), 1e-9);
+        assertEquals(0.02, Time.getRealTimePassed(), 1e-9);
+        assertEquals(0.5 * 0.0119, Time.getSmoothedTimePassed(), 1e-9);
+    }
+
+    @Test
+    public void testFrameTimeStatistics() {
+        // Fill the history with known frames, then add a mix.
+        TrydentEngine.setHeadlessFrameRate(50);
+        TrydentEngine.step(300);
+        TrydentEngine.setHeadlessFrameRate(100);
+        TrydentEngine.step(120);
+        TrydentEngine.setHeadlessFrameRate(10);
+        TrydentEngine.step(1);
+
+        // The last 240 frames: 120 of 0.01, 119 of 0.02 and 1 of 0.1 seconds.
+        assertEquals(0.01, Time.getMinFrameTime(), 1e-9);
+        assertEquals(0.1, Time.getMaxFrameTime(), 1e-9);
+        assertEquals(0.01, Time.getFrameTimePercentile(0), 1e-9);
+        assertEquals(0.01, Time.getFrameTimePercentile(50), 1e-9);
+        assertEquals(0.02, Time.getFrameTimePercentile(51), 1e-9);
+        assertEquals(0.02, Time.getFrameTimePercentile(99), 1e-9);
+        assertEquals(0.1, Time.getFrameTimePercentile(100), 1e-9);
+        try {
+            Time.getFrameTimePercentile(101);
+            assertTrue("Expected an exception for a percentile above 100!", false);
+        } catch (TrydentException e) {
+        }
+    }
+
+    @Test
+    public void testFrameBudget() {
+        assertEquals(Double.POSITIVE_INFINITY, Time.getFrameBudgetRemaining(), 0);
+        assertFalse(Time.isFrameBudgetExceeded());
+        try {
+            Time.setFrameBudget(-1);
+            assertTrue("Expected an exception for a negative budget!", false);
+        } catch (TrydentException e) {
+        }
+
+        final List<Double> remaining = new ArrayList<>();
+        final List<Boolean> exceeded = new ArrayList<>();
+        new ContinuousEvent() {
+            @Override
+            public void onUpdate() {
+                remaining.add(Time.getFrameBudgetRemaining());
+                // Run past the budget of 1 ms.
+                long start = System.nanoTime();
+                while (System.nanoTime() - start < 2000000L) {
+                }
+                remaining.add(Time.getFrameBudgetRemaining());
+                exceeded.add(Time.isFrameBudgetExceeded());
+            }
+        };
+        Time.setFrameBudget(0.001);
+        assertEquals(0.001, Time.getFrameBudget(), 1e-12);
+        TrydentEngine.step(2);
+
+        // Each frame starts with a fresh budget.
+        assertEquals(4, remaining.size());
+        for (int i = 0; i < 4; i += 2) {
+            assertTrue(remaining.get(i) <= 0.001 && remaining.get(i) > 0);
+            assertTrue(remaining.get(i + 1) < 0);
+            assertTrue(exceeded.get(i / 2));
+        }
+        assertTrue(Time.getTimeInFrame() > 0);
+    }
+
 }
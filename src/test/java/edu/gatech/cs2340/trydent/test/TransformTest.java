@@ -0,0 +1,169 @@
+package edu.gatech.cs2340.trydent.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import javafx.scene.Group;
+import javafx.scene.transform.Affine;
+import javafx.scene.transform.Transform;
+
+import org.junit.Test;
+
+import edu.gatech.cs2340.trydent.GameObject;
+import edu.gatech.cs2340.trydent.TrydentException;
+import edu.gatech.cs2340.trydent.math.Orientation;
+import edu.gatech.cs2340.trydent.math.Position;
+import edu.gatech.cs2340.trydent.math.Scale;
+
+/**
+ * Tests for the local and world transforms of game objects, and the JavaFX
+ * transform that applies them.
+ */
+public class TransformTest extends TestUtil {
+
+    private static final double EPSILON = 1e-9;
+
+    /** Exposes the JavaFX node of a game object. */
+    private static class Probe extends GameObject {
+        Probe(String name) {
+            super(name);
+        }
+
+        Group node() {
+            return getFxNode();
+        }
+
+        Affine affine() {
+            return (Affine) node().getTransforms().get(0);
+        }
+    }
+
+    private static void assertPosition(double x, double y, Position position) {
+        assertEquals(x, position.getX(), EPSILON);
+        assertEquals(y, position.getY(), EPSILON);
+    }
+
+    private static void assertScale(double x, double y, Scale scale) {
+        assertEquals(x, scale.getX(), EPSILON);
+        assertEquals(y, scale.getY(), EPSILON);
+    }
+
+    private static void assertAffine(double mxx, double mxy, double tx, double myx, double myy, double ty,
+            Transform affine) {
+        assertEquals(mxx, affine.getMxx(), EPSILON);
+        assertEquals(mxy, affine.getMxy(), EPSILON);
+        assertEquals(tx, affine.getTx(), EPSILON);
+        assertEquals(myx, affine.getMyx(), EPSILON);
+        assertEquals(myy, affine.getMyy(), EPSILON);
+        assertEquals(ty, affine.getTy(), EPSILON);
+    }
+
+    @Test
+    public void testWorldTransformFollowsAncestors() {
+        GameObject root = new GameObject("root");
+        GameObject child = new GameObject("child");
+        GameObject grandchild = new GameObject("grandchild");
+        child.setParent(root);
+        grandchild.setParent(child);
+        root.setLocalPosition(10, 0);
+        child.setLocalPosition(5, 0);
+        grandchild.setLocalPosition(1, 0);
+        assertPosition(15, 0, child.getPosition());
+        assertPosition(16, 0, grandchild.getPosition());
+
+        // Moving an ancestor invalidates the cached world transforms below
+        // it, however deep.
+        root.setLocalRotation(90);
+        assertPosition(10, 6, grandchild.getPosition());
+        root.setLocalScale(new Scale(2, 2));
+        assertPosition(10, 10, child.getPosition());
+        assertPosition(10, 12, grandchild.getPosition());
+        assertEquals(90, grandchild.getRotation(), EPSILON);
+        assertScale(2, 2, grandchild.getScale());
+        root.setLocalPosition(0, 0);
+        assertPosition(0, 12, grandchild.getPosition());
+        assertPosition(5, 0, child.getLocalPosition());
+
+        // Setting the world transform works out the local one.
+        grandchild.setPosition(4, 4);
+        assertPosition(-3, -2, grandchild.getLocalPosition());
+        grandchild.setScale(new Scale(6, 4));
+        assertScale(3, 2, grandchild.getLocalScale());
+
+        // Reparenting keeps the world transform.
+        grandchild.setParent(null);
+        assertPosition(4, 4, grandchild.getPosition());
+        assertPosition(4, 4, grandchild.getLocalPosition());
+        assertEquals(90, grandchild.getLocalRotation(), EPSILON);
+        assertScale(6, 4, grandchild.getLocalScale());
+    }
+
+    @Test
+    public void testLocalTransformKeepsValues() {
+        GameObject object = new GameObject("object");
+        object.setLocalRotation(370);
+        assertEquals(370, object.getLocalRotation(), 0);
+        assertEquals(10, object.getRotation(), EPSILON);
+
+        // Mirroring isn't folded into the rotation.
+        object.setLocalScale(new Scale(-1, 2));
+        assertEquals(370, object.getLocalRotation(), 0);
+        assertScale(-1, 2, object.getLocalScale());
+
+        Probe copy = new Probe("copy");
+        copy.setLocalOrientation(object.getLocalOrientation());
+        Orientation orientation = copy.getLocalOrientation();
+        assertEquals(370, orientation.getRotation(), 0);
+        assertEquals(-1, orientation.getScaleX(), 0);
+        double cos = Math.cos(Math.toRadians(10));
+        double sin = Math.sin(Math.toRadians(10));
+        assertAffine(-cos, -2 * sin, 0, -sin, 2 * cos, 0, copy.affine());
+    }
+
+    @Test
+    public void testSingleAffine() {
+        Probe object = new Probe("object");
+        Affine affine = object.affine();
+        assertEquals(1, object.getTransformCount());
+
+        // Every kind of change goes through the same Affine, as T * R * S.
+        object.setLocalPosition(3, 4);
+        object.setLocalRotation(90);
+        object.scale(2, 3);
+        object.scale(new Scale(2, 1));
+        object.translate(1, 1);
+        object.rotate(90);
+        assertSame(affine, object.affine());
+        assertEquals(1, object.getTransformCount());
+        assertScale(4, 3, object.getLocalScale());
+        assertAffine(-4, 0, 4, 0, -3, 5, affine);
+
+        try {
+            object.scale(0, 1);
+            assertTrue("Expected an exception for scaling by 0!", false);
+        } catch (TrydentException e) {
+        }
+    }
+
+    @Test
+    public void testTransformCount() {
+        Probe object = new Probe("object");
+        object.node().getTransforms().add(new Affine());
+        object.node().getTransforms().add(new Affine());
+        assertEquals(3, object.getTransformCount());
+        object.destroy();
+        assertEquals(0, object.getTransformCount());
+
+        int threshold = GameObject.getTransformCountWarningThreshold();
+        try {
+            GameObject.setTransformCountWarningThreshold(0);
+            assertTrue("Expected an exception for a threshold of 0!", false);
+        } catch (TrydentException e) {
+        }
+        GameObject.setTransformCountWarningThreshold(2);
+        assertEquals(2, GameObject.getTransformCountWarningThreshold());
+        GameObject.setTransformCountWarningThreshold(threshold);
+    }
+
+}